@@ -15,6 +15,9 @@
 
 package com.clarkparsia.sbol;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Char sequence utility functions.
  * 
@@ -58,6 +61,59 @@ public class CharSequences {
 		return new TransformingCharSequence(seq, transformer);
 	}
 
+	public static CharSequence reverseComplementRNA(final CharSequence seq) {
+		final int maxIndex = seq.length() - 1;
+		CharSequenceTransformer transformer = new RNAComplementTransformer() {
+			@Override
+			public int transformIndex(int index) {
+				return maxIndex - index;
+			}
+		};
+		return new TransformingCharSequence(seq, transformer);
+	}
+
+	/**
+	 * Returns a sequence consisting of the given character repeated the given
+	 * number of times without allocating the characters.
+	 */
+	public static CharSequence repeat(final char c, final int length) {
+		return new RepeatingCharSequence(c, length);
+	}
+
+	/**
+	 * Returns a view of the given range of the sequence. Unlike
+	 * {@link CharSequence#subSequence(int, int)} the characters are never
+	 * copied.
+	 */
+	public static CharSequence slice(final CharSequence seq, final int start, final int end) {
+		if (start == 0 && end == seq.length()) {
+			return seq;
+		}
+		return new SliceCharSequence(seq, start, end);
+	}
+
+	/**
+	 * Returns a rope that is the concatenation of the given sequences. The
+	 * sequences are not copied; the rope is a balanced tree over them so
+	 * random access costs logarithmic time in the number of sequences and the
+	 * characters are copied only once when {@link Object#toString()} is
+	 * called.
+	 */
+	public static CharSequence concat(final List<? extends CharSequence> seqs) {
+		if (seqs.isEmpty()) {
+			return "";
+		}
+		return concat(seqs, 0, seqs.size());
+	}
+
+	private static CharSequence concat(final List<? extends CharSequence> seqs, int from, int to) {
+		if (to - from == 1) {
+			return seqs.get(from);
+		}
+		int mid = (from + to) >>> 1;
+		return new Rope(concat(seqs, from, mid), concat(seqs, mid, to));
+	}
+
 	private static final CharSequenceTransformer UPPER_CASE = new CharSequenceTransformer() {
 		public char transformChar(char c) {
 			return Character.toUpperCase(c);
@@ -112,6 +168,137 @@ public class CharSequences {
 		}
 	};
 	
+	private static class RNAComplementTransformer extends ComplementTransformer {
+		public char transformChar(char c) {
+			char complement = super.transformChar(c);
+			switch (complement) {
+				case 'T': return 'U';
+				case 't': return 'u';
+				default: return complement;
+			}
+		}
+	};
+
+	private static class RepeatingCharSequence implements CharSequence {
+		private final char c;
+		private final int length;
+
+		public RepeatingCharSequence(char c, int length) {
+			this.c = c;
+			this.length = length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+			return c;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new RepeatingCharSequence(c, end - start);
+		}
+
+		@Override
+		public String toString() {
+			char[] chars = new char[length];
+			Arrays.fill(chars, c);
+			return new String(chars);
+		}
+	}
+
+	private static class SliceCharSequence implements CharSequence {
+		private final CharSequence baseSeq;
+		private final int start;
+		private final int end;
+
+		public SliceCharSequence(CharSequence baseSeq, int start, int end) {
+			if (start < 0 || end > baseSeq.length() || start > end) {
+				throw new IndexOutOfBoundsException(start + ".." + end);
+			}
+			this.baseSeq = baseSeq;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return baseSeq.charAt(start + index);
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public CharSequence subSequence(int subStart, int subEnd) {
+			return new SliceCharSequence(baseSeq, start + subStart, start + subEnd);
+		}
+
+		@Override
+		public String toString() {
+			return new StringBuilder(length()).append(baseSeq, start, end).toString();
+		}
+	}
+
+	private static class Rope implements CharSequence {
+		private final CharSequence left;
+		private final CharSequence right;
+		private final int leftLength;
+		private final int length;
+
+		public Rope(CharSequence left, CharSequence right) {
+			this.left = left;
+			this.right = right;
+			this.leftLength = left.length();
+			this.length = leftLength + right.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return index < leftLength ? left.charAt(index) : right.charAt(index - leftLength);
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new SliceCharSequence(this, start, end);
+		}
+
+		private void appendTo(StringBuilder sb) {
+			append(sb, left);
+			append(sb, right);
+		}
+
+		private static void append(StringBuilder sb, CharSequence seq) {
+			if (seq instanceof Rope) {
+				((Rope) seq).appendTo(sb);
+			}
+			else {
+				sb.append(seq);
+			}
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(length);
+			appendTo(sb);
+			return sb.toString();
+		}
+	}
+
 	private static class TransformingCharSequence implements CharSequence {
 		private final CharSequence baseSeq;
 		private final CharSequenceTransformer transformer;
@@ -135,10 +322,8 @@ public class CharSequences {
 
 		@Override
         public CharSequence subSequence(int start, int end) {
-			int newStart = transformer.transformIndex(start);
-			int newEnd = transformer.transformIndex(end);
-			CharSequence newBaseSeq = baseSeq.subSequence(newStart, newEnd);
-	        return new TransformingCharSequence(newBaseSeq, transformer);
+			// the transformer may reverse the indices so it can't be applied to a sub sequence of the base
+	        return new SliceCharSequence(this, start, end);
         }
 
 		@Override
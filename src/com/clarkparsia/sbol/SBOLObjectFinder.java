@@ -15,93 +15,39 @@
 
 package com.clarkparsia.sbol;
 
-import java.util.List;
-
-import org.sbolstandard.core2.Collection;
-import org.sbolstandard.core2.ComponentDefinition;
-import org.sbolstandard.core2.Sequence;
-import org.sbolstandard.core2.SBOLObject;
-import org.sbolstandard.core2.SBOLVisitable;
-import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.Identified;
+import org.sbolstandard.core2.SBOLDocument;
 
 import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 
-public class SBOLObjectFinder<T extends SBOLObject> extends SublimeSBOLBaseVisitor {
-	public static Iterable<SBOLObject> findObjects(final SBOLVisitable visitable, final Predicate<SBOLObject> condition) {
-		SBOLObjectFinder<SBOLObject> finder = new SBOLObjectFinder<SBOLObject>(condition, SBOLObject.class);
-		visitable.accept(finder);
-		return finder.result;
-	}
-	
-	public static <T extends SBOLObject> Iterable<T> findObjects(final SBOLVisitable visitable, final Predicate<T> condition, Class<T> cls) {
-		SBOLObjectFinder<T> finder = new SBOLObjectFinder<T>(condition, cls);
-		visitable.accept(finder);
-		return finder.result;
-	}
-	
-	public static <T extends SBOLObject> T findObject(final SBOLVisitable visitable, final Predicate<T> condition, Class<T> cls) {
-		return Iterables.getOnlyElement(findObjects(visitable, condition, cls), null);
-	}
-	
-	private final Class<T> cls;
-	private final List<T> result = Lists.newArrayList();
-	private final Predicate<T> condition;
-	
-	private SBOLObjectFinder(final Predicate<T> condition, final Class<T> cls) {
-		this.condition = condition;
-		this.cls = cls;
-	}
-	
-    private void process(SBOLObject obj) {
-		if (cls.isInstance(obj)) {
-			T t = cls.cast(obj);
-		    if (condition.apply(t)) {
-		    	result.add(t);
-		    }
-		}
+/**
+ * Finds the objects of an SBOL document satisfying a condition. The lookups
+ * go through an {@link SBOLObjectIndex} so URI, display id, type and role
+ * predicates from {@link SBOLPredicates} don't test every object. Callers that
+ * search the same document more than once should create the index once and
+ * use the index based methods.
+ */
+public class SBOLObjectFinder {
+	public static Iterable<Identified> findObjects(final SBOLDocument doc, final Predicate<Identified> condition) {
+		return findObjects(doc, condition, Identified.class);
 	}
 
-	@Override
-    public void visit(Collection coll) {
-		process(coll);
-	    super.visit(coll);
-    }
-
-	@Override
-    public void visit(ComponentDefinition comp) {
-	    process(comp);
-	    super.visit(comp);
-    }
-
-	@Override
-    public void visit(Sequence seq) {
-	    process(seq);
-	    super.visit(seq);
-    }
+	public static <T extends Identified> Iterable<T> findObjects(final SBOLDocument doc, final Predicate<T> condition, Class<T> cls) {
+		return findObjects(SBOLObjectIndex.create(doc), condition, cls);
+	}
 
-	@Override
-    public void visit(SequenceAnnotation ann) {
-	    process(ann);
-	    super.visit(ann);
-    }
+	public static <T extends Identified> T findObject(final SBOLDocument doc, final Predicate<T> condition, Class<T> cls) {
+		return findObject(SBOLObjectIndex.create(doc), condition, cls);
+	}
 
-	@Override
-    public void visit(SublimeSequenceVariant variant) {
-		process(variant);
-	    super.visit(variant);
-    }
+	public static <T extends Identified> Iterable<T> findObjects(final SBOLObjectIndex index, final Predicate<T> condition, Class<T> cls) {
+		return index.find(condition, cls);
+	}
 
-	@Override
-    public void visit(SublimeSequenceAnalysis analysis) {
-		process(analysis);
-	    super.visit(analysis);
-    }
+	public static <T extends Identified> T findObject(final SBOLObjectIndex index, final Predicate<T> condition, Class<T> cls) {
+		return index.findOne(condition, cls);
+	}
 
-	@Override
-    public void visit(SublimeSequencingData data) {
-		process(data);
-	    super.visit(data);
-    }	
+	private SBOLObjectFinder() {
+	}
 }
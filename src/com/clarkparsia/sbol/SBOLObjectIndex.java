@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.Identified;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.TopLevel;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+/**
+ * A lookup index over the objects of an SBOL document keyed by URI, display
+ * id, type and role. The top level objects and the components and sequence
+ * annotations of the component definitions are indexed. The index is built
+ * with a single pass over the document and is not updated automatically;
+ * callers that modify the document either {@link #add(Identified)} and
+ * {@link #remove(Identified)} the changed objects or {@link #rebuild()} the
+ * index. An object should be removed before its display id, types or roles
+ * are changed and added again afterwards.
+ */
+public class SBOLObjectIndex {
+	private final SBOLDocument doc;
+
+	private final Set<Identified> objects = Sets.newLinkedHashSet();
+	private final Map<URI, Identified> byURI = Maps.newHashMap();
+	private final SetMultimap<String, Identified> byDisplayId = LinkedHashMultimap.create();
+	private final SetMultimap<URI, ComponentDefinition> byType = LinkedHashMultimap.create();
+	private final SetMultimap<URI, ComponentDefinition> byRole = LinkedHashMultimap.create();
+
+	public static SBOLObjectIndex create(SBOLDocument doc) {
+		SBOLObjectIndex index = new SBOLObjectIndex(doc);
+		index.rebuild();
+		return index;
+	}
+
+	private SBOLObjectIndex(SBOLDocument doc) {
+		this.doc = doc;
+	}
+
+	/**
+	 * Discards the indexed objects and indexes the document again.
+	 */
+	public void rebuild() {
+		objects.clear();
+		byURI.clear();
+		byDisplayId.clear();
+		byType.clear();
+		byRole.clear();
+
+		for (TopLevel topLevel : doc.getTopLevels()) {
+			add(topLevel);
+			if (topLevel instanceof ComponentDefinition) {
+				ComponentDefinition comp = (ComponentDefinition) topLevel;
+				for (Component component : comp.getComponents()) {
+					add(component);
+				}
+				for (SequenceAnnotation ann : comp.getSequenceAnnotations()) {
+					add(ann);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an object that has been added to the document after the index was
+	 * built.
+	 */
+	public void add(Identified obj) {
+		if (!objects.add(obj)) {
+			return;
+		}
+		if (obj.getIdentity() != null) {
+			byURI.put(obj.getIdentity(), obj);
+		}
+		if (obj.getDisplayId() != null) {
+			byDisplayId.put(obj.getDisplayId(), obj);
+		}
+		if (obj instanceof ComponentDefinition) {
+			ComponentDefinition comp = (ComponentDefinition) obj;
+			for (URI type : comp.getTypes()) {
+				byType.put(type, comp);
+			}
+			for (URI role : comp.getRoles()) {
+				byRole.put(role, comp);
+			}
+		}
+	}
+
+	/**
+	 * Removes an object that has been removed from the document after the
+	 * index was built.
+	 */
+	public void remove(Identified obj) {
+		if (!objects.remove(obj)) {
+			return;
+		}
+		if (obj.getIdentity() != null) {
+			byURI.remove(obj.getIdentity());
+		}
+		if (obj.getDisplayId() != null) {
+			byDisplayId.remove(obj.getDisplayId(), obj);
+		}
+		if (obj instanceof ComponentDefinition) {
+			ComponentDefinition comp = (ComponentDefinition) obj;
+			for (URI type : comp.getTypes()) {
+				byType.remove(type, comp);
+			}
+			for (URI role : comp.getRoles()) {
+				byRole.remove(role, comp);
+			}
+		}
+	}
+
+	public Set<Identified> getObjects() {
+		return Collections.unmodifiableSet(objects);
+	}
+
+	public Identified getByURI(URI uri) {
+		return byURI.get(uri);
+	}
+
+	public Set<Identified> getByDisplayId(String displayId) {
+		return Collections.unmodifiableSet(byDisplayId.get(displayId));
+	}
+
+	public Set<ComponentDefinition> getByType(URI type) {
+		return Collections.unmodifiableSet(byType.get(type));
+	}
+
+	public Set<ComponentDefinition> getByRole(URI role) {
+		return Collections.unmodifiableSet(byRole.get(role));
+	}
+
+	/**
+	 * Returns the roles of the indexed component definitions.
+	 */
+	public Set<URI> getRoles() {
+		return Collections.unmodifiableSet(byRole.keySet());
+	}
+
+	/**
+	 * Finds the indexed objects of the given class satisfying the condition.
+	 * URI, display id, type and role predicates from {@link SBOLPredicates}
+	 * are answered with a lookup; other predicates are tested against every
+	 * indexed object.
+	 */
+	public <T extends Identified> List<T> find(Predicate<T> condition, Class<T> cls) {
+		List<T> result = Lists.newArrayList();
+		for (Identified obj : getCandidates(condition)) {
+			if (cls.isInstance(obj)) {
+				T t = cls.cast(obj);
+				if (condition.apply(t)) {
+					result.add(t);
+				}
+			}
+		}
+		return result;
+	}
+
+	public <T extends Identified> T findOne(Predicate<T> condition, Class<T> cls) {
+		return Iterables.getOnlyElement(find(condition, cls), null);
+	}
+
+	/**
+	 * Returns the candidate objects for the given predicate, which is a
+	 * superset of the objects satisfying it. Predicates that are not
+	 * {@link SBOLPredicates.IndexedPredicate indexed} return all objects.
+	 */
+	private Collection<? extends Identified> getCandidates(Predicate<?> predicate) {
+		if (predicate instanceof SBOLPredicates.IndexedPredicate) {
+			SBOLPredicates.IndexedPredicate<?> indexed = (SBOLPredicates.IndexedPredicate<?>) predicate;
+			Object key = indexed.getKey();
+			switch (indexed.getKind()) {
+			case URI:
+				Identified obj = byURI.get(key);
+				return obj == null ? ImmutableSet.<Identified> of() : ImmutableSet.of(obj);
+			case DISPLAY_ID:
+				return byDisplayId.get((String) key);
+			case TYPE:
+				return byType.get((URI) key);
+			case ROLE:
+				return byRole.get((URI) key);
+			}
+		}
+		return objects;
+	}
+}
@@ -18,7 +18,7 @@ package com.clarkparsia.sbol;
 import java.net.URI;
 
 import org.sbolstandard.core2.ComponentDefinition;
-import org.sbolstandard.core2.SBOLObject;
+import org.sbolstandard.core2.Identified;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
@@ -28,21 +28,70 @@ import com.google.common.base.Predicate;
  * @author Evren Sirin
  */
 public class SBOLPredicates {
-	public static <T extends SBOLObject> Predicate<T> uri(final URI uri) {
-		return new Predicate<T>() {
+	/**
+	 * Matches the {@link Identified} objects with the given URI. The type
+	 * parameter is not bounded so the predicate can be used for any object
+	 * type; objects that aren't {@link Identified} never match.
+	 */
+	public static <T> Predicate<T> uri(final URI uri) {
+		return new IndexedPredicate<T>(Kind.URI, uri) {
 			@Override
-            public boolean apply(SBOLObject obj) {
-	            return Objects.equal(obj.getURI(), uri);
+            public boolean apply(T obj) {
+	            return obj instanceof Identified && Objects.equal(((Identified) obj).getIdentity(), uri);
             }
 		};
 	}
 	
 	public static Predicate<ComponentDefinition> displayId(final String displayId) {
-		return new Predicate<ComponentDefinition>() {
+		return new IndexedPredicate<ComponentDefinition>(Kind.DISPLAY_ID, displayId) {
 			@Override
             public boolean apply(ComponentDefinition comp) {
 	            return Objects.equal(comp.getDisplayId(), displayId);
             }
 		};
 	}
+	
+	public static Predicate<ComponentDefinition> type(final URI type) {
+		return new IndexedPredicate<ComponentDefinition>(Kind.TYPE, type) {
+			@Override
+            public boolean apply(ComponentDefinition comp) {
+	            return comp.getTypes().contains(type);
+            }
+		};
+	}
+	
+	public static Predicate<ComponentDefinition> role(final URI role) {
+		return new IndexedPredicate<ComponentDefinition>(Kind.ROLE, role) {
+			@Override
+            public boolean apply(ComponentDefinition comp) {
+	            return comp.getRoles().contains(role);
+            }
+		};
+	}
+	
+	enum Kind {
+		URI, DISPLAY_ID, TYPE, ROLE
+	}
+	
+	/**
+	 * A predicate that can be answered by an {@link SBOLObjectIndex} lookup
+	 * instead of testing every object in the document.
+	 */
+	static abstract class IndexedPredicate<T> implements Predicate<T> {
+		private final Kind kind;
+		private final Object key;
+		
+		IndexedPredicate(Kind kind, Object key) {
+			this.kind = kind;
+			this.key = key;
+		}
+		
+		Kind getKind() {
+			return kind;
+		}
+		
+		Object getKey() {
+			return key;
+		}
+	}
 }
@@ -18,12 +18,14 @@ package com.clarkparsia.sbol;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.prefs.Preferences;
 
@@ -36,6 +38,7 @@ import org.sbolstandard.core2.Component;
 import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.Identified;
 import org.sbolstandard.core2.Location;
+import org.sbolstandard.core2.OrientationType;
 import org.sbolstandard.core2.Range;
 import org.sbolstandard.core2.Sequence;
 import org.sbolstandard.core2.SBOLDocument;
@@ -46,13 +49,18 @@ import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstandard.core2.TopLevel;
 
 import com.clarkparsia.sbol.SBOLUtils.Types;
+import com.clarkparsia.sbol.SequenceAnnotationIndex.Span;
 import com.clarkparsia.sbol.editor.Part;
 import com.clarkparsia.sbol.editor.SBOLEditorPreferences;
 import com.clarkparsia.sbol.editor.dialog.RootInputDialog;
 import com.clarkparsia.sbol.editor.io.FileDocumentIO;
+import com.clarkparsia.sbol.terms.SO;
+import com.clarkparsia.sbol.terms.TermIndex;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * Being used:
@@ -154,18 +162,11 @@ public class SBOLUtils {
 	 * roles based on the passed in part's role.
 	 */
 	public static String[] createRefinements(Part part) {
-		SequenceOntology so = new SequenceOntology();
-		String[] descendantNames;
-		if (part.getRole() != null) {
-			descendantNames = so.getDescendantNamesOf(part.getRole()).toArray(new String[0]);
-			Arrays.sort(descendantNames);
-		} else {
-			descendantNames = new String[0];
-		}
-		String[] refine = new String[descendantNames.length + 1];
+		List<String> descendantNames = SO.getIndex().getDescendantNames(part.getRole());
+		String[] refine = new String[descendantNames.size() + 1];
 		refine[0] = "None";
-		for (int i = 1; i < descendantNames.length + 1; i++) {
-			refine[i] = descendantNames[i - 1];
+		for (int i = 1; i < descendantNames.size() + 1; i++) {
+			refine[i] = descendantNames.get(i - 1);
 		}
 		return refine;
 	}
@@ -176,7 +177,7 @@ public class SBOLUtils {
 	 */
 	public static List<URI> getRefinementRoles(Identified comp, Part part) {
 		ArrayList<URI> list = new ArrayList<URI>();
-		SequenceOntology so = new SequenceOntology();
+		TermIndex so = SO.getIndex();
 		Set<URI> roles;
 		if (comp instanceof ComponentDefinition) {
 			roles = ((ComponentDefinition) comp).getRoles();
@@ -318,6 +319,132 @@ public class SBOLUtils {
 		}
 	}
 
+	/**
+	 * Returns the nucleic acid sequence implied by the sequence annotations of
+	 * comp, or null if comp is neither DNA nor RNA. The result is a rope whose
+	 * leaves are views over the sequences of the subcomponents so nothing is
+	 * copied until the caller flattens it with toString(). Positions not
+	 * covered by any subcomponent are filled with 'N'. As in libSBOLj,
+	 * annotations are placed in the order comp returns them, so where two of
+	 * them overlap the later one overwrites the earlier one. A subcomponent
+	 * sequence running past the end of comp is cut off at the end.
+	 */
+	public static CharSequence getImpliedNucleicAcidSequence(ComponentDefinition comp) {
+		return getImpliedNucleicAcidSequence(comp, Maps.<URI, CharSequence> newHashMap());
+	}
+
+	private static CharSequence getImpliedNucleicAcidSequence(ComponentDefinition comp,
+			Map<URI, CharSequence> impliedSequences) {
+		boolean isRNA;
+		if (comp.getTypes().contains(ComponentDefinition.DNA)) {
+			isRNA = false;
+		} else if (comp.getTypes().contains(ComponentDefinition.RNA)) {
+			isRNA = true;
+		} else {
+			return null;
+		}
+
+		String nucleotides = getNucleotides(comp);
+		int length = nucleotides == null ? 0 : nucleotides.length();
+		List<Entry<Range, ComponentDefinition>> ranges = new ArrayList<Entry<Range, ComponentDefinition>>();
+		for (SequenceAnnotation sa : comp.getSequenceAnnotations()) {
+			ComponentDefinition child = sa.isSetComponent() ? sa.getComponentDefinition() : null;
+			for (Location location : sa.getLocations()) {
+				if (location instanceof Range) {
+					Range range = (Range) location;
+					length = Math.max(length, range.getEnd());
+					if (child != null) {
+						ranges.add(Maps.immutableEntry(range, child));
+					}
+				}
+			}
+		}
+		// start position of each placed piece, later pieces cut out the parts
+		// of earlier ones they overlap
+		TreeMap<Integer, CharSequence> segments = new TreeMap<Integer, CharSequence>();
+		for (Entry<Range, ComponentDefinition> entry : ranges) {
+			Range range = entry.getKey();
+			CharSequence subElements = getSequence(entry.getValue(), impliedSequences);
+			if (subElements == null) {
+				continue;
+			}
+			if (range.isSetOrientation() && range.getOrientation() == OrientationType.REVERSECOMPLEMENT) {
+				subElements = isRNA ? CharSequences.reverseComplementRNA(subElements)
+						: CharSequences.reverseComplement(subElements);
+			}
+			int start = range.getStart() - 1;
+			if (start < 0 || start >= length || subElements.length() == 0) {
+				continue;
+			}
+			if (start + subElements.length() > length) {
+				subElements = CharSequences.slice(subElements, 0, length - start);
+			}
+			overwrite(segments, start, subElements);
+		}
+
+		List<CharSequence> pieces = new ArrayList<CharSequence>();
+		int position = 0;
+		for (Entry<Integer, CharSequence> segment : segments.entrySet()) {
+			int start = segment.getKey();
+			if (start > position) {
+				pieces.add(CharSequences.repeat('N', start - position));
+			}
+			pieces.add(segment.getValue());
+			position = start + segment.getValue().length();
+		}
+		if (position < length) {
+			pieces.add(CharSequences.repeat('N', length - position));
+		}
+
+		return CharSequences.concat(pieces);
+	}
+
+	/**
+	 * Places seq at start, trimming or splitting the segments it overlaps.
+	 */
+	private static void overwrite(TreeMap<Integer, CharSequence> segments, int start, CharSequence seq) {
+		int end = start + seq.length();
+		Entry<Integer, CharSequence> before = segments.lowerEntry(start);
+		if (before != null) {
+			int beforeStart = before.getKey();
+			CharSequence beforeSeq = before.getValue();
+			int beforeEnd = beforeStart + beforeSeq.length();
+			if (beforeEnd > start) {
+				segments.put(beforeStart, CharSequences.slice(beforeSeq, 0, start - beforeStart));
+				if (beforeEnd > end) {
+					segments.put(end, CharSequences.slice(beforeSeq, end - beforeStart, beforeSeq.length()));
+				}
+			}
+		}
+		SortedMap<Integer, CharSequence> covered = segments.subMap(start, end);
+		for (Integer coveredStart : new ArrayList<Integer>(covered.keySet())) {
+			CharSequence coveredSeq = segments.remove(coveredStart);
+			if (coveredStart + coveredSeq.length() > end) {
+				segments.put(end, CharSequences.slice(coveredSeq, end - coveredStart, coveredSeq.length()));
+			}
+		}
+		segments.put(start, seq);
+	}
+
+	/**
+	 * Returns the sequence of comp if it has one, otherwise computes (and
+	 * remembers) the sequence implied by its subcomponents.
+	 */
+	private static CharSequence getSequence(ComponentDefinition comp, Map<URI, CharSequence> impliedSequences) {
+		String nucleotides = getNucleotides(comp);
+		if (nucleotides != null) {
+			return nucleotides;
+		}
+		CharSequence implied = impliedSequences.get(comp.getIdentity());
+		if (implied == null && !impliedSequences.containsKey(comp.getIdentity())) {
+			// guard against cyclic definitions while the child is computed
+			impliedSequences.put(comp.getIdentity(), null);
+			implied = getImpliedNucleicAcidSequence(comp, impliedSequences);
+			impliedSequences.put(comp.getIdentity(), implied);
+		}
+		return implied;
+	}
+
 	public static boolean isRegistryComponent(ComponentDefinition comp) {
 		URI uri = comp.getIdentity();
 		return uri != null
@@ -330,54 +457,78 @@ public class SBOLUtils {
 	 */
 	public static Map<Integer, Sequence> findUncoveredSequences(ComponentDefinition comp,
 			List<SequenceAnnotation> annotations, SBOLDocument design) {
+		Map<Integer, CharSequence> uncoveredElements = findUncoveredElements(comp, annotations);
+		if (uncoveredElements == null) {
+			return null;
+		}
+
+		Map<Integer, Sequence> uncoveredSequences = Maps.newLinkedHashMap();
+		for (Entry<Integer, CharSequence> entry : uncoveredElements.entrySet()) {
+			Sequence seq = SBOLUtils.createSequence(entry.getValue().toString(), design);
+			uncoveredSequences.put(entry.getKey(), seq);
+		}
+		return uncoveredSequences;
+	}
+
+	/**
+	 * Same as {@link #findUncoveredSequences(ComponentDefinition, List, SBOLDocument)}
+	 * but returns views over the sequence of comp instead of creating new
+	 * Sequences in the document. Returns null if an annotation doesn't have a
+	 * Range location.
+	 * <p>
+	 * The key -i-1 maps to the gap before the i-th annotation (or after the
+	 * last one for i = size) and the key i maps to the region of the i-th
+	 * annotation if its part has no sequence. The entries are ordered by
+	 * annotation.
+	 */
+	public static Map<Integer, CharSequence> findUncoveredElements(ComponentDefinition comp,
+			List<SequenceAnnotation> annotations) {
 		String sequence = SBOLUtils.getNucleotides(comp);
 		if (sequence == null) {
 			return ImmutableMap.of();
 		}
 
-		Map<Integer, Sequence> uncoveredSequences = Maps.newLinkedHashMap();
 		int size = annotations.size();
-		int location = 1;
+		Map<SequenceAnnotation, Integer> positions = Maps.newHashMapWithExpectedSize(size);
 		for (int i = 0; i < size; i++) {
 			SequenceAnnotation ann = annotations.get(i);
-
-			// Integer start = ann.getBioStart();
-			// Integer end = ann.getBioEnd();
-			Integer start = null;
-			Integer end = null;
-			Location loc = ann.getLocations().iterator().next();
 			// TODO Only taking into account locations of type Range.
-			if (loc instanceof Range) {
-				Range range = (Range) loc;
-				start = range.getStart();
-				end = range.getEnd();
+			if (!(ann.getLocations().iterator().next() instanceof Range)) {
+				return null;
 			}
+			positions.put(ann, i);
+		}
 
-			if (start == null || end == null) {
-				return null;
+		SequenceAnnotationIndex index = new SequenceAnnotationIndex(annotations);
+
+		// a gap is inserted before the first annotation that starts right
+		// after it
+		Map<Integer, Span> gaps = Maps.newHashMap();
+		for (Span span : index.getUncoveredSpans(sequence.length())) {
+			int position = size;
+			for (SequenceAnnotation next : index.getOverlapping(span.getEnd() + 1, span.getEnd() + 1)) {
+				position = Math.min(position, positions.get(next));
 			}
+			gaps.put(position, span);
+		}
 
-			if (start > location) {
-				Sequence seq = SBOLUtils.createSequence(sequence.substring(location - 1, start - 1), design);
-				uncoveredSequences.put(-i - 1, seq);
+		Map<Integer, CharSequence> uncoveredElements = Maps.newLinkedHashMap();
+		for (int i = 0; i <= size; i++) {
+			Span gap = gaps.get(i);
+			if (gap != null) {
+				uncoveredElements.put(-i - 1, gap.getElements(sequence));
 			}
 
-			if (ann.isSetComponent()) {
-				if (SBOLUtils.getNucleotides(ann.getComponentDefinition()) == null) {
-					Sequence seq = SBOLUtils.createSequence(sequence.substring(start - 1, end), design);
-					uncoveredSequences.put(i, seq);
+			if (i < size) {
+				SequenceAnnotation ann = annotations.get(i);
+				if (ann.isSetComponent() && SBOLUtils.getNucleotides(ann.getComponentDefinition()) == null) {
+					Range range = (Range) ann.getLocations().iterator().next();
+					uncoveredElements.put(i, CharSequences.slice(sequence, range.getStart() - 1, range.getEnd()));
 				}
 			}
-
-			location = end + 1;
-		}
-
-		if (location < sequence.length()) {
-			Sequence seq = SBOLUtils.createSequence(sequence.substring(location - 1, sequence.length()), design);
-			uncoveredSequences.put(-size - 1, seq);
 		}
 
-		return uncoveredSequences;
+		return uncoveredElements;
 	}
 
 	public enum Types {
@@ -486,8 +637,8 @@ public class SBOLUtils {
 			}
 		} else {
 			// roles exist
+			TermIndex so = SO.getIndex();
 			for (ComponentDefinition cd : setCD) {
-				SequenceOntology so = new SequenceOntology();
 				for (URI role : cd.getRoles()) {
 					if (so.isDescendantOf(role, part.getRole()) || role.equals(part.getRole())) {
 						list.add(cd);
@@ -499,6 +650,25 @@ public class SBOLUtils {
 		return list;
 	}
 
+	/**
+	 * Same as {@link #getCDOfRole(SBOLDocument, Part)} but looks the CDs up in
+	 * the index. Only the distinct roles in the document are checked against
+	 * the ontology so repeated filtering of the same document stays cheap.
+	 */
+	public static List<ComponentDefinition> getCDOfRole(SBOLObjectIndex index, Part part) {
+		if (part == null || part.getRoles() == null || part.getRoles().isEmpty()) {
+			return index.find(Predicates.<ComponentDefinition> alwaysTrue(), ComponentDefinition.class);
+		}
+		Set<ComponentDefinition> result = Sets.newLinkedHashSet();
+		TermIndex so = SO.getIndex();
+		for (URI role : index.getRoles()) {
+			if (so.isDescendantOf(role, part.getRole()) || role.equals(part.getRole())) {
+				result.addAll(index.getByRole(role));
+			}
+		}
+		return new ArrayList<ComponentDefinition>(result);
+	}
+
 	/**
 	 * Inserts all the TopLevels (CDs and Sequences) in doc into design. If a
 	 * TopLevel already exists, it will be overwritten.
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.Cut;
+import org.sbolstandard.core2.Location;
+import org.sbolstandard.core2.Range;
+import org.sbolstandard.core2.SequenceAnnotation;
+
+import com.google.common.collect.Ordering;
+
+/**
+ * A sorted-endpoint index over the locations of the sequence annotations of a
+ * component. The annotations are sorted once (in the same order as
+ * {@link ComponentDefinition#getSortedSequenceAnnotations()}) and the start
+ * and end positions are kept in arrays so position and overlap queries are
+ * answered with a binary search instead of a scan over all annotations.
+ * Positions are 1-based and inclusive as in SBOL.
+ */
+public class SequenceAnnotationIndex {
+	private final SequenceAnnotation[] annotations;
+	/**
+	 * Start and end positions of the annotations, -1 if the annotation has no
+	 * precise (Range or Cut) location.
+	 */
+	private final int[] starts;
+	private final int[] ends;
+	/**
+	 * maxEnds[i] is the largest end position of the annotations 0..i which
+	 * bounds how far back an overlap query needs to look.
+	 */
+	private final int[] maxEnds;
+	private final boolean precise;
+	/**
+	 * Binary search requires the start positions to be ascending which is the
+	 * case unless the locations were sorted by GenBank positions.
+	 */
+	private final boolean startOrdered;
+
+	public static SequenceAnnotationIndex of(ComponentDefinition comp) {
+		return new SequenceAnnotationIndex(comp.getSequenceAnnotations());
+	}
+
+	public SequenceAnnotationIndex(Iterable<SequenceAnnotation> sequenceAnnotations) {
+		List<SequenceAnnotation> list = new ArrayList<SequenceAnnotation>();
+		List<Location> firstLocations = new ArrayList<Location>();
+		for (SequenceAnnotation sa : sequenceAnnotations) {
+			List<Location> sorted = sa.getSortedLocations();
+			list.add(sa);
+			firstLocations.add(sorted.isEmpty() ? null : sorted.get(0));
+		}
+
+		// sort the annotations by their first location computing the sorted
+		// locations only once per annotation
+		final Location[] keys = firstLocations.toArray(new Location[0]);
+		Integer[] order = new Integer[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		// annotations without locations are sorted first
+		final Ordering<Location> byLocation = Ordering.<Location> natural().nullsFirst();
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return byLocation.compare(keys[i1], keys[i2]);
+			}
+		});
+
+		int size = order.length;
+		annotations = new SequenceAnnotation[size];
+		starts = new int[size];
+		ends = new int[size];
+		maxEnds = new int[size];
+		boolean allPrecise = true;
+		boolean ordered = true;
+		int maxEnd = -1;
+		for (int i = 0; i < size; i++) {
+			annotations[i] = list.get(order[i]);
+			int start = -1;
+			int end = -1;
+			for (Location location : annotations[i].getLocations()) {
+				if (location instanceof Range) {
+					Range range = (Range) location;
+					start = min(start, range.getStart());
+					end = Math.max(end, range.getEnd());
+				} else if (location instanceof Cut) {
+					Cut cut = (Cut) location;
+					start = min(start, cut.getAt());
+					end = Math.max(end, cut.getAt());
+				}
+			}
+			allPrecise &= (start != -1);
+			starts[i] = start;
+			ends[i] = end;
+			maxEnd = Math.max(maxEnd, end);
+			maxEnds[i] = maxEnd;
+			ordered &= (i == 0 || starts[i - 1] <= start);
+		}
+		precise = allPrecise;
+		startOrdered = ordered;
+	}
+
+	private static int min(int current, int value) {
+		return current == -1 ? value : Math.min(current, value);
+	}
+
+	/**
+	 * Returns true if every annotation has a Range or Cut location.
+	 */
+	public boolean isPrecise() {
+		return precise;
+	}
+
+	public int size() {
+		return annotations.length;
+	}
+
+	/**
+	 * Returns the annotations sorted by their locations.
+	 */
+	public List<SequenceAnnotation> getSortedAnnotations() {
+		return Collections.unmodifiableList(Arrays.asList(annotations));
+	}
+
+	/**
+	 * Returns the annotation covering the given position or null if there
+	 * isn't one. If several annotations overlap at the position the one
+	 * starting last is returned.
+	 */
+	public SequenceAnnotation getAnnotationAt(int position) {
+		for (int i = lastStartingAtOrBefore(position); i >= 0 && maxEnds[i] >= position; i--) {
+			if (starts[i] != -1 && ends[i] >= position) {
+				return annotations[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the annotations that overlap with the region start..end, sorted
+	 * by their locations.
+	 */
+	public List<SequenceAnnotation> getOverlapping(int start, int end) {
+		List<SequenceAnnotation> result = new ArrayList<SequenceAnnotation>();
+		for (int i = lastStartingAtOrBefore(end); i >= 0 && maxEnds[i] >= start; i--) {
+			if (starts[i] != -1 && ends[i] >= start) {
+				result.add(annotations[i]);
+			}
+		}
+		Collections.reverse(result);
+		return result;
+	}
+
+	/**
+	 * Returns the regions of a sequence with the given length that are not
+	 * covered by any annotation.
+	 */
+	public List<Span> getUncoveredSpans(int length) {
+		List<Span> result = new ArrayList<Span>();
+		int position = 1;
+		int[] sortedStarts = starts;
+		int[] sortedEnds = ends;
+		if (!startOrdered) {
+			sortedStarts = starts.clone();
+			sortedEnds = ends.clone();
+			sortPairs(sortedStarts, sortedEnds);
+		}
+		for (int i = 0; i < sortedStarts.length; i++) {
+			if (sortedStarts[i] == -1) {
+				continue;
+			}
+			if (sortedStarts[i] > position) {
+				result.add(new Span(position, Math.min(sortedStarts[i] - 1, length)));
+			}
+			position = Math.max(position, sortedEnds[i] + 1);
+			if (position > length) {
+				break;
+			}
+		}
+		if (position <= length) {
+			result.add(new Span(position, length));
+		}
+		return result;
+	}
+
+	private static void sortPairs(int[] keys, int[] values) {
+		long[] pairs = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			pairs[i] = ((long) keys[i] << 32) | (values[i] & 0xFFFFFFFFL);
+		}
+		Arrays.sort(pairs);
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = (int) (pairs[i] >> 32);
+			values[i] = (int) pairs[i];
+		}
+	}
+
+	/**
+	 * Returns the index of the last annotation (in sorted order) that starts
+	 * at or before the given position, -1 if there is no such annotation.
+	 */
+	private int lastStartingAtOrBefore(int position) {
+		if (!startOrdered) {
+			return starts.length - 1;
+		}
+		int low = 0;
+		int high = starts.length - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= position) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A region of a sequence with 1-based inclusive coordinates.
+	 */
+	public static class Span {
+		private final int start;
+		private final int end;
+
+		public Span(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public int getStart() {
+			return start;
+		}
+
+		public int getEnd() {
+			return end;
+		}
+
+		public int length() {
+			return end - start + 1;
+		}
+
+		/**
+		 * Returns a view of the part of the given sequence this span covers.
+		 */
+		public CharSequence getElements(CharSequence sequence) {
+			return CharSequences.slice(sequence, start - 1, end);
+		}
+
+		@Override
+		public String toString() {
+			return start + ".." + end;
+		}
+	}
+}
@@ -44,6 +44,7 @@ import com.clarkparsia.sbol.editor.event.DesignLoadedEvent;
 import com.clarkparsia.sbol.editor.event.FocusInEvent;
 import com.clarkparsia.sbol.editor.event.FocusOutEvent;
 import com.clarkparsia.swing.Buttons;
+import com.google.common.util.concurrent.FutureCallback;
 
 /**
  * 
@@ -51,6 +52,7 @@ import com.clarkparsia.swing.Buttons;
  */
 public class AddressBar extends JToolBar {
 	private static final ImageIcon ICON = new ImageIcon(Images.getActionImage("right.png"));
+	private static final int TOOLTIP_WIDTH = 400;
 
 	private final SBOLDesign design;
 
@@ -133,7 +135,7 @@ public class AddressBar extends JToolBar {
 
 	@EventHandler
 	public void focusedIn(FocusInEvent event) {
-		setToolTip(event.getSnapshot());
+		setToolTip(event.getDesign().getParentCD());
 		addButton(event.getComponent());
 	}
 
@@ -154,10 +156,31 @@ public class AddressBar extends JToolBar {
 		repaint();
 	}
 
-	private void setToolTip(BufferedImage image) {
-		JComponent comp = (JComponent) getComponent(count);
-		comp.putClientProperty("overview", Images.scaleImage(image, 0.5));
-		comp.setToolTipText(image == null ? null : "");
+	private void setToolTip(ComponentDefinition parent) {
+		final JComponent comp = (JComponent) getComponent(count);
+		if (parent == null) {
+			comp.putClientProperty("overview", null);
+			comp.setToolTipText(null);
+			return;
+		}
+
+		design.getThumbnails().getThumbnail(parent, TOOLTIP_WIDTH, new FutureCallback<BufferedImage>() {
+			@Override
+			public void onSuccess(BufferedImage image) {
+				// the user might have focused out before the thumbnail was ready
+				int index = getComponentZOrder(comp);
+				if (image == null || index < 0 || index >= idx(count - 1)) {
+					return;
+				}
+				comp.putClientProperty("overview", image);
+				comp.setToolTipText("");
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				t.printStackTrace();
+			}
+		});
 	}
 
 	public class JToolTipWithIcon extends JToolTip {
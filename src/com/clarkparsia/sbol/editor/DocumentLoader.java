@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dialog.ModalityType;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import com.clarkparsia.sbol.editor.io.DocumentIO;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Reads (and optionally validates) a document on a background thread while a
+ * modal progress dialog with a cancel button is shown. The Swing event thread
+ * keeps pumping events while the dialog is open so the window stays
+ * responsive, and the caller gets the document back on the event thread where
+ * it can swap the model. When called outside the event thread the document is
+ * read directly.
+ * <p>
+ * Cancelling closes the dialog right away and interrupts the background
+ * thread. File reads stop at the next read from the file and the document is
+ * not validated once loading has been cancelled.
+ */
+public class DocumentLoader {
+	private final Component parent;
+	private final DocumentIO documentIO;
+	private final boolean validate;
+
+	private List<String> validationErrors = ImmutableList.of();
+
+	public DocumentLoader(Component parent, DocumentIO documentIO, boolean validate) {
+		this.parent = parent;
+		this.documentIO = documentIO;
+		this.validate = validate;
+	}
+
+	/**
+	 * Returns the validation errors found while loading the document, empty if
+	 * the document wasn't validated.
+	 */
+	public List<String> getValidationErrors() {
+		return validationErrors;
+	}
+
+	/**
+	 * Returns the loaded document or null if the user cancelled loading.
+	 */
+	public SBOLDocument load() throws SBOLValidationException, IOException, SBOLConversionException {
+		if (!SwingUtilities.isEventDispatchThread()) {
+			return read(null);
+		}
+
+		final LoadWorker worker = new LoadWorker();
+		final JDialog dialog = createDialog(worker);
+		worker.setDialog(dialog);
+		worker.execute();
+		// blocks until the worker disposes the dialog but keeps dispatching
+		// events in the meantime
+		dialog.setVisible(true);
+
+		try {
+			return worker.get();
+		} catch (CancellationException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			Throwables.propagateIfInstanceOf(cause, SBOLValidationException.class);
+			Throwables.propagateIfInstanceOf(cause, SBOLConversionException.class);
+			Throwables.propagateIfInstanceOf(cause, IOException.class);
+			throw Throwables.propagate(cause);
+		}
+	}
+
+	private SBOLDocument read(LoadWorker worker)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		if (worker != null) {
+			worker.note("Reading " + documentIO + "...");
+		}
+		SBOLDocument doc = documentIO.read();
+		if (worker != null && worker.isCancelled()) {
+			return null;
+		}
+		if (validate) {
+			if (worker != null) {
+				worker.note("Validating " + documentIO + "...");
+			}
+			validationErrors = SBOLDesign.validate(doc);
+		}
+		return doc;
+	}
+
+	private JDialog createDialog(final LoadWorker worker) {
+		final JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), "Loading",
+				ModalityType.APPLICATION_MODAL);
+		dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+
+		JProgressBar progressBar = new JProgressBar();
+		progressBar.setIndeterminate(true);
+
+		JButton cancelButton = new JButton("Cancel");
+		cancelButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				worker.cancel(true);
+			}
+		});
+
+		JPanel buttonPanel = new JPanel();
+		buttonPanel.add(cancelButton);
+
+		JPanel panel = new JPanel(new BorderLayout(0, 5));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(worker.noteLabel, BorderLayout.NORTH);
+		panel.add(progressBar, BorderLayout.CENTER);
+		panel.add(buttonPanel, BorderLayout.SOUTH);
+
+		dialog.setContentPane(panel);
+		dialog.pack();
+		dialog.setLocationRelativeTo(parent);
+		return dialog;
+	}
+
+	private class LoadWorker extends SwingWorker<SBOLDocument, String> {
+		private final JLabel noteLabel = new JLabel("Loading " + documentIO + "...");
+		private JDialog dialog;
+
+		void setDialog(JDialog dialog) {
+			this.dialog = dialog;
+		}
+
+		void note(String note) {
+			publish(note);
+		}
+
+		@Override
+		protected SBOLDocument doInBackground() throws Exception {
+			return read(this);
+		}
+
+		@Override
+		protected void process(List<String> notes) {
+			noteLabel.setText(notes.get(notes.size() - 1));
+		}
+
+		@Override
+		protected void done() {
+			dialog.setVisible(false);
+			dialog.dispose();
+		}
+	}
+}
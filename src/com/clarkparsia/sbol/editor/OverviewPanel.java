@@ -17,9 +17,9 @@ package com.clarkparsia.sbol.editor;
 
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Image;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -34,6 +34,7 @@ import com.adamtaft.eb.EventHandler;
 import com.clarkparsia.sbol.editor.event.DesignLoadedEvent;
 import com.clarkparsia.sbol.editor.event.FocusInEvent;
 import com.clarkparsia.sbol.editor.event.FocusOutEvent;
+import com.google.common.util.concurrent.FutureCallback;
 
 /**
  * 
@@ -41,6 +42,7 @@ import com.clarkparsia.sbol.editor.event.FocusOutEvent;
  */
 public class OverviewPanel extends JPanel {
 	private int WIDTH = 150;
+	private static final int THUMBNAIL_WIDTH = 120;
 	private final SBOLEditor editor;
 
 	private int count = 0;
@@ -56,29 +58,42 @@ public class OverviewPanel extends JPanel {
 		editor.getEventBus().subscribe(this);
 	}
 
-	private JComponent createButton(final ComponentDefinition comp, final Image image) {
-		final int width = image.getWidth(null);
-		final int height = image.getHeight(null);
-		// JComponent button = Buttons.createButton("", new
-		// ImageIcon(Images.scaleImage(img, 0.6))) {
-		//
-		// };
+	private JComponent createButton(final ComponentDefinition comp) {
+		final ComponentDefinition parentComponent = editor.getDesign().getParentCD();
+
 		final JPanel button = new JPanel() {
+			private BufferedImage thumbnail;
+
+			{
+				// the thumbnail of the parent design is scaled in the background
+				editor.getDesign().getThumbnails().getThumbnail(parentComponent, THUMBNAIL_WIDTH,
+						new FutureCallback<BufferedImage>() {
+							@Override
+							public void onSuccess(BufferedImage image) {
+								thumbnail = image;
+								repaint();
+							}
+
+							@Override
+							public void onFailure(Throwable t) {
+								t.printStackTrace();
+							}
+						});
+			}
 
 			@Override
 			protected void paintComponent(Graphics g) {
 				super.paintComponent(g);
 
-				double scale = Math.min(0.8, (double) getWidth() / width);
-				g.drawImage(image, 0, 0, (int) (width * scale), (int) (height * scale), this);
-				// g.drawImage(Images.scaleImage(image, scale), 0, 0, null);
+				if (thumbnail != null) {
+					g.drawImage(thumbnail, 0, 0, this);
+				}
 			}
 
 		};
 		button.setOpaque(false);
 		button.putClientProperty("comp", comp);
 
-		final ComponentDefinition parentComponent = editor.getDesign().getParentCD();
 		button.addMouseListener(new MouseAdapter() {
 			@Override
 			public void mouseClicked(MouseEvent e) {
@@ -94,8 +109,8 @@ public class OverviewPanel extends JPanel {
 		return button;
 	}
 
-	private void addButton(final ComponentDefinition comp, final Image image) {
-		add(createButton(comp, image), count++);
+	private void addButton(final ComponentDefinition comp) {
+		add(createButton(comp), count++);
 	}
 
 	@EventHandler
@@ -108,7 +123,7 @@ public class OverviewPanel extends JPanel {
 
 	@EventHandler
 	public void focusedIn(FocusInEvent event) {
-		addButton(event.getComponent(), event.getSnapshot());
+		addButton(event.getComponent());
 	}
 
 	@EventHandler
@@ -64,9 +64,12 @@ public class Part {
 	private final String name;
 	private final String displayId;
 	private final List<URI> roles;
-	private final Image positiveImage;
-	private final Image negativeImage;
-	private final Image smallImage;
+	private final String imageFileName;
+	private final ImageType imageType;
+	/**
+	 * Images are decoded and scaled the first time they are requested so creating a part is cheap.
+	 */
+	private volatile PartImages images;
 
 	public Part(String name, String displayId) {
 		this(name, displayId, null, null, new URI[0]);
@@ -80,15 +83,21 @@ public class Part {
 		this.name = name;
 		this.displayId = displayId;
 		this.roles = ImmutableList.copyOf(roles);
-		if (imageFileName == null) {
-			positiveImage = negativeImage = smallImage = null;
-		} else {
-			BufferedImage image = Images.toBufferedImage(Images.getPartImage(imageFileName));
-			this.positiveImage = Images.scaleImageToWidth(image, IMG_WIDTH);
-			this.negativeImage = Images.rotate180(positiveImage);
-			this.smallImage = Images.scaleImageToWidth(image.getSubimage(0, image.getHeight() / imageType.cropRatio,
-					image.getWidth(), image.getHeight() / 2), 24);
+		this.imageFileName = imageFileName;
+		this.imageType = imageType;
+	}
+
+	private PartImages getImages() {
+		PartImages result = images;
+		if (result == null && imageFileName != null) {
+			synchronized (this) {
+				result = images;
+				if (result == null) {
+					images = result = new PartImages(imageFileName, imageType);
+				}
+			}
 		}
+		return result;
 	}
 
 	public String getName() {
@@ -111,7 +120,11 @@ public class Part {
 	 * Returns the image for the part that can be used in the SBOL design.
 	 */
 	public Image getImage(OrientationType orientation) {
-		return orientation == OrientationType.REVERSECOMPLEMENT ? negativeImage : positiveImage;
+		PartImages images = getImages();
+		if (images == null) {
+			return null;
+		}
+		return orientation == OrientationType.REVERSECOMPLEMENT ? images.negativeImage : images.positiveImage;
 	}
 
 	/**
@@ -119,7 +132,8 @@ public class Part {
 	 * it suitable to be used in a toolbar, button, etc.
 	 */
 	public Image getImage() {
-		return smallImage;
+		PartImages images = getImages();
+		return images == null ? null : images.smallImage;
 	}
 
 	/**
@@ -149,4 +163,18 @@ public class Part {
 	public String toString() {
 		return displayId + " (" + name + ")";
 	}
+
+	private static class PartImages {
+		private final Image positiveImage;
+		private final Image negativeImage;
+		private final Image smallImage;
+
+		private PartImages(String imageFileName, ImageType imageType) {
+			BufferedImage image = Images.toBufferedImage(Images.getPartImage(imageFileName));
+			this.positiveImage = Images.scaleImageToWidth(image, IMG_WIDTH);
+			this.negativeImage = Images.rotate180(positiveImage);
+			this.smallImage = Images.scaleImageToWidth(image.getSubimage(0, image.getHeight() / imageType.cropRatio,
+					image.getWidth(), image.getHeight() / 2), 24);
+		}
+	}
 }
\ No newline at end of file
@@ -27,6 +27,8 @@ import org.sbolstandard.core2.SequenceAnnotation;
 import org.sbolstandard.core2.SequenceOntology;
 
 import com.clarkparsia.sbol.editor.Part.ImageType;
+import com.clarkparsia.sbol.terms.SO;
+import com.clarkparsia.sbol.terms.TermIndex;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
@@ -80,10 +82,12 @@ public class Parts {
 
 	private static Part createPart(String name, String displayId, String imageFileName, ImageType imageType,
 			String... soIDs) {
+		// the URIs are built directly instead of looking up the IDs with
+		// SequenceOntology which would parse the whole ontology at class
+		// initialization
 		URI[] roles = new URI[soIDs.length];
-		SequenceOntology so = new SequenceOntology();
 		for (int i = 0; i < soIDs.length; i++) {
-			roles[i] = so.getURIbyId(soIDs[i]);
+			roles[i] = URI.create(SequenceOntology.NAMESPACE + soIDs[i]);
 		}
 		return createPart(name, displayId, imageFileName, imageType, roles);
 	}
@@ -121,7 +125,7 @@ public class Parts {
 			return PARTS.get(role);
 		}
 
-		SequenceOntology so = new SequenceOntology();
+		TermIndex so = SO.getIndex();
 		for (Part part : PARTS.values()) {
 			if (part == GENERIC) {
 				// GENERIC has role SequenceFeature, which all other roles
@@ -45,12 +45,14 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -89,6 +91,7 @@ import org.slf4j.LoggerFactory;
 import com.adamtaft.eb.EventBus;
 import com.clarkparsia.sbol.CharSequences;
 import com.clarkparsia.sbol.SBOLUtils;
+import com.clarkparsia.sbol.SequenceAnnotationIndex;
 import com.clarkparsia.sbol.editor.dialog.MessageDialog;
 import com.clarkparsia.sbol.editor.dialog.PartEditDialog;
 import com.clarkparsia.sbol.editor.dialog.RootInputDialog;
@@ -99,11 +102,16 @@ import com.clarkparsia.sbol.editor.event.FocusInEvent;
 import com.clarkparsia.sbol.editor.event.FocusOutEvent;
 import com.clarkparsia.sbol.editor.event.PartVisibilityChangedEvent;
 import com.clarkparsia.sbol.editor.event.SelectionChangedEvent;
+import com.clarkparsia.sbol.terms.SO;
+import com.clarkparsia.sbol.terms.TermIndex;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 
 /**
@@ -227,6 +235,32 @@ public class SBOLDesign {
 		}
 	};
 
+	public final SBOLEditorAction REMOVE_SCARS = new SBOLEditorAction("Remove scars",
+			"Remove all the scars from the design", "clear.gif") {
+		@Override
+		protected void perform() {
+			try {
+				removeScars();
+			} catch (SBOLValidationException e) {
+				JOptionPane.showMessageDialog(panel, "There was a problem removing scars: " + e.getMessage());
+				e.printStackTrace();
+			}
+		}
+	};
+
+	public final SBOLEditorAction REVERSE = new SBOLEditorAction("Reverse design",
+			"Reverse the order and orientation of all the parts in the design", "right.png") {
+		@Override
+		protected void perform() {
+			try {
+				reverseRegion(0, elements.size());
+			} catch (SBOLValidationException e) {
+				JOptionPane.showMessageDialog(panel, "There was a problem reversing the design: " + e.getMessage());
+				e.printStackTrace();
+			}
+		}
+	};
+
 	public final SBOLEditorAction FOCUS_IN = new SBOLEditorAction("Focus in",
 			"Focus in the part to view and edit its subparts", "go_down.png") {
 		@Override
@@ -260,12 +294,26 @@ public class SBOLDesign {
 	 */
 	private final List<DesignElement> elements = Lists.newArrayList();
 	private final Map<DesignElement, JLabel> buttons = Maps.newHashMap();
+	/**
+	 * The position of each element in elements and the elements that refer to
+	 * each CD. Both are updated along with elements so lookups don't need to
+	 * scan the list.
+	 */
+	private final Map<DesignElement, Integer> elementIndexes = Maps.newHashMap();
+	private final SetMultimap<URI, DesignElement> elementsByCD = HashMultimap.create();
 	private final Set<Part> hiddenParts = Sets.newHashSet();
 
 	private final Set<ReadOnly> readOnly = EnumSet.noneOf(ReadOnly.class);
 
 	private boolean loading = false;
 
+	/**
+	 * Number of nested batches currently being applied and whether the design
+	 * changed during the outermost batch.
+	 */
+	private int batchDepth = 0;
+	private boolean batchChanged = false;
+
 	private DesignElement selectedElement = null;
 
 	private final Box elementBox;
@@ -289,6 +337,12 @@ public class SBOLDesign {
 
 	private final Deque<ComponentDefinition> parentCDs = new ArrayDeque<ComponentDefinition>();
 
+	/**
+	 * Snapshots of the designs visited while navigating the hierarchy so they are not rendered again every time
+	 * the user focuses in and out of an unchanged component.
+	 */
+	private final ThumbnailCache thumbnails = new ThumbnailCache();
+
 	public SBOLDesign(EventBus eventBus) {
 		this.eventBus = eventBus;
 
@@ -382,7 +436,11 @@ public class SBOLDesign {
 
 		ComponentDefinition comp = getSelectedCD();
 
-		BufferedImage snapshot = getSnapshot();
+		BufferedImage snapshot = thumbnails.getSnapshot(canvasCD);
+		if (snapshot == null) {
+			snapshot = getUnselectedSnapshot();
+			thumbnails.putSnapshot(canvasCD, snapshot);
+		}
 
 		updateCanvasCD();
 		parentCDs.push(canvasCD);
@@ -428,9 +486,30 @@ public class SBOLDesign {
 			JOptionPane.showMessageDialog(panel, "No document to load.", "Load error", JOptionPane.ERROR_MESSAGE);
 			return false;
 		}
+		return load(doc, validate(doc));
+	}
+
+	/**
+	 * Validates the given document and returns the list of errors. This does
+	 * not touch the UI so it can be called from a background thread before
+	 * calling {@link #load(SBOLDocument, List)}.
+	 */
+	public static List<String> validate(SBOLDocument doc) {
 		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 		SBOLValidate.validateSBOL(doc, false, false, true);
-		List<String> errors = SBOLValidate.getErrors();
+		return new ArrayList<String>(SBOLValidate.getErrors());
+	}
+
+	/**
+	 * Loads the given SBOLDocument that has already been validated. Returns
+	 * true if the design was successfully loaded.
+	 */
+	public boolean load(SBOLDocument doc, List<String> errors) throws SBOLValidationException {
+		if (doc == null) {
+			JOptionPane.showMessageDialog(panel, "No document to load.", "Load error", JOptionPane.ERROR_MESSAGE);
+			return false;
+		}
+		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 		if (!errors.isEmpty()) {
 			MessageDialog.showMessage(panel, "Beware, this file isn't following best practice", errors);
 		}
@@ -462,6 +541,7 @@ public class SBOLDesign {
 		}
 
 		parentCDs.clear();
+		thumbnails.clear();
 		load(rootCD);
 
 		eventBus.publish(new DesignLoadedEvent(this));
@@ -474,6 +554,8 @@ public class SBOLDesign {
 		elementBox.removeAll();
 		backboneBox.removeAll();
 		elements.clear();
+		elementIndexes.clear();
+		elementsByCD.clear();
 		buttons.clear();
 		readOnly.clear();
 
@@ -499,10 +581,12 @@ public class SBOLDesign {
 			readOnly.add(ReadOnly.REGISTRY_COMPONENT);
 		}
 
-		Map<Integer, Sequence> uncoveredSequences = findUncoveredSequences();
-		if (uncoveredSequences == null) {
+		// only the uncovered regions are needed here, don't create Sequences
+		Map<Integer, CharSequence> uncoveredElements = SBOLUtils.findUncoveredElements(canvasCD,
+				getSequenceAnnotations());
+		if (uncoveredElements == null) {
 			readOnly.add(ReadOnly.MISSING_START_END);
-		} else if (!uncoveredSequences.isEmpty()) {
+		} else if (!uncoveredElements.isEmpty()) {
 			readOnly.add(ReadOnly.UNCOVERED_SEQUENCE);
 		}
 	}
@@ -581,6 +665,17 @@ public class SBOLDesign {
 	}
 
 	private void addScarsForUncoveredSequences() throws SBOLValidationException {
+		batch(new BatchEdit() {
+			@Override
+			public void apply() throws SBOLValidationException {
+				insertScarsForUncoveredSequences();
+			}
+		});
+
+		createDocument();
+	}
+
+	private void insertScarsForUncoveredSequences() throws SBOLValidationException {
 		Map<Integer, Sequence> uncoveredSequences = findUncoveredSequences();
 		int insertCount = 0;
 		int lastIndex = elements.size();
@@ -604,18 +699,19 @@ public class SBOLDesign {
 				moveElement(lastIndex++, insertIndex);
 			}
 		}
-
-		createDocument();
 	}
 
 	private Map<Integer, Sequence> findUncoveredSequences() {
-		return SBOLUtils.findUncoveredSequences(canvasCD,
-				Lists.transform(elements, new Function<DesignElement, SequenceAnnotation>() {
-					@Override
-					public SequenceAnnotation apply(DesignElement e) {
-						return e.getSeqAnn();
-					}
-				}), design);
+		return SBOLUtils.findUncoveredSequences(canvasCD, getSequenceAnnotations(), design);
+	}
+
+	private List<SequenceAnnotation> getSequenceAnnotations() {
+		return Lists.transform(elements, new Function<DesignElement, SequenceAnnotation>() {
+			@Override
+			public SequenceAnnotation apply(DesignElement e) {
+				return e.getSeqAnn();
+			}
+		});
 	}
 
 	/**
@@ -652,7 +748,9 @@ public class SBOLDesign {
 		// If completely annotated, then sort by SequenceAnnotations
 		// SequenceConstraints can be neglected
 		if (completelyAnnotated) {
-			Iterable<SequenceAnnotation> sortedSAs = comp.getSortedSequenceAnnotations();
+			// the index sorts the annotations once instead of recomputing the
+			// sorted locations on every comparison
+			Iterable<SequenceAnnotation> sortedSAs = SequenceAnnotationIndex.of(comp).getSortedAnnotations();
 			for (SequenceAnnotation sequenceAnnotation : sortedSAs) {
 				if (sequenceAnnotation.isSetComponent()) {
 					org.sbolstandard.core2.Component component = sequenceAnnotation.getComponent();
@@ -717,13 +815,45 @@ public class SBOLDesign {
 	}
 
 	private int getElementIndex(ComponentDefinition comp) {
-		for (int i = 0, n = elements.size(); i < n; i++) {
-			DesignElement e = elements.get(i);
-			if (e.getCD() == comp) {
-				return i;
+		int result = -1;
+		for (DesignElement e : elementsByCD.get(comp.getIdentity())) {
+			int index = elementIndexes.get(e);
+			if (e.getCD() == comp && (result < 0 || index < result)) {
+				result = index;
 			}
 		}
-		return -1;
+		return result;
+	}
+
+	private int getElementIndex(DesignElement e) {
+		Integer index = elementIndexes.get(e);
+		return index == null ? -1 : index;
+	}
+
+	private void insertElement(int index, DesignElement e) {
+		elements.add(index, e);
+		elementsByCD.put(e.getCDURI(), e);
+		reindexElements(index, elements.size());
+	}
+
+	/**
+	 * Moves an element in elements and updates the positions of the elements
+	 * in between.
+	 */
+	private void moveElementIndex(int source, int target) {
+		DesignElement e = elements.remove(source);
+		elements.add(target, e);
+		reindexElements(Math.min(source, target), Math.max(source, target) + 1);
+	}
+
+	/**
+	 * Records the current positions of the elements from start (inclusive) to
+	 * end (exclusive).
+	 */
+	private void reindexElements(int start, int end) {
+		for (int i = start; i < end; i++) {
+			elementIndexes.put(elements.get(i), i);
+		}
 	}
 
 	public ComponentDefinition getRootCD() {
@@ -734,6 +864,10 @@ public class SBOLDesign {
 		return canvasCD;
 	}
 
+	public ThumbnailCache getThumbnails() {
+		return thumbnails;
+	}
+
 	public ComponentDefinition getParentCD() {
 		return parentCDs.peek();
 	}
@@ -799,7 +933,7 @@ public class SBOLDesign {
 		DesignElement e = new DesignElement(component, canvasCD, comp, part, design);
 		JLabel button = createComponentButton(e);
 
-		elements.add(e);
+		insertElement(elements.size(), e);
 		elementBox.add(button);
 		buttons.put(e, button);
 
@@ -816,7 +950,7 @@ public class SBOLDesign {
 		DesignElement e = new DesignElement(sequenceAnnotation, canvasCD, part, design);
 		JLabel button = createComponentButton(e);
 
-		elements.add(e);
+		insertElement(elements.size(), e);
 		elementBox.add(button);
 		buttons.put(e, button);
 
@@ -834,8 +968,8 @@ public class SBOLDesign {
 			return;
 		}
 
-		DesignElement element = elements.remove(source);
-		elements.add(element);
+		moveElementIndex(source, target);
+		DesignElement element = elements.get(target);
 
 		JLabel button = buttons.get(element);
 		elementBox.remove(button);
@@ -930,7 +1064,7 @@ public class SBOLDesign {
 		new DropTarget(button, new DropTargetAdapter() {
 			@Override
 			public void drop(DropTargetDropEvent event) {
-				int index = elements.indexOf(e);
+				int index = getElementIndex(e);
 				if (index >= 0) {
 					Point loc = event.getLocation();
 					if (loc.getX() > button.getWidth() * 0.75 && index < elements.size() - 1) {
@@ -944,7 +1078,7 @@ public class SBOLDesign {
 	}
 
 	private String getTooltipText(DesignElement e) {
-		SequenceOntology so = new SequenceOntology();
+		TermIndex so = SO.getIndex();
 		StringBuilder sb = new StringBuilder();
 		sb.append("<html>");
 		final ComponentDefinition comp = e.getCD();
@@ -1013,10 +1147,9 @@ public class SBOLDesign {
 
 	private void moveSelectedElement(int index) {
 		if (selectedElement != null) {
-			int selectedIndex = elements.indexOf(selectedElement);
+			int selectedIndex = getElementIndex(selectedElement);
 			if (selectedIndex >= 0 && selectedIndex != index) {
-				elements.remove(selectedIndex);
-				elements.add(index, selectedElement);
+				moveElementIndex(selectedIndex, index);
 
 				JLabel button = buttons.get(selectedElement);
 				elementBox.remove(selectedIndex);
@@ -1047,25 +1180,130 @@ public class SBOLDesign {
 			return;
 		}
 
-		int index = getElementIndex(component);
-		if (index >= 0) {
+		if (deleteElement(getElementIndex(component))) {
+			fireDesignChangedEvent();
+		}
+	}
+
+	/**
+	 * Deletes all the given CDs from the canvas and fires a single design
+	 * changed event at the end.
+	 */
+	public void deleteCDs(final Iterable<ComponentDefinition> components) throws SBOLValidationException {
+		if (!confirmEditable()) {
+			return;
+		}
+
+		SortedSet<Integer> indexes = Sets.newTreeSet();
+		for (ComponentDefinition component : components) {
+			int index = getElementIndex(component);
+			if (index >= 0) {
+				indexes.add(index);
+			}
+		}
+
+		if (deleteElements(indexes)) {
+			fireDesignChangedEvent();
+		}
+	}
+
+	private boolean deleteElement(int index) throws SBOLValidationException {
+		return index >= 0 && deleteElements(ImmutableSortedSet.of(index));
+	}
+
+	/**
+	 * Removes the elements at the given positions. The element list is
+	 * compacted and reindexed once no matter how many elements are removed.
+	 */
+	private boolean deleteElements(SortedSet<Integer> indexes) throws SBOLValidationException {
+		if (indexes.isEmpty()) {
+			return false;
+		}
+
+		for (int index : indexes) {
 			DesignElement e = elements.get(index);
 
 			if (e == selectedElement) {
 				setSelectedElement(null);
-				design.removeComponentDefinition(e.component.getDefinition());
-				canvasCD.removeSequenceAnnotation(e.seqAnn);
+			}
+			elementsByCD.remove(e.getCDURI(), e);
+			canvasCD.removeSequenceAnnotation(e.seqAnn);
+			if (e.component != null) {
+				// the same part may be on the canvas more than once so the CD
+				// is only removed with its last element
+				ComponentDefinition definition = e.component.getDefinition();
+				if (definition != null && elementsByCD.get(e.getCDURI()).isEmpty()) {
+					design.removeComponentDefinition(definition);
+				}
 				canvasCD.clearSequenceConstraints();
 				canvasCD.removeComponent(e.component);
 			}
 
-			JLabel button = buttons.remove(e);
-			elements.remove(index);
-			elementBox.remove(button);
+			elementBox.remove(buttons.remove(e));
+			elementIndexes.remove(e);
+		}
 
-			updateCanvasCD();
-			fireDesignChangedEvent();
+		int first = indexes.first();
+		int target = first;
+		for (int i = first, n = elements.size(); i < n; i++) {
+			if (!indexes.contains(i)) {
+				elements.set(target++, elements.get(i));
+			}
+		}
+		elements.subList(target, elements.size()).clear();
+		reindexElements(first, elements.size());
+
+		return true;
+	}
+
+	/**
+	 * Adds all the given CDs to the end of the canvas and fires a single
+	 * design changed event at the end.
+	 */
+	public void addCDs(final Iterable<ComponentDefinition> comps) throws SBOLValidationException {
+		if (!confirmEditable()) {
+			return;
+		}
+
+		batch(new BatchEdit() {
+			@Override
+			public void apply() throws SBOLValidationException {
+				for (ComponentDefinition comp : comps) {
+					addCD(comp);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Reverses the order of the elements between the given indexes (start
+	 * inclusive, end exclusive) and flips the orientation of each element so
+	 * the region reads as the reverse complement. A single design changed
+	 * event is fired.
+	 */
+	public void reverseRegion(int start, int end) throws SBOLValidationException {
+		Preconditions.checkPositionIndexes(start, end, elements.size());
+		if (!confirmEditable() || end - start < 1) {
+			return;
 		}
+
+		List<DesignElement> region = elements.subList(start, end);
+		Collections.reverse(region);
+		reindexElements(start, end);
+
+		for (int i = start; i < end; i++) {
+			DesignElement e = elements.get(i);
+			if (e.getCD() != null) {
+				e.flipOrientation();
+			}
+
+			JLabel button = buttons.get(e);
+			elementBox.remove(button);
+			elementBox.add(button, i);
+			setupIcons(button, e);
+		}
+
+		fireDesignChangedEvent();
 	}
 
 	private void replaceCD(ComponentDefinition oldCD, ComponentDefinition newCD) throws SBOLValidationException {
@@ -1073,7 +1311,9 @@ public class SBOLDesign {
 		if (index >= 0) {
 			DesignElement e = elements.get(index);
 			JLabel button = buttons.get(e);
+			elementsByCD.remove(e.getCDURI(), e);
 			e.setCD(newCD);
+			elementsByCD.put(e.getCDURI(), e);
 			if (!newCD.getRoles().contains(e.getPart().getRole())) {
 				Part newPart = Parts.forIdentified(newCD);
 				if (newPart == null) {
@@ -1095,8 +1335,55 @@ public class SBOLDesign {
 		panel.repaint();
 	}
 
+	/**
+	 * Applies the given edits as a single change. Design changed events fired
+	 * by the edits are held back until the outermost batch finishes; then the
+	 * canvas CD is updated once and a single {@link DesignChangedEvent} is
+	 * published. Batches can be nested.
+	 */
+	public void batch(BatchEdit edit) throws SBOLValidationException {
+		batchDepth++;
+		try {
+			edit.apply();
+		} catch (Throwable e) {
+			// the edits applied before the failure still need to be shown but
+			// a failure while doing so should not hide the original one
+			try {
+				endBatch();
+			} catch (RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		endBatch();
+	}
+
+	private void endBatch() {
+		batchDepth--;
+		if (batchDepth == 0 && batchChanged) {
+			batchChanged = false;
+			fireDesignChangedEvent();
+		}
+	}
+
+	/**
+	 * A group of edits applied to the design with {@link SBOLDesign#batch(BatchEdit)}.
+	 */
+	public interface BatchEdit {
+		void apply() throws SBOLValidationException;
+	}
+
 	private void fireDesignChangedEvent() {
+		if (batchDepth > 0) {
+			batchChanged = true;
+			return;
+		}
 		updateCanvasCD();
+		// the parents show the current component in their designs so their snapshots are outdated too
+		thumbnails.invalidate(canvasCD);
+		for (ComponentDefinition parent : parentCDs) {
+			thumbnails.invalidate(parent);
+		}
 		refreshUI();
 		eventBus.publish(new DesignChangedEvent(this));
 	}
@@ -1145,6 +1432,19 @@ public class SBOLDesign {
 		}
 	}
 
+	/**
+	 * Deletes all the scars in the design with a single design changed event.
+	 */
+	public void removeScars() throws SBOLValidationException {
+		List<ComponentDefinition> scars = Lists.newArrayList();
+		for (DesignElement e : elements) {
+			if (e.getPart() == Parts.SCAR && e.getCD() != null) {
+				scars.add(e.getCD());
+			}
+		}
+		deleteCDs(scars);
+	}
+
 	public void addScars() throws SBOLValidationException {
 		if (!confirmEditable()) {
 			return;
@@ -1163,6 +1463,7 @@ public class SBOLDesign {
 				JLabel button = createComponentButton(scar);
 
 				elements.add(i + 1, scar);
+				elementsByCD.put(scar.getCDURI(), scar);
 				elementBox.add(button, i + 1 - start);
 				buttons.put(scar, button);
 				end++;
@@ -1172,6 +1473,7 @@ public class SBOLDesign {
 		}
 
 		if (size != elements.size()) {
+			reindexElements(0, elements.size());
 			fireDesignChangedEvent();
 		}
 
@@ -1213,7 +1515,7 @@ public class SBOLDesign {
 	}
 
 	public void editSelectedCD() throws SBOLValidationException {
-		ComponentDefinition originalCD = getSelectedCD();
+		final ComponentDefinition originalCD = getSelectedCD();
 		if (originalCD == null) {
 			// opens sequenceAnnotation editor/viewer
 			PartEditDialog.editPart(panel.getParent(), getCanvasCD(), selectedElement.getSeqAnn(), false, false,
@@ -1226,14 +1528,21 @@ public class SBOLDesign {
 			return;
 		}
 
-		ComponentDefinition editedCD = PartEditDialog.editPart(panel.getParent(), originalCD, false, true, design);
+		final ComponentDefinition editedCD = PartEditDialog.editPart(panel.getParent(), originalCD, false, true,
+				design);
 
-		if (editedCD != null) {
-			// if the CD type or the displyId has been edited we need to
-			// update the component view so we'll replace it with the new CD
-			replaceCD(originalCD, editedCD);
-		}
-		fireDesignChangedEvent();
+		batch(new BatchEdit() {
+			@Override
+			public void apply() throws SBOLValidationException {
+				if (editedCD != null) {
+					// if the CD type or the displyId has been edited we need to
+					// update the component view so we'll replace it with the
+					// new CD
+					replaceCD(originalCD, editedCD);
+				}
+				fireDesignChangedEvent();
+			}
+		});
 	}
 
 	public void findPartForSelectedCD() throws Exception {
@@ -1288,15 +1597,33 @@ public class SBOLDesign {
 				designHeight);
 	}
 
+	/**
+	 * Takes a snapshot of the design without highlighting the selected element
+	 * so the cached snapshot doesn't depend on the selection.
+	 */
+	private BufferedImage getUnselectedSnapshot() {
+		JLabel button = selectedElement == null ? null : buttons.get(selectedElement);
+		if (button != null) {
+			button.setEnabled(true);
+		}
+		try {
+			return getSnapshot();
+		} finally {
+			if (button != null) {
+				button.setEnabled(false);
+			}
+		}
+	}
+
 	/**
 	 * Creates a document based off of the root CD
 	 */
 	public SBOLDocument createDocument() throws SBOLValidationException {
 		ComponentDefinition rootComp = parentCDs.isEmpty() ? canvasCD : parentCDs.getLast();
-		// updatecanvasCD on every level of the tree
+		// updatecanvasCD on every level of the tree, focusOut updates the
+		// level it leaves so each level is updated exactly once
 		while (canvasCD != rootComp) {
 			focusOut(parentCDs.getFirst());
-			updateCanvasCD();
 		}
 		focusOut(rootComp);
 		updateCanvasCD();
@@ -1323,7 +1650,9 @@ public class SBOLDesign {
 				canvasCD.removeSequence(s.getIdentity());
 				design.removeSequence(s);
 			}
-			String nucleotides = canvasCD.getImpliedNucleicAcidSequence();
+			// the implied sequence is a rope over the children's sequences and
+			// is only flattened once when the new Sequence is created
+			CharSequence nucleotides = SBOLUtils.getImpliedNucleicAcidSequence(canvasCD);
 
 			if (nucleotides != null && nucleotides.length() > 0) {
 				if (nucleotides.length() < oldElements.length()) {
@@ -1369,7 +1698,8 @@ public class SBOLDesign {
 				// use the implied sequence
 				String uniqueId = SBOLUtils.getUniqueDisplayId(null, canvasCD.getDisplayId() + "Sequence", "1",
 						"Sequence", design);
-				Sequence newSequence = design.createSequence(uniqueId, "1", nucleotides, Sequence.IUPAC_DNA);
+				Sequence newSequence = design.createSequence(uniqueId, "1", nucleotides.toString(),
+						Sequence.IUPAC_DNA);
 				canvasCD.addSequence(newSequence);
 			} else {
 				// use the old sequence provided it was there
@@ -1541,6 +1871,14 @@ public class SBOLDesign {
 			return component.getDefinition();
 		}
 
+		/**
+		 * Returns the URI of the CD without resolving it, so it is available
+		 * even after the CD has been removed from the document.
+		 */
+		URI getCDURI() {
+			return component == null ? null : component.getDefinitionURI();
+		}
+
 		void setPart(Part part) {
 			this.part = part;
 		}
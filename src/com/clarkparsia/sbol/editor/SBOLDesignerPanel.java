@@ -203,8 +203,10 @@ public class SBOLDesignerPanel extends JPanel {
 				if (result != null) {
 					DocumentIO newIO = result.getDocumentIO();
 					if (result.isInsert()) {
-						ComponentDefinition newComponent = SBOLUtils.getRootCD(newIO.read());
-						design.addCD(newComponent);
+						SBOLDocument doc = new DocumentLoader(SBOLDesignerPanel.this, newIO, false).load();
+						if (doc != null) {
+							design.addCDs(doc.getRootComponentDefinitions());
+						}
 					} else {
 						openDesign(newIO);
 					}
@@ -332,9 +334,10 @@ public class SBOLDesignerPanel extends JPanel {
 				DocumentIO docIO = HistoryDialog.show(SBOLDesignerPanel.this, (RVTDocumentIO) documentIO);
 				if (docIO != null) {
 					if (docIO instanceof ReadOnlyDocumentIO) {
-						SBOLDocument doc = docIO.read();
-						ComponentDefinition comp = SBOLUtils.getRootCD(doc);
-						design.addCD(comp);
+						SBOLDocument doc = new DocumentLoader(SBOLDesignerPanel.this, docIO, false).load();
+						if (doc != null) {
+							design.addCDs(doc.getRootComponentDefinitions());
+						}
 					} else if (confirmSave()) {
 						openDesign(docIO);
 					}
@@ -355,7 +358,7 @@ public class SBOLDesignerPanel extends JPanel {
 	SBOLEditorActions TOOLBAR_ACTIONS = new SBOLEditorActions().add(NEW, OPEN, SAVE, EXPORT, DIVIDER)
 			.addIf(SBOLEditorPreferences.INSTANCE.isVersioningEnabled(), VERSION, DIVIDER)
 			.add(design.EDIT_CANVAS, design.EDIT, design.FIND, design.UPLOAD, design.DELETE, design.FLIP, DIVIDER)
-			.add(design.HIDE_SCARS, design.ADD_SCARS, DIVIDER).add(design.FOCUS_IN, design.FOCUS_OUT, DIVIDER, SNAPSHOT)
+			.add(design.HIDE_SCARS, design.ADD_SCARS, design.REMOVE_SCARS, design.REVERSE, DIVIDER).add(design.FOCUS_IN, design.FOCUS_OUT, DIVIDER, SNAPSHOT)
 			.add(PREFERENCES).add(SPACER, INFO);
 
 	private final SBOLEditorActions VERSION_ACTIONS = new SBOLEditorActions().add(NEW_VERSION, DIVIDER)
@@ -497,10 +500,18 @@ public class SBOLDesignerPanel extends JPanel {
 		SBOLEditorPreferences.INSTANCE.saveUserInfo(userInfo);
 	}
 
+	/**
+	 * Reads and validates the document in the background and only loads it
+	 * into the design on the event thread. Does nothing if the user cancels.
+	 */
 	void openDesign(DocumentIO documentIO) throws SBOLValidationException, IOException, SBOLConversionException {
-		SBOLDocument doc = documentIO.read();
+		DocumentLoader loader = new DocumentLoader(this, documentIO, true);
+		SBOLDocument doc = loader.load();
+		if (doc == null) {
+			return;
+		}
 		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
-		if (editor.getDesign().load(doc)) {
+		if (editor.getDesign().load(doc, loader.getValidationErrors())) {
 			setCurrentFile(documentIO);
 		}
 	}
@@ -597,7 +608,7 @@ public class SBOLDesignerPanel extends JPanel {
 		if (!SBOLUtils.setupFile().exists()) {
 			saveIntoNewFile();
 		} else {
-			saveIntoExistingFile();
+			return saveIntoExistingFile();
 		}
 		return true;
 	}
@@ -630,11 +641,15 @@ public class SBOLDesignerPanel extends JPanel {
 	}
 
 	/**
-	 * Save design into an existing SBOL file
+	 * Save design into an existing SBOL file. Returns false if the user
+	 * cancelled reading the existing file.
 	 */
-	void saveIntoExistingFile() throws Exception {
+	boolean saveIntoExistingFile() throws Exception {
 		// the document we are saving into
-		SBOLDocument doc = documentIO.read();
+		SBOLDocument doc = new DocumentLoader(this, documentIO, false).load();
+		if (doc == null) {
+			return false;
+		}
 		// the document we are saving
 		SBOLDocument currentDesign = design.createDocument();
 		ComponentDefinition currentRootCD = SBOLUtils.getRootCD(currentDesign);
@@ -646,7 +661,7 @@ public class SBOLDesignerPanel extends JPanel {
 					"Overwrite", JOptionPane.YES_NO_OPTION);
 			if (answer == JOptionPane.NO_OPTION || answer == JOptionPane.CLOSED_OPTION) {
 				updateEnabledButtons(true);
-				return;
+				return true;
 			} else {
 				selection = 0;
 			}
@@ -662,7 +677,7 @@ public class SBOLDesignerPanel extends JPanel {
 		case JOptionPane.CLOSED_OPTION:
 			// closed
 			// updateEnabledButtons(true);
-			return;
+			return true;
 		case 0:
 			// Overwrite
 			// Remove from doc everything contained within currentDesign
@@ -678,7 +693,7 @@ public class SBOLDesignerPanel extends JPanel {
 		}
 		documentIO.write(doc);
 		updateEnabledButtons(false);
-		return;
+		return true;
 	}
 
 	/**
@@ -47,6 +47,7 @@ import com.clarkparsia.sbol.SBOLUtils;
 import com.clarkparsia.sbol.editor.event.DesignChangedEvent;
 import com.clarkparsia.sbol.editor.io.DocumentIO;
 import com.clarkparsia.sbol.editor.io.FileDocumentIO;
+import com.clarkparsia.sbol.editor.io.RecursiveCopyDocumentIO;
 import com.clarkparsia.versioning.Infos;
 import com.clarkparsia.versioning.PersonInfo;
 
@@ -65,7 +66,7 @@ public class SBOLDesignerPlugin extends SBOLDesignerPanel {
 			// .addIf(SBOLEditorPreferences.INSTANCE.isVersioningEnabled(),
 			// VERSION, DIVIDER)
 			.add(design.EDIT_CANVAS, design.EDIT, design.FIND, design.UPLOAD, design.DELETE, design.FLIP, DIVIDER)
-			.add(design.HIDE_SCARS, design.ADD_SCARS, DIVIDER).add(design.FOCUS_IN, design.FOCUS_OUT, DIVIDER, SNAPSHOT)
+			.add(design.HIDE_SCARS, design.ADD_SCARS, design.REMOVE_SCARS, design.REVERSE, DIVIDER).add(design.FOCUS_IN, design.FOCUS_OUT, DIVIDER, SNAPSHOT)
 			.add(PREFERENCES).add(SPACER, INFO);
 
 	private String fileName;
@@ -170,13 +171,19 @@ public class SBOLDesignerPlugin extends SBOLDesignerPanel {
 		return toolbar;
 	}
 
+	/**
+	 * Reads, copies out the root design and validates in the background like
+	 * {@link SBOLDesignerPanel#openDesign(DocumentIO)}.
+	 */
 	void openDesign(DocumentIO documentIO) throws SBOLValidationException, IOException, SBOLConversionException {
-		SBOLDocument doc = documentIO.read();
-		doc.setDefaultURIprefix(URIprefix);
-		if (rootURI != null) {
-			doc = doc.createRecursiveCopy(doc.getComponentDefinition(rootURI));
+		DocumentIO input = (rootURI == null) ? documentIO : new RecursiveCopyDocumentIO(documentIO, rootURI);
+		DocumentLoader loader = new DocumentLoader(this, input, true);
+		SBOLDocument doc = loader.load();
+		if (doc == null) {
+			return;
 		}
-		if (editor.getDesign().load(doc)) {
+		doc.setDefaultURIprefix(URIprefix);
+		if (editor.getDesign().load(doc, loader.getValidationErrors())) {
 			setCurrentFile(documentIO);
 		}
 	}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+import org.sbolstandard.core2.ComponentDefinition;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Caches the snapshots of the designs of components and the thumbnails scaled from them. A snapshot has to be taken
+ * on the event thread since it paints the design panel but it is taken only once for each revision of a component;
+ * the entry is discarded only when the component (or one of its children shown in its design) changes. Thumbnails
+ * are scaled on a background thread and delivered on the event thread.
+ * <p>
+ * Components are compared by identity and entries are dropped when the component is garbage collected.
+ */
+public class ThumbnailCache {
+	private static final ListeningExecutorService SCALER = MoreExecutors.listeningDecorator(Executors
+	                .newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true)
+	                                .setNameFormat("Thumbnail renderer").build()));
+
+	private static final Executor EVENT_THREAD = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			if (SwingUtilities.isEventDispatchThread()) {
+				command.run();
+			}
+			else {
+				SwingUtilities.invokeLater(command);
+			}
+		}
+	};
+
+	private final Cache<ComponentDefinition, Entry> entries = CacheBuilder.newBuilder().weakKeys().build();
+
+	/**
+	 * Returns the cached snapshot of the design of the component, null if there is no snapshot for the current
+	 * revision of the component.
+	 */
+	public BufferedImage getSnapshot(ComponentDefinition comp) {
+		Entry entry = entries.getIfPresent(comp);
+		return entry == null ? null : entry.snapshot;
+	}
+
+	public void putSnapshot(ComponentDefinition comp, BufferedImage snapshot) {
+		entries.put(comp, new Entry(snapshot));
+	}
+
+	/**
+	 * Discards the snapshot and thumbnails of the component.
+	 */
+	public void invalidate(ComponentDefinition comp) {
+		if (comp != null) {
+			entries.invalidate(comp);
+		}
+	}
+
+	public void clear() {
+		entries.invalidateAll();
+	}
+
+	/**
+	 * Returns the thumbnail of the component's snapshot that is at most the given width. The thumbnail is scaled in
+	 * the background the first time it is requested and the future completes with null if there is no snapshot for
+	 * the component.
+	 */
+	public ListenableFuture<BufferedImage> getThumbnail(ComponentDefinition comp, int width) {
+		Entry entry = entries.getIfPresent(comp);
+		if (entry == null) {
+			return Futures.immediateFuture(null);
+		}
+		return entry.getThumbnail(width);
+	}
+
+	/**
+	 * Passes the thumbnail of the component to the given callback on the event thread once it is ready.
+	 */
+	public void getThumbnail(ComponentDefinition comp, int width, final FutureCallback<BufferedImage> callback) {
+		Futures.addCallback(getThumbnail(comp, width), callback, EVENT_THREAD);
+	}
+
+	private static class Entry {
+		private final BufferedImage snapshot;
+		private final Map<Integer, ListenableFuture<BufferedImage>> thumbnails = Maps.newHashMap();
+
+		private Entry(BufferedImage snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		private synchronized ListenableFuture<BufferedImage> getThumbnail(final int width) {
+			ListenableFuture<BufferedImage> thumbnail = thumbnails.get(width);
+			if (thumbnail == null) {
+				thumbnail = SCALER.submit(new Callable<BufferedImage>() {
+					@Override
+					public BufferedImage call() {
+						return scale(snapshot, width);
+					}
+				});
+				thumbnails.put(width, thumbnail);
+			}
+			return thumbnail;
+		}
+	}
+
+	/**
+	 * Scales the image down to the given width halving the size in steps which gives a result similar to smooth
+	 * scaling at a fraction of the cost.
+	 */
+	private static BufferedImage scale(BufferedImage image, int width) {
+		if (image.getWidth() <= width) {
+			return image;
+		}
+		int height = Math.max(1, (int) ((long) image.getHeight() * width / image.getWidth()));
+		BufferedImage result = image;
+		int w = image.getWidth();
+		int h = image.getHeight();
+		do {
+			w = Math.max(width, w / 2);
+			h = Math.max(height, h / 2);
+			BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = step.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(result, 0, 0, w, h, null);
+			g.dispose();
+			result = step;
+		}
+		while (w > width);
+		return result;
+	}
+}
@@ -20,10 +20,11 @@ import java.awt.Dimension;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.SimpleDateFormat;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -31,19 +32,29 @@ import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.ValueFactoryImpl;
+
 import com.clarkparsia.sbol.CharSequences;
 import com.clarkparsia.sbol.editor.Images;
 import com.clarkparsia.sbol.editor.SBOLEditorPreferences;
 import com.clarkparsia.sbol.editor.dialog.CheckoutDialog.CheckoutResult;
 import com.clarkparsia.sbol.editor.io.DocumentIO;
 import com.clarkparsia.sbol.editor.io.RVTDocumentIO;
+import com.clarkparsia.sbol.editor.sparql.AsyncEndpoint;
+import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
 import com.clarkparsia.swing.FilterTree;
 import com.clarkparsia.swing.FilterTree.FilterTreeModel;
 import com.clarkparsia.swing.FilterTree.FilterTreeNode;
@@ -56,10 +67,13 @@ import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
 import com.clarkparsia.versioning.Tag;
 import com.google.common.base.Function;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * 
@@ -83,7 +97,7 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
 			return insert;
 		}		
 	}
-    private enum SpecialNodeType { ENDPOINT, BRANCHES, REVISIONS, TAGS };
+    private enum SpecialNodeType { ENDPOINT, BRANCHES, REVISIONS, TAGS, LOADING };
     
     private static class SpecialNode {
     	private final SpecialNodeType type;
@@ -95,10 +109,20 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
         }
 		
 		public String toString() {
+			if (type == SpecialNodeType.LOADING) {
+				return "Loading...";
+			}
 			return CharSequences.toTitleCase(type.toString()) + " (" + count + ")";
 		}
     }
 
+	private static final Executor EVENT_THREAD = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			SwingUtilities.invokeLater(command);
+		}
+	};
+
 	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
 	
 	private static final Function<FilterTreeNode, String> STRING_FUNC = new Function<FilterTreeNode, String>() {
@@ -147,6 +171,7 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
 					case BRANCHES: return BRANCHES;
 					case REVISIONS: return BRANCHES;
 					case TAGS: return TAGS;
+					case LOADING: return null;
 					default: throw new AssertionError();
 				}
 			}
@@ -165,18 +190,17 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
 		}
 	};
     
-	private static final Ordering<Ref> NEWEST_FIRST = Ordering.from(new Comparator<Ref>() {
-		@Override
-        public int compare(Ref rev1, Ref rev2) {
-            return rev2.getActionInfo().getDate().compareTo(rev1.getActionInfo().getDate());
-        }
-	});
-	
 	private static final String LABEL = "Versioned Designs";
 	
 	private FilterTree tree;
 	private JLabel label;
 	private JCheckBox insertDesign;
+	private JTextField rootURI;
+	private final Set<FilterTreeNode> requested = Sets.newHashSet();
+	/**
+	 * Sends the queries for the tree nodes to the current registry off the event thread.
+	 */
+	private AsyncEndpoint asyncEndpoint;
 	
 	public CheckoutDialog(final Component parent) {
 		super(parent, "Checkout", RegistryType.VERSION);
@@ -186,13 +210,48 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
 	protected void initFormPanel(FormBuilder builder) {
 		insertDesign = new JCheckBox("Insert selection into current design"); 
 		builder.add("", insertDesign);
+		rootURI = builder.addTextField("Only checkout part (URI)", "");
+	}
+
+	@Override
+	protected boolean validateInput() {
+		try {
+			getRoots();
+		} catch (IllegalArgumentException e) {
+			JOptionPane.showMessageDialog(getParent(), "Invalid part URI: " + rootURI.getText(), "Error",
+					JOptionPane.ERROR_MESSAGE);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the parts to checkout or null to checkout the whole design.
+	 */
+	private List<URI> getRoots() {
+		String uri = rootURI.getText().trim();
+		if (Strings.isNullOrEmpty(uri)) {
+			return null;
+		}
+		return ImmutableList.of(ValueFactoryImpl.getInstance().createURI(uri));
 	}
 	
 	@Override
 	protected JPanel initMainPanel() {
-		tree = new FilterTree(createTreeModel(repos()), STRING_FUNC, ICON_FUNC);
+		tree = new FilterTree(createTreeModel(), STRING_FUNC, ICON_FUNC);
 		tree.setRootVisible(false);
 		tree.setShowsRootHandles(true);
+		tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+			@Override
+			public void treeWillExpand(TreeExpansionEvent event) {
+				loadChildren((FilterTreeNode) event.getPath().getLastPathComponent());
+			}
+
+			@Override
+			public void treeWillCollapse(TreeExpansionEvent event) {
+			}
+		});
 		tree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
 		tree.getSelectionModel().addTreeSelectionListener(new TreeSelectionListener() {
 			@Override
@@ -256,93 +315,217 @@ public class CheckoutDialog extends OldInputDialog<CheckoutResult> {
     		throw new UnsupportedOperationException("Invalid selection");
     	}
     	
-    	RVTDocumentIO documentIO = (rev != null) ? RVTDocumentIO.createForRevision(rev) : RVTDocumentIO.createForBranch(repo, branch);
+    	List<URI> roots = getRoots();
+    	RVTDocumentIO documentIO;
+    	if (roots == null) {
+    		documentIO = (rev != null) ? RVTDocumentIO.createForRevision(rev) : RVTDocumentIO.createForBranch(repo, branch);
+    	}
+    	else {
+    		documentIO = (rev != null) ? RVTDocumentIO.createForRevision(rev, roots) : RVTDocumentIO.createForBranch(repo, branch, roots);
+    	}
     	return new CheckoutResult(documentIO, insertDesign.isSelected());
 	}
     
-    private List<Repository> repos() {
-    	List<Repository> repos = ImmutableList.<Repository>of();    	
-    	try {
-    		if (endpoint != null) {
-    			repos = RVTFactory.get(endpoint).repos().list();
-    		}
-        }
-        catch (Exception e) {
-	        e.printStackTrace();
-        }
-    	return repos;
-    }
-	
     @Override
 	public void registryChanged() {
-    	List<Repository> repos = repos();
-
-    	label.setText(LABEL + " (" + repos.size() + ")");    
-    	tree.setModel(createTreeModel(repos));
+    	final SPARQLEndpoint endpoint = this.endpoint;
+    	final FilterTreeModel model = createTreeModel();
+    	final FilterTreeNode root = (FilterTreeNode) model.getRoot();
+    	
+    	label.setText(LABEL);
+    	requested.clear();
+    	tree.setModel(model);
+    	
+    	if (asyncEndpoint != null) {
+    		asyncEndpoint.shutdown();
+    	}
+    	asyncEndpoint = (endpoint == null) ? null : new AsyncEndpoint(endpoint);
+    	
+    	new NodeLoader(model, root) {
+    		@Override
+    		protected ListenableFuture<List<FilterTreeNode>> load() {
+    			if (endpoint == null) {
+    				return Futures.immediateFuture(Collections.<FilterTreeNode>emptyList());
+    			}
+    			return asyncEndpoint.submit(new Callable<List<FilterTreeNode>>() {
+    				@Override
+    				public List<FilterTreeNode> call() {
+    					List<FilterTreeNode> nodes = Lists.newArrayList();
+    					for (Repository repo : RVTFactory.get(endpoint).repos().list()) {
+    						nodes.add(createLazyNode(repo));
+    					}
+    					return nodes;
+    				}
+    			});
+    		}
+    		
+    		@Override
+    		protected void loaded(List<FilterTreeNode> nodes) {
+    			root.setUserObject(new SpecialNode(SpecialNodeType.ENDPOINT, nodes.size()));
+    	    	label.setText(LABEL + " (" + nodes.size() + ")");
+    		}
+    	}.execute();
     	
 		repaint();
 	}
     
-    private FilterTreeModel createTreeModel(List<Repository> repos) {
-    	FilterTreeNode node = new FilterTreeNode(new SpecialNode(SpecialNodeType.ENDPOINT, repos.size()));
-    	for (Repository repo : repos) {
-	        node.add(createRepoNode(repo));
-        }
-    	return new FilterTreeModel(node);
+    @Override
+    public void dispose() {
+    	if (asyncEndpoint != null) {
+    		asyncEndpoint.shutdown();
+    		asyncEndpoint = null;
+    	}
+    	super.dispose();
+    }
+    
+    private FilterTreeModel createTreeModel() {
+    	return new FilterTreeModel(createLazyNode(new SpecialNode(SpecialNodeType.ENDPOINT, 0)));
     }
     
-    private FilterTreeNode createRepoNode(Repository repo) {
-    	FilterTreeNode node = new FilterTreeNode(repo);
+    /**
+     * Creates a node whose children will be loaded the first time it is expanded.
+     */
+    private FilterTreeNode createLazyNode(Object userObject) {
+    	FilterTreeNode node = new FilterTreeNode(userObject);
+    	node.add(new FilterTreeNode(new SpecialNode(SpecialNodeType.LOADING, 0)));
+    	return node;
+    }
+    
+    private boolean isLoaded(FilterTreeNode node) {
+    	if (node.getChildCount() != 1) {
+    		return true;
+    	}
+    	Object obj = node.getChildAt(0).getUserObject();
+    	return !(obj instanceof SpecialNode) || ((SpecialNode) obj).type != SpecialNodeType.LOADING;
+    }
+    
+    private void loadChildren(final FilterTreeNode node) {
+    	if (isLoaded(node) || !requested.add(node)) {
+    		return;
+    	}
     	
-    	if (SBOLEditorPreferences.INSTANCE.isBranchingEnabled()) {
-	    	List<Branch> branches = repo.branches().list();
-	    	FilterTreeNode branchNodes = new FilterTreeNode(new SpecialNode(SpecialNodeType.BRANCHES, branches.size()));
-	    	for (Branch branch : branches) {
-	    		try {
-	                branchNodes.add(createBranchNode(branch));
-                }
-                catch (Exception e) {
-	                e.printStackTrace();
-                }
-	        }
-	    	node.add(branchNodes);
+    	final FilterTreeModel model = (FilterTreeModel) tree.getModel();
+    	final Object obj = node.getUserObject();
+    	if (obj instanceof Repository) {
+    		final Repository repo = (Repository) obj;
+    		final boolean branching = SBOLEditorPreferences.INSTANCE.isBranchingEnabled();
+    		new NodeLoader(model, node) {
+    			@Override
+    			protected ListenableFuture<List<FilterTreeNode>> load() {
+    				// the branches and the tags are independent so they are queried concurrently
+    				ListenableFuture<FilterTreeNode> refNodes = asyncEndpoint.submit(new Callable<FilterTreeNode>() {
+    					@Override
+    					public FilterTreeNode call() {
+    						return branching ? createBranchNodes(repo) : createMasterNodes(repo);
+    					}
+    				});
+    				ListenableFuture<FilterTreeNode> tagNodes = asyncEndpoint.submit(new Callable<FilterTreeNode>() {
+    					@Override
+    					public FilterTreeNode call() {
+    						return createTagNodes(repo);
+    					}
+    				});
+    				return Futures.allAsList(refNodes, tagNodes);
+    			}
+    		}.execute();
     	}
-    	else {
-    		FilterTreeNode masterNodes = createBranchNode(repo.branches().get(Branch.MASTER));
-    		masterNodes.setUserObject(new SpecialNode(SpecialNodeType.REVISIONS, masterNodes.getChildCount()));
-	    	node.add(masterNodes);
+    	else if (obj instanceof Branch) {
+    		new NodeLoader(model, node) {
+    			@Override
+    			protected ListenableFuture<List<FilterTreeNode>> load() {
+    				return asyncEndpoint.submit(new Callable<List<FilterTreeNode>>() {
+    					@Override
+    					public List<FilterTreeNode> call() {
+    						return createRevisionNodes(((Branch) obj).getRevisions());
+    					}
+    				});
+    			}
+    		}.execute();
     	}
-
+    }
+    
+    private FilterTreeNode createBranchNodes(Repository repo) {
+    	List<Branch> branches = repo.branches().list();
+    	FilterTreeNode branchNodes = new FilterTreeNode(new SpecialNode(SpecialNodeType.BRANCHES, branches.size()));
+    	for (Branch branch : branches) {
+    		branchNodes.add(createLazyNode(branch));
+    	}
+    	return branchNodes;
+    }
+    
+    private FilterTreeNode createMasterNodes(Repository repo) {
+    	List<Revision> revisions = repo.branches().get(Branch.MASTER).getRevisions();
+    	FilterTreeNode masterNodes = new FilterTreeNode(new SpecialNode(SpecialNodeType.REVISIONS, revisions.size()));
+    	for (FilterTreeNode revisionNode : createRevisionNodes(revisions)) {
+    		masterNodes.add(revisionNode);
+    	}
+    	return masterNodes;
+    }
+    
+    private FilterTreeNode createTagNodes(Repository repo) {
     	List<Tag> tags = repo.tags().list();
     	FilterTreeNode tagNodes = new FilterTreeNode(new SpecialNode(SpecialNodeType.TAGS, tags.size()));
     	for (Tag tag : tags) {
-	        tagNodes.add(new FilterTreeNode(tag));
-        }
-    	node.add(tagNodes);
-    	
-    	return node;
+    		tagNodes.add(new FilterTreeNode(tag));
+    	}
+    	return tagNodes;
     }
     
-    private FilterTreeNode createBranchNode(Branch branch) {
-    	FilterTreeNode node = new FilterTreeNode(branch);
-
-		Set<Revision> revisions = Sets.newTreeSet(NEWEST_FIRST);
-		Queue<Revision> pending = Lists.newLinkedList();
-		pending.add(branch.getHead());
-		while (!pending.isEmpty()) {
-			Revision rev = pending.remove();
-			revisions.add(rev);
-			for (Revision parent : rev.getParents()) {
-                if (parent.getBranch().equals(branch)) {
-                	pending.add(parent);
-                }
-            }
-		}
-
+    private List<FilterTreeNode> createRevisionNodes(List<Revision> revisions) {
+    	List<FilterTreeNode> nodes = Lists.newArrayList();
 		for (Revision rev : revisions) {
-			node.add(new FilterTreeNode(rev));
+			nodes.add(new FilterTreeNode(rev));
 		}
-		
-    	return node;
+    	return nodes;
+    }
+    
+    /**
+     * Creates the children of a node with queries sent through the {@link AsyncEndpoint} and replaces the loading
+     * placeholder of the node with them on the event thread. The children are dropped if the tree model was replaced
+     * in the meantime, e.g. because the registry was changed.
+     */
+    private abstract class NodeLoader implements FutureCallback<List<FilterTreeNode>> {
+    	private final FilterTreeModel model;
+    	private final FilterTreeNode node;
+    	
+    	private NodeLoader(FilterTreeModel model, FilterTreeNode node) {
+    		this.model = model;
+    		this.node = node;
+    	}
+    	
+    	protected abstract ListenableFuture<List<FilterTreeNode>> load();
+    	
+    	protected void loaded(List<FilterTreeNode> children) {
+    	}
+    	
+    	public void execute() {
+    		Futures.addCallback(load(), this, EVENT_THREAD);
+    	}
+    	
+    	@Override
+    	public void onFailure(Throwable e) {
+    		if (tree.getModel() != model) {
+    			return;
+    		}
+    		
+    		e.printStackTrace();
+    		// loading will be retried the next time the node is expanded
+    		requested.remove(node);
+    		tree.collapsePath(new TreePath(node.getPath()));
+    	}
+    	
+    	@Override
+    	public void onSuccess(List<FilterTreeNode> children) {
+    		if (tree.getModel() != model) {
+    			return;
+    		}
+    		
+    		node.removeAllChildren();
+    		for (FilterTreeNode child : children) {
+    			node.add(child);
+    		}
+    		loaded(children);
+    		model.nodeStructureChanged(node);
+    	}
     }
 }
@@ -57,7 +57,7 @@ public class HistoryDialog {
 		CHECKOUT, CLONE, CLOSE
 	}
 
-	public static DocumentIO show(Component parent, RVTDocumentIO documentIO) {
+	public static DocumentIO show(Component parent, final RVTDocumentIO documentIO) {
 		final AtomicReference<DocumentIO> result = new AtomicReference<DocumentIO>();
 
 		final Revision head = documentIO.getBranch().getHead();
@@ -92,7 +92,7 @@ public class HistoryDialog {
 
 					if (action == Action.CLONE) {
 						try {
-							SBOLDocument doc = RVTDocumentIO.createForRevision(rev).read();
+							SBOLDocument doc = documentIO.switchRevision(rev).read();
 							ComponentDefinition comp = SBOLUtils.getRootCD(doc);
 							//
 							doc.createCopy(comp);
@@ -102,7 +102,7 @@ public class HistoryDialog {
 							JOptionPane.showMessageDialog(null, "ERROR: " + e1.getMessage());
 						}
 					} else {
-						result.set(RVTDocumentIO.createForRevision(rev));
+						result.set(documentIO.switchRevision(rev));
 					}
 				}
 
@@ -8,6 +8,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -31,12 +32,17 @@ import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.TopLevel;
 
 import com.clarkparsia.sbol.CharSequences;
+import com.clarkparsia.sbol.editor.DocumentLoader;
 import com.clarkparsia.sbol.editor.Registries;
 import com.clarkparsia.sbol.editor.Registry;
+import com.clarkparsia.sbol.editor.io.RecursiveCopyDocumentIO;
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
 import com.clarkparsia.swing.AbstractListTableModel;
 import com.clarkparsia.swing.ComboBoxRenderer;
@@ -155,6 +161,15 @@ public abstract class InputDialog<T> extends JDialog {
 
 	protected abstract T getSelection();
 
+	/**
+	 * Copies the given component definition and everything it depends on into
+	 * a new document in the background. Returns null if the user cancels.
+	 */
+	protected SBOLDocument createRecursiveCopy(ComponentDefinition comp)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		return new DocumentLoader(this, new RecursiveCopyDocumentIO(comp), false).load();
+	}
+
 	/**
 	 * Returns T, containing whatever data is selected
 	 */
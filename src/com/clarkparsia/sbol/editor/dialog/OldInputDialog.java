@@ -323,8 +323,10 @@ public abstract class OldInputDialog<T> extends JDialog {
 				canceled = true;
 				setVisible(false);
 			} else if (source == selectButton) {
-				canceled = false;
-				setVisible(false);
+				if (validateInput()) {
+					canceled = false;
+					setVisible(false);
+				}
 			}
 		}
 	}
@@ -41,6 +41,7 @@ import java.util.prefs.Preferences;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
@@ -71,7 +72,6 @@ import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
 import org.sbolstandard.core2.SequenceAnnotation;
-import org.sbolstandard.core2.SequenceOntology;
 
 import com.clarkparsia.sbol.CharSequences;
 import com.clarkparsia.sbol.SBOLUtils;
@@ -82,6 +82,7 @@ import com.clarkparsia.sbol.editor.SBOLDesign;
 import com.clarkparsia.sbol.editor.SBOLEditorPreferences;
 import com.clarkparsia.sbol.editor.io.FileDocumentIO;
 import com.clarkparsia.sbol.terms.SO;
+import com.clarkparsia.sbol.terms.TermIndex;
 import com.clarkparsia.swing.FormBuilder;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
@@ -199,11 +200,11 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 		// set up the JComboBox for role refinement
 		Part selectedPart = (Part) roleSelection.getSelectedItem();
 		roleRefinement = new JComboBox<String>();
+		TermKeySelectionManager.install(roleRefinement, SO.getIndex());
 		updateRoleRefinement();
 		List<URI> refinementRoles = SBOLUtils.getRefinementRoles(CD, selectedPart);
 		if (!refinementRoles.isEmpty()) {
-			SequenceOntology so = new SequenceOntology();
-			roleRefinement.setSelectedItem(so.getName(refinementRoles.get(0)));
+			roleRefinement.setSelectedItem(SO.getIndex().getName(refinementRoles.get(0)));
 		} else {
 			roleRefinement.setSelectedItem("None");
 		}
@@ -324,11 +325,11 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 		// set up the JComboBox for role refinement
 		Part selectedPart = (Part) roleSelection.getSelectedItem();
 		roleRefinement = new JComboBox<String>();
+		TermKeySelectionManager.install(roleRefinement, SO.getIndex());
 		updateRoleRefinement();
 		List<URI> refinementRoles = SBOLUtils.getRefinementRoles(SA, selectedPart);
 		if (!refinementRoles.isEmpty()) {
-			SequenceOntology so = new SequenceOntology();
-			roleRefinement.setSelectedItem(so.getName(refinementRoles.get(0)));
+			roleRefinement.setSelectedItem(SO.getIndex().getName(refinementRoles.get(0)));
 		} else {
 			roleRefinement.setSelectedItem("None");
 		}
@@ -506,10 +507,8 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 	}
 
 	private void updateRoleRefinement() {
-		roleRefinement.removeAllItems();
-		for (String s : SBOLUtils.createRefinements((Part) roleSelection.getSelectedItem())) {
-			roleRefinement.addItem(s);
-		}
+		roleRefinement.setModel(new DefaultComboBoxModel<String>(SBOLUtils.createRefinements((Part) roleSelection
+				.getSelectedItem())));
 	}
 
 	/**
@@ -519,7 +518,7 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 	private boolean importFromRegistryHandler() throws Exception {
 		Part criteria = roleSelection.getSelectedItem().equals("None") ? PartInputDialog.ALL_PARTS
 				: (Part) roleSelection.getSelectedItem();
-		URI role = new SequenceOntology().getURIbyName((String) roleRefinement.getSelectedItem());
+		URI role = SO.getIndex().getURI((String) roleRefinement.getSelectedItem());
 
 		// User selects the CD
 		SBOLDocument selection = new RegistryInputDialog(this.getParent(), criteria, role, design).getInput();
@@ -609,9 +608,9 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 			Set<URI> setRoles = new HashSet<URI>(part.getRoles());
 			// use the role from roleRefinement if not "None"
 			if (!roleRefinement.getSelectedItem().equals("None")) {
-				SequenceOntology so = new SequenceOntology();
+				TermIndex so = SO.getIndex();
 				setRoles.clear();
-				URI roleURI = so.getURIbyName((String) roleRefinement.getSelectedItem());
+				URI roleURI = so.getURI((String) roleRefinement.getSelectedItem());
 				if (!so.isDescendantOf(roleURI, part.getRole())) {
 					throw new IllegalArgumentException(roleRefinement.getSelectedItem() + " isn't applicable for "
 							+ roleSelection.getSelectedItem());
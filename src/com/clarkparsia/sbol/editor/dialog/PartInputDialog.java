@@ -6,6 +6,7 @@ import java.awt.event.ActionListener;
 import java.net.URI;
 import java.util.List;
 
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
@@ -20,15 +21,15 @@ import javax.swing.table.TableRowSorter;
 
 import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.SBOLDocument;
-import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
-import org.sbolstandard.core2.SequenceOntology;
 
+import com.clarkparsia.sbol.SBOLObjectIndex;
 import com.clarkparsia.sbol.SBOLUtils;
 import com.clarkparsia.sbol.SBOLUtils.Types;
 import com.clarkparsia.sbol.editor.Part;
 import com.clarkparsia.sbol.editor.Parts;
 import com.clarkparsia.sbol.editor.SPARQLUtilities;
+import com.clarkparsia.sbol.terms.SO;
 import com.clarkparsia.swing.FormBuilder;
 import com.google.common.collect.Lists;
 
@@ -52,11 +53,17 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 	private JCheckBox importSubparts;
 
 	private SBOLDocument doc;
+	/**
+	 * The table is filtered again whenever a selection changes so the CDs are
+	 * looked up in an index built once for the dialog.
+	 */
+	private SBOLObjectIndex index;
 
 	public PartInputDialog(final Component parent, SBOLDocument doc, final Part part) {
 		super(parent, TITLE);
 
 		this.doc = doc;
+		this.index = SBOLObjectIndex.create(doc);
 		this.part = part;
 	}
 
@@ -88,6 +95,7 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 
 		// set up the JComboBox for role refinement
 		roleRefinement = new JComboBox<String>();
+		TermKeySelectionManager.install(roleRefinement, SO.getIndex());
 		updateRoleRefinement();
 		roleRefinement.addActionListener(new ActionListener() {
 			@Override
@@ -128,7 +136,7 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 
 	@Override
 	protected JPanel initMainPanel() {
-		List<ComponentDefinition> components = SBOLUtils.getCDOfRole(doc, isRoleSelection() ? part : ALL_PARTS);
+		List<ComponentDefinition> components = SBOLUtils.getCDOfRole(index, isRoleSelection() ? part : ALL_PARTS);
 		ComponentDefinitionTableModel tableModel = new ComponentDefinitionTableModel(components);
 
 		JPanel panel = createTablePanel(tableModel, "Matching parts (" + tableModel.getRowCount() + ")");
@@ -145,7 +153,7 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 			int row = table.convertRowIndexToModel(table.getSelectedRow());
 			ComponentDefinition comp = ((ComponentDefinitionTableModel) table.getModel()).getElement(row);
 			if (importSubparts.isSelected()) {
-				return doc.createRecursiveCopy(comp);
+				return createRecursiveCopy(comp);
 			} else {
 				// only insert the CD and it's sequence (if it exists)
 				SBOLDocument newDoc = new SBOLDocument();
@@ -160,7 +168,7 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 				newDoc.createCopy(comp);
 				return newDoc;
 			}
-		} catch (SBOLValidationException e) {
+		} catch (Exception e) {
 			JOptionPane.showMessageDialog(null, "This ComponentDefinition cannot be imported: " + e.getMessage());
 			e.printStackTrace();
 			return null;
@@ -168,10 +176,8 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 	}
 
 	private void updateRoleRefinement() {
-		roleRefinement.removeAllItems();
-		for (String s : SBOLUtils.createRefinements((Part) roleSelection.getSelectedItem())) {
-			roleRefinement.addItem(s);
-		}
+		roleRefinement.setModel(new DefaultComboBoxModel<String>(SBOLUtils.createRefinements((Part) roleSelection
+				.getSelectedItem())));
 	}
 
 	public void updateTable() {
@@ -180,12 +186,11 @@ public class PartInputDialog extends InputDialog<SBOLDocument> {
 		if (roleName == null || roleName.equals("None")) {
 			part = isRoleSelection() ? (Part) roleSelection.getSelectedItem() : ALL_PARTS;
 		} else {
-			SequenceOntology so = new SequenceOntology();
-			URI role = so.getURIbyName(roleName);
+			URI role = SO.getIndex().getURI(roleName);
 			part = new Part(role, null, null);
 		}
 
-		List<ComponentDefinition> components = SBOLUtils.getCDOfRole(doc, part);
+		List<ComponentDefinition> components = SBOLUtils.getCDOfRole(index, part);
 		components = SBOLUtils.getCDOfType(components, (Types) typeSelection.getSelectedItem());
 		((ComponentDefinitionTableModel) table.getModel()).setElements(components);
 		tableLabel.setText("Matching parts (" + components.size() + ")");
@@ -20,24 +20,31 @@ import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 
 import org.openrdf.query.BindingSet;
 import org.openrdf.query.QueryEvaluationException;
-import org.openrdf.query.TupleQueryResultHandler;
-import org.openrdf.query.TupleQueryResultHandlerException;
+import org.openrdf.query.TupleQueryResult;
 import org.sbolstandard.core2.ComponentDefinition;
 
+import com.clarkparsia.sbol.editor.sparql.AsyncEndpoint;
 import com.clarkparsia.swing.InvisibleSplitPane;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * 
@@ -45,6 +52,13 @@ import com.clarkparsia.swing.InvisibleSplitPane;
  */
 public class QueryVersionsDialog extends OldInputDialog<ComponentDefinition> {
 	private static final String TITLE = "Query versions";
+
+	private static final Executor EVENT_THREAD = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			SwingUtilities.invokeLater(command);
+		}
+	};
 	
 	private static class ExampleQuery {
 		private final String name;
@@ -97,11 +111,41 @@ public class QueryVersionsDialog extends OldInputDialog<ComponentDefinition> {
 	};
 	
 	private JTable table;
+
+	/**
+	 * Runs the queries off the event thread so the dialog stays responsive while the server answers. Results are not
+	 * cached since the query is free-form and running it again should show the current contents of the registry.
+	 */
+	private AsyncEndpoint queryEndpoint;
+
+	/**
+	 * The last query sent; results of earlier queries arriving later are dropped.
+	 */
+	private ListenableFuture<TupleQueryResult> pendingQuery;
 	
 	public QueryVersionsDialog(final Component parent) {
 		super(parent, TITLE, RegistryType.VERSION);
 	}
 	
+	private AsyncEndpoint getQueryEndpoint() {
+		if (queryEndpoint == null || queryEndpoint.getEndpoint() != endpoint) {
+			if (queryEndpoint != null) {
+				queryEndpoint.shutdown();
+			}
+			queryEndpoint = new AsyncEndpoint(endpoint);
+		}
+		return queryEndpoint;
+	}
+
+	@Override
+	public void dispose() {
+		if (queryEndpoint != null) {
+			queryEndpoint.shutdown();
+			queryEndpoint = null;
+		}
+		super.dispose();
+	}
+
 	@Override
 	protected JPanel initMainPanel() {
 		final JTextArea queryField = new JTextArea(8, 50);
@@ -135,36 +179,31 @@ public class QueryVersionsDialog extends OldInputDialog<ComponentDefinition> {
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
 				String queryStr = queryField.getText();
-				try {
-	                endpoint.executeSelectQuery(queryStr, new TupleQueryResultHandler() {	
-	                	DefaultTableModel model; 
-	                	List<String> vars;
-	                	
-	                	@Override
-	                	public void startQueryResult(List<String> vars) throws TupleQueryResultHandlerException {
-	                		this.vars = vars;
-	                		model = new DefaultTableModel(vars.toArray(), 0);
-	                	}
-	                	
-	                	@Override
-	                	public void handleSolution(BindingSet b) throws TupleQueryResultHandlerException {
-	                		Object[] row = new Object[vars.size()];
-	                		for (int i = 0; i < vars.size(); i++) {
-	                            String var = vars.get(i);
-		                		row[i] = b.getValue(var).stringValue();   
-                            }
-	                		model.addRow(row);
-	                	}
-	                	
-	                	@Override
-	                	public void endQueryResult() throws TupleQueryResultHandlerException {
-	                		resultTable.setModel(model);
-	                	}
-	                });
-                }
-                catch (QueryEvaluationException e) {
-	                e.printStackTrace();
-                }
+				final ListenableFuture<TupleQueryResult> query = getQueryEndpoint().executeSelectQuery(queryStr);
+				pendingQuery = query;
+				Futures.addCallback(query, new FutureCallback<TupleQueryResult>() {
+					@Override
+					public void onSuccess(TupleQueryResult result) {
+						if (pendingQuery != query) {
+							return;
+						}
+						try {
+							resultTable.setModel(createTableModel(result));
+						}
+						catch (QueryEvaluationException e) {
+							onFailure(e);
+						}
+					}
+
+					@Override
+					public void onFailure(Throwable e) {
+						if (pendingQuery != query) {
+							return;
+						}
+						JOptionPane.showMessageDialog(QueryVersionsDialog.this, Throwables.getRootCause(e).getMessage(),
+						                "ERROR", JOptionPane.ERROR_MESSAGE);
+					}
+				}, EVENT_THREAD);
 			}
 		});
 		
@@ -187,6 +226,20 @@ public class QueryVersionsDialog extends OldInputDialog<ComponentDefinition> {
 		return panel;
 	}
 
+	private static DefaultTableModel createTableModel(TupleQueryResult result) throws QueryEvaluationException {
+		List<String> vars = result.getBindingNames();
+		DefaultTableModel model = new DefaultTableModel(vars.toArray(), 0);
+		while (result.hasNext()) {
+			BindingSet b = result.next();
+			Object[] row = new Object[vars.size()];
+			for (int i = 0; i < vars.size(); i++) {
+				row[i] = b.getValue(vars.get(i)).stringValue();
+			}
+			model.addRow(row);
+		}
+		return model;
+	}
+
 	@Override
     protected ComponentDefinition getSelection() {
 		int row = table.convertRowIndexToModel(table.getSelectedRow());
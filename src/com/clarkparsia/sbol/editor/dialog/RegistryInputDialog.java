@@ -34,6 +34,7 @@ import java.util.regex.PatternSyntaxException;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
@@ -55,7 +56,6 @@ import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.Sequence;
-import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstack.frontend.IdentifiedMetadata;
 import org.sbolstack.frontend.StackException;
 import org.sbolstack.frontend.StackFrontend;
@@ -68,6 +68,7 @@ import com.clarkparsia.sbol.editor.Parts;
 import com.clarkparsia.sbol.editor.Registries;
 import com.clarkparsia.sbol.editor.Registry;
 import com.clarkparsia.sbol.editor.SBOLEditorPreferences;
+import com.clarkparsia.sbol.terms.SO;
 import com.clarkparsia.swing.AbstractListTableModel;
 import com.clarkparsia.swing.ComboBoxRenderer;
 import com.clarkparsia.swing.FormBuilder;
@@ -216,10 +217,11 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 
 		// set up the JComboBox for role refinement
 		roleRefinement = new JComboBox<String>();
+		TermKeySelectionManager.install(roleRefinement, SO.getIndex());
 		updateRoleRefinement();
 		roleRefinement.removeActionListener(roleRefinementListener);
 		if (role != null && role != part.getRole()) {
-			String roleName = new SequenceOntology().getName(role);
+			String roleName = SO.getIndex().getName(role);
 			if (!comboBoxContains(roleRefinement, roleName)) {
 				roleRefinement.addItem(roleName);
 			}
@@ -279,8 +281,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 		if (roleName == null || roleName.equals("None")) {
 			part = isRoleSelection() ? (Part) roleSelection.getSelectedItem() : ALL_PARTS;
 		} else {
-			SequenceOntology so = new SequenceOntology();
-			URI role = so.getURIbyName(roleName);
+			URI role = SO.getIndex().getURI(roleName);
 			part = new Part(role, null, null);
 		}
 
@@ -420,7 +421,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 					doc.createCopy(comp.getSequenceByEncoding(Sequence.IUPAC_DNA));
 				}
 			} else {
-				doc = doc.createRecursiveCopy(comp);
+				doc = createRecursiveCopy(comp);
 			}
 			return doc;
 		} catch (Exception e) {
@@ -477,10 +478,8 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 
 	private void updateRoleRefinement() {
 		roleRefinement.removeActionListener(roleRefinementListener);
-		roleRefinement.removeAllItems();
-		for (String s : SBOLUtils.createRefinements((Part) roleSelection.getSelectedItem())) {
-			roleRefinement.addItem(s);
-		}
+		roleRefinement.setModel(new DefaultComboBoxModel<String>(SBOLUtils.createRefinements((Part) roleSelection
+				.getSelectedItem())));
 		roleRefinement.addActionListener(roleRefinementListener);
 	}
 
@@ -491,8 +490,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 		if (roleName == null || roleName.equals("None")) {
 			part = isRoleSelection() ? (Part) roleSelection.getSelectedItem() : ALL_PARTS;
 		} else {
-			SequenceOntology so = new SequenceOntology();
-			URI role = so.getURIbyName(roleName);
+			URI role = SO.getIndex().getURI(roleName);
 			part = new Part(role, null, null);
 		}
 
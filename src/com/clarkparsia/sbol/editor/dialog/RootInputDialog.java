@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
@@ -27,14 +28,13 @@ import javax.swing.table.TableRowSorter;
 
 import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.SBOLDocument;
-import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.SBOLWriter;
-import org.sbolstandard.core2.SequenceOntology;
 
 import com.clarkparsia.sbol.SBOLUtils;
 import com.clarkparsia.sbol.SBOLUtils.Types;
 import com.clarkparsia.sbol.editor.Part;
 import com.clarkparsia.sbol.editor.Parts;
+import com.clarkparsia.sbol.terms.SO;
 import com.clarkparsia.swing.FormBuilder;
 import com.google.common.collect.Lists;
 
@@ -101,6 +101,7 @@ public class RootInputDialog extends InputDialog<SBOLDocument> {
 
 		// set up the JComboBox for role refinement
 		roleRefinement = new JComboBox<String>();
+		TermKeySelectionManager.install(roleRefinement, SO.getIndex());
 		updateRoleRefinement();
 		roleRefinement.addActionListener(new ActionListener() {
 			@Override
@@ -186,8 +187,8 @@ public class RootInputDialog extends InputDialog<SBOLDocument> {
 		try {
 			int row = table.convertRowIndexToModel(table.getSelectedRow());
 			ComponentDefinition comp = ((ComponentDefinitionTableModel) table.getModel()).getElement(row);
-			return doc.createRecursiveCopy(comp);
-		} catch (SBOLValidationException e) {
+			return createRecursiveCopy(comp);
+		} catch (Exception e) {
 			JOptionPane.showMessageDialog(null, "This ComponentDefinition cannot be imported: " + e.getMessage());
 			e.printStackTrace();
 			return null;
@@ -195,10 +196,8 @@ public class RootInputDialog extends InputDialog<SBOLDocument> {
 	}
 
 	private void updateRoleRefinement() {
-		roleRefinement.removeAllItems();
-		for (String s : SBOLUtils.createRefinements((Part) roleSelection.getSelectedItem())) {
-			roleRefinement.addItem(s);
-		}
+		roleRefinement.setModel(new DefaultComboBoxModel<String>(SBOLUtils.createRefinements((Part) roleSelection
+				.getSelectedItem())));
 	}
 
 	private void updateTable() {
@@ -207,8 +206,7 @@ public class RootInputDialog extends InputDialog<SBOLDocument> {
 		if (roleName == null || roleName.equals("None")) {
 			part = isRoleSelection() ? (Part) roleSelection.getSelectedItem() : ALL_PARTS;
 		} else {
-			SequenceOntology so = new SequenceOntology();
-			URI role = so.getURIbyName(roleName);
+			URI role = SO.getIndex().getURI(roleName);
 			part = new Part(role, null, null);
 		}
 
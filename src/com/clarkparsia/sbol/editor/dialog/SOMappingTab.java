@@ -136,7 +136,7 @@ public enum SOMappingTab implements PreferencesTab {
 				case 0:
 					return new URIImpl(term.toString()).getLocalName();
 				case 1:
-					return SO.getInstance().getTerm(term.toString()).getLabel();
+					return SO.getIndex().getName(term);
 				default:
 					throw new IndexOutOfBoundsException();
 			}
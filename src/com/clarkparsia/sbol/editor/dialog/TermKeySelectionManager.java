@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.dialog;
+
+import java.util.Set;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+
+import com.clarkparsia.sbol.terms.TermIndex;
+
+/**
+ * Type-ahead for combo boxes listing term names. Keys typed in quick succession are collected into a prefix and the
+ * first item whose name, one of its synonyms or a word in them starts with the prefix is selected. Matches are found
+ * with the prefix index of the terms.
+ */
+class TermKeySelectionManager implements JComboBox.KeySelectionManager {
+	private static final long TYPE_AHEAD_TIMEOUT = 1000;
+
+	private final TermIndex index;
+	private String prefix = "";
+	private long lastKeyTime;
+
+	TermKeySelectionManager(TermIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Installs the type-ahead on a combo box that lists term names.
+	 */
+	static void install(JComboBox<String> comboBox, TermIndex index) {
+		comboBox.setKeySelectionManager(new TermKeySelectionManager(index));
+	}
+
+	@Override
+	public int selectionForKey(char key, ComboBoxModel model) {
+		long time = System.currentTimeMillis();
+		prefix = (time - lastKeyTime < TYPE_AHEAD_TIMEOUT) ? prefix + key : String.valueOf(key);
+		lastKeyTime = time;
+
+		Set<String> matches = index.search(prefix);
+		for (int i = 0, n = model.getSize(); i < n; i++) {
+			if (matches.contains(model.getElementAt(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
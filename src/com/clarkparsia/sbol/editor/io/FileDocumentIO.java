@@ -19,7 +19,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.prefs.Preferences;
 
 import org.openrdf.rio.RDFFormat;
@@ -60,9 +63,13 @@ public class FileDocumentIO implements DocumentIO {
 		File file = SBOLUtils.setupFile();
 		SBOLReader.setURIPrefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 		SBOLReader.setCompliant(true);
-		FileInputStream stream = new FileInputStream(file);
-		SBOLDocument doc = SBOLReader.read(stream);
-		stream.close();
+		InputStream stream = new InterruptibleInputStream(new FileInputStream(file));
+		SBOLDocument doc;
+		try {
+			doc = SBOLReader.read(stream);
+		} finally {
+			stream.close();
+		}
 		Preferences.userRoot().node("path").put("path", file.getPath());
 		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 		return doc;
@@ -85,4 +92,33 @@ public class FileDocumentIO implements DocumentIO {
 		return file.getName();
 	}
 
+	/**
+	 * Fails the next read once the reading thread is interrupted so a
+	 * cancelled load stops parsing instead of running to the end in the
+	 * background.
+	 */
+	private static class InterruptibleInputStream extends FilterInputStream {
+		InterruptibleInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			checkInterrupted();
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			checkInterrupted();
+			return super.read(b, off, len);
+		}
+
+		private static void checkInterrupted() throws InterruptedIOException {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("Reading was cancelled");
+			}
+		}
+	}
+
 }
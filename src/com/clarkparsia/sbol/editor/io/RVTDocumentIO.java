@@ -15,18 +15,33 @@
 
 package com.clarkparsia.sbol.editor.io;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
 
 import javax.swing.JOptionPane;
 
+import org.openrdf.model.BNode;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParseException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.RDFWriter;
+import org.openrdf.rio.Rio;
 import org.openrdf.rio.helpers.StatementCollector;
-import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.SBOLWriter;
 
@@ -35,17 +50,19 @@ import com.clarkparsia.sbol.editor.SBOLEditorPreferences;
 import com.clarkparsia.sbol.editor.SPARQLUtilities;
 import com.clarkparsia.sbol.editor.dialog.PreferencesDialog;
 import com.clarkparsia.sbol.editor.dialog.RegistryPreferencesTab;
-import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
 import com.clarkparsia.sbol.editor.sparql.RDFInput;
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
 import com.clarkparsia.versioning.ActionInfo;
 import com.clarkparsia.versioning.Branch;
+import com.clarkparsia.versioning.CommitConflictException;
 import com.clarkparsia.versioning.Infos;
 import com.clarkparsia.versioning.PersonInfo;
 import com.clarkparsia.versioning.RVT;
 import com.clarkparsia.versioning.RVTFactory;
 import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 /**
  * 
@@ -54,8 +71,23 @@ import com.clarkparsia.versioning.Revision;
 public class RVTDocumentIO implements DocumentIO {
 	private static final RDFFormat FORMAT = RDFFormat.RDFXML;
 
-	private final Revision revision;
+	private static final String SBOL2 = "http://sbols.org/v2#";
+
+	/**
+	 * Properties that link an SBOL object to the objects it is made of. A partial checkout follows these properties
+	 * from the requested component definitions to get their whole hierarchy.
+	 */
+	private static final List<URI> SBOL_LINKS = ImmutableList.of(sbol2("component"), sbol2("definition"),
+			sbol2("sequence"), sbol2("sequenceAnnotation"), sbol2("location"), sbol2("sequenceConstraint"),
+			sbol2("mapsTo"));
+
+	private Revision revision;
 	private final Branch branch;
+	/**
+	 * The revision the document was last read from or committed as, which the next commit is based on.
+	 */
+	private Revision checkedOut;
+	private final List<URI> roots;
 	private final SBOLRDFReader reader;
 	private final SBOLRDFWriter writer;
 
@@ -87,60 +119,176 @@ public class RVTDocumentIO implements DocumentIO {
 	}
 
 	public static RVTDocumentIO createForBranch(Repository repo, String branchName) {
-		return new RVTDocumentIO(repo.branches().get(branchName), null);
+		return new RVTDocumentIO(repo.branches().get(branchName), null, null);
+	}
+
+	/**
+	 * Reads only the given component definitions and their hierarchies from the head of the branch.
+	 */
+	public static RVTDocumentIO createForBranch(Repository repo, String branchName, Iterable<URI> roots) {
+		return new RVTDocumentIO(repo.branches().get(branchName), null, ImmutableList.copyOf(roots));
 	}
 
 	public static RVTDocumentIO createForRevision(Revision revision) {
-		return new RVTDocumentIO(revision.getBranch(), revision);
+		return new RVTDocumentIO(revision.getBranch(), revision, null);
+	}
+
+	/**
+	 * Reads only the given component definitions and their hierarchies from the revision.
+	 */
+	public static RVTDocumentIO createForRevision(Revision revision, Iterable<URI> roots) {
+		return new RVTDocumentIO(revision.getBranch(), revision, ImmutableList.copyOf(roots));
 	}
 
-	private RVTDocumentIO(Branch branch, Revision revision) {
-		this(branch, revision, new SBOLRDFReader(FORMAT, SBOLEditorPreferences.INSTANCE.getValidate()),
+	private RVTDocumentIO(Branch branch, Revision revision, List<URI> roots) {
+		this(branch, revision, roots, new SBOLRDFReader(FORMAT, SBOLEditorPreferences.INSTANCE.getValidate()),
 				new SBOLRDFWriter(FORMAT, SBOLEditorPreferences.INSTANCE.getValidate()));
 	}
 
-	private RVTDocumentIO(Branch branch, Revision revision, SBOLRDFReader reader, SBOLRDFWriter writer) {
+	private RVTDocumentIO(Branch branch, Revision revision, List<URI> roots, SBOLRDFReader reader,
+			SBOLRDFWriter writer) {
 		this.revision = revision;
 		this.branch = branch;
+		this.roots = roots;
 		this.reader = reader;
 		this.writer = writer;
 	}
 
+	private static URI sbol2(String localName) {
+		return ValueFactoryImpl.getInstance().createURI(SBOL2, localName);
+	}
+
+	/**
+	 * The RDF passed between the endpoint and libSBOLj is spooled through a temporary file rather than a byte array so
+	 * that large revisions are not held in memory in serialized form on top of the document itself.
+	 */
+	private static File createTempFile() throws IOException {
+		File file = File.createTempFile("revision", "." + FORMAT.getDefaultFileExtension());
+		file.deleteOnExit();
+		return file;
+	}
+
 	@Override
 	public SBOLDocument read() throws SBOLValidationException, IOException {
-		StatementCollector handler = new StatementCollector();
 		Revision rev = (revision == null) ? branch.getHead() : revision;
-		rev.checkout(handler);
-
+		checkedOut = rev;
+		File file = createTempFile();
 		try {
-			LocalEndpoint endpoint = new LocalEndpoint();
-			endpoint.addData(RDFInput.forStatements(handler.getStatements()));
-
-			// return new SBOLSPARQLReader(endpoint,
-			// false).read(branch.getRepository().getURI().stringValue());
-			// TODO This is no longer used
-			return null;
-		} catch (Exception e) {
-			throw new IOException(e);
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+			try {
+				RDFWriter rdfWriter = Rio.createWriter(FORMAT, out);
+				if (roots == null) {
+					rev.checkout(rdfWriter);
+				} else {
+					rev.checkout(rdfWriter, roots, SBOL_LINKS);
+				}
+			} finally {
+				out.close();
+			}
+
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				return SBOLReader.read(in);
+			} catch (SBOLConversionException e) {
+				throw new IOException(e);
+			} finally {
+				in.close();
+			}
+		} finally {
+			file.delete();
 		}
 	}
 
 	@Override
-	public void write(SBOLDocument doc) throws SBOLValidationException, SBOLConversionException {
+	public void write(SBOLDocument doc) throws SBOLValidationException, SBOLConversionException, IOException {
 		setCredentials();
 
-		// ComponentDefinition comp = (ComponentDefinition)
-		// doc.getContents().iterator().next();
-		ComponentDefinition comp = (ComponentDefinition) doc.getComponentDefinitions().iterator().next();
-		// comp.setURI(java.net.URI.create(branch.getRepository().getURI().stringValue()));
-		doc.createCopy(comp, java.net.URI.create(branch.getRepository().getURI().stringValue()).toString(),
-				comp.getDisplayId(), comp.getVersion());
-
 		String msg = JOptionPane.showInputDialog("Enter commit message");
-		OutputStream bytes = new ByteArrayOutputStream();
-		SBOLWriter.write(doc, bytes);
-		// TODO Typecasting without information
-		branch.commit(RDFInput.forBytes(((ByteArrayOutputStream) bytes).toByteArray()), info(msg));
+		commit(doc, msg);
+	}
+
+	/**
+	 * Commits the document to the branch with the given message on top of the revision it was read from, which has to
+	 * be the head of the branch. A document that was not read is committed on top of the current head. The document
+	 * read from a partial checkout only contains part of the revision so it is committed as a change to that part of
+	 * the revision, keeping the rest of the revision.
+	 * 
+	 * @throws CommitConflictException if the revision the document was read from is not the head of the branch
+	 */
+	public void write(SBOLDocument doc, String msg) throws SBOLValidationException, SBOLConversionException,
+			IOException {
+		setCredentials();
+
+		commit(doc, msg);
+	}
+
+	private void commit(SBOLDocument doc, String msg) throws SBOLValidationException, SBOLConversionException,
+			IOException {
+		File file = createTempFile();
+		try {
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+			try {
+				SBOLWriter.write(doc, out);
+			} finally {
+				out.close();
+			}
+			commit(file, msg);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void commit(File file, String msg) throws IOException {
+		if (roots == null) {
+			// the endpoint streams the file into the revision graph
+			RDFInput input = RDFInput.forFile(file);
+			checkedOut = (checkedOut == null) ? branch.commit(input, info(msg)) : branch.commit(checkedOut, input,
+					info(msg));
+		} else {
+			// the changes are computed against the part of the revision that was read, which is also the expected head
+			Revision base = (checkedOut != null) ? checkedOut : (revision == null) ? branch.getHead() : revision;
+			StatementCollector baseStmts = new StatementCollector();
+			base.checkout(baseStmts, roots, SBOL_LINKS);
+			Set<Statement> oldStmts = Sets.newHashSet(baseStmts.getStatements());
+			Set<Statement> newStmts = parse(file);
+			// blank node labels differ between the checkout and the parsed document so the difference would remove
+			// and add every statement with a blank node
+			if (hasBlankNodes(oldStmts) || hasBlankNodes(newStmts)) {
+				throw new IOException("Documents with blank nodes cannot be committed to a partial checkout");
+			}
+			checkedOut = branch.commit(base, RDFInput.forStatements(Sets.difference(oldStmts, newStmts)),
+					RDFInput.forStatements(Sets.difference(newStmts, oldStmts)), info(msg));
+		}
+		// reading the document again reads what was committed
+		if (revision != null) {
+			revision = checkedOut;
+		}
+	}
+
+	private static boolean hasBlankNodes(Set<Statement> stmts) {
+		for (Statement stmt : stmts) {
+			if (stmt.getSubject() instanceof BNode || stmt.getObject() instanceof BNode) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Set<Statement> parse(File file) throws IOException {
+		StatementCollector collector = new StatementCollector();
+		RDFParser parser = Rio.createParser(FORMAT);
+		parser.setRDFHandler(collector);
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			parser.parse(in, "");
+		} catch (RDFParseException e) {
+			throw new IOException(e);
+		} catch (RDFHandlerException e) {
+			throw new IOException(e);
+		} finally {
+			in.close();
+		}
+		return Sets.newHashSet(collector.getStatements());
 	}
 
 	@Override
@@ -152,7 +300,7 @@ public class RVTDocumentIO implements DocumentIO {
 		setCredentials();
 
 		Branch newBranch = branch.getHead().branch(name, info(msg));
-		return new RVTDocumentIO(newBranch, null, reader, writer);
+		return new RVTDocumentIO(newBranch, null, roots, reader, writer);
 	}
 
 	public RVTDocumentIO switchBranch(String name) {
@@ -161,7 +309,14 @@ public class RVTDocumentIO implements DocumentIO {
 	}
 
 	public RVTDocumentIO switchBranch(Branch newBranch) {
-		return new RVTDocumentIO(newBranch, null, reader, writer);
+		return new RVTDocumentIO(newBranch, null, roots, reader, writer);
+	}
+
+	/**
+	 * Returns the document IO for another revision of the same repository. A partial checkout stays partial.
+	 */
+	public RVTDocumentIO switchRevision(Revision newRevision) {
+		return new RVTDocumentIO(newRevision.getBranch(), newRevision, roots, reader, writer);
 	}
 
 	public RVTDocumentIO mergeBranch(Branch mergeBranch, String msg) {
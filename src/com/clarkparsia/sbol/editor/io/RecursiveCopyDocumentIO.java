@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.io;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+/**
+ * Reads a new document with a single component definition and everything it
+ * depends on copied out of another document. Wrapping the source this way lets
+ * {@link com.clarkparsia.sbol.editor.DocumentLoader} run both the read and the
+ * copy off the event thread.
+ */
+public class RecursiveCopyDocumentIO implements DocumentIO {
+	private final DocumentIO source;
+	private final URI rootURI;
+
+	public RecursiveCopyDocumentIO(DocumentIO source, URI rootURI) {
+		this.source = source;
+		this.rootURI = rootURI;
+	}
+
+	public RecursiveCopyDocumentIO(ComponentDefinition root) {
+		this(new ReadOnlyDocumentIO(root.getDocument()), root.getIdentity());
+	}
+
+	public SBOLDocument read() throws SBOLValidationException, IOException, SBOLConversionException {
+		SBOLDocument doc = source.read();
+		ComponentDefinition root = doc.getComponentDefinition(rootURI);
+		if (root == null) {
+			throw new IOException("Component definition " + rootURI + " not found");
+		}
+		return doc.createRecursiveCopy(root);
+	}
+
+	public void write(SBOLDocument document) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public String toString() {
+		return rootURI.toString();
+	}
+}
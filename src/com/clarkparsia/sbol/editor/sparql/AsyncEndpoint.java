@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.sparql;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.query.TupleQueryResultHandler;
+import org.openrdf.query.impl.TupleQueryResultBuilder;
+import org.openrdf.rio.RDFHandler;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Non-blocking access to a {@link SPARQLEndpoint}. Every call is run on a bounded thread pool and returns a future
+ * immediately so independent queries can be sent to the server concurrently. The pool size should not exceed the
+ * number of connections the endpoint can use (20 for {@link StardogEndpoint} by default); extra calls are queued.
+ * <p>
+ * Result handlers passed to this class are called on the pool threads, not on the calling thread.
+ */
+public class AsyncEndpoint {
+	public static final int DEFAULT_THREADS = 8;
+
+	private final SPARQLEndpoint endpoint;
+	private final ListeningExecutorService executor;
+
+	public AsyncEndpoint(SPARQLEndpoint endpoint) {
+		this(endpoint, DEFAULT_THREADS);
+	}
+
+	public AsyncEndpoint(SPARQLEndpoint endpoint, int threads) {
+		Preconditions.checkArgument(threads > 0, "Invalid number of threads: " + threads);
+		this.endpoint = endpoint;
+		this.executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads,
+		                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SPARQL query %d").build()));
+	}
+
+	public SPARQLEndpoint getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * Stops the threads after the calls already submitted complete. The underlying endpoint is not closed.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Runs a task that makes its own calls to the endpoint, e.g. through the versioning API, on the pool. Tasks that
+	 * don't depend on each other run concurrently like the other calls.
+	 */
+	public <T> ListenableFuture<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	/**
+	 * Runs the select query and collects all its results in memory.
+	 */
+	public ListenableFuture<TupleQueryResult> executeSelectQuery(final String query) {
+		return executor.submit(new Callable<TupleQueryResult>() {
+			@Override
+			public TupleQueryResult call() throws Exception {
+				TupleQueryResultBuilder builder = new TupleQueryResultBuilder();
+				endpoint.executeSelectQuery(query, builder);
+				return builder.getQueryResult();
+			}
+		});
+	}
+
+	public ListenableFuture<Void> executeSelectQuery(final String query, final TupleQueryResultHandler handler) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.executeSelectQuery(query, handler);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Boolean> executeAskQuery(final String query) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return endpoint.executeAskQuery(query);
+			}
+		});
+	}
+
+	public ListenableFuture<Void> addData(final RDFInput input, final String namedGraph) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.addData(input, namedGraph);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Void> removeData(final RDFInput input, final String namedGraph) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.removeData(input, namedGraph);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Boolean> updateData(final RDFInput removals, final RDFInput additions,
+	                final String namedGraph, final String condition) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return endpoint.updateData(removals, additions, namedGraph, condition);
+			}
+		});
+	}
+
+	public ListenableFuture<Void> copy(final String sourceGraph, final String targetGraph) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.copy(sourceGraph, targetGraph);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Void> export(final RDFHandler handler, final String namedGraph) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.export(handler, namedGraph);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Void> clear(final String namedGraph) {
+		return executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				endpoint.clear(namedGraph);
+				return null;
+			}
+		});
+	}
+
+	public ListenableFuture<Long> size() {
+		return executor.submit(new Callable<Long>() {
+			@Override
+			public Long call() throws Exception {
+				return endpoint.size();
+			}
+		});
+	}
+}
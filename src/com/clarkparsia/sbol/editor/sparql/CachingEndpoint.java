@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.sparql;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResultHandler;
+import org.openrdf.query.TupleQueryResultHandlerException;
+import org.openrdf.rio.RDFHandler;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * An endpoint that caches the results of select and ask queries sent to another endpoint. Queries are keyed on their
+ * text with whitespace normalized. All cached results are discarded when data is added, removed or cleared through
+ * this endpoint; changes made to the underlying store by other means require an explicit {@link #invalidate()}.
+ * <p>
+ * The size of the cache is bounded by the total number of result rows it holds. Results with more rows than the
+ * per result limit are passed through without being cached so a single large result doesn't evict everything else.
+ */
+public class CachingEndpoint extends AbstractEndpoint {
+	public static final long DEFAULT_MAX_ROWS = 100000;
+	public static final int DEFAULT_MAX_RESULT_ROWS = 10000;
+
+	private final SPARQLEndpoint endpoint;
+
+	private final Cache<String, Object> cache;
+
+	private final int maxResultRows;
+
+	/**
+	 * Incremented every time the store is modified so results of queries that were running during a modification
+	 * are not cached.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	public CachingEndpoint(SPARQLEndpoint endpoint) {
+		this(endpoint, DEFAULT_MAX_ROWS);
+	}
+
+	public CachingEndpoint(SPARQLEndpoint endpoint, long maxRows) {
+		this(endpoint, maxRows, (int) Math.min(maxRows, DEFAULT_MAX_RESULT_ROWS));
+	}
+
+	public CachingEndpoint(SPARQLEndpoint endpoint, long maxRows, int maxResultRows) {
+		Preconditions.checkArgument(maxResultRows >= 0, "Invalid number of rows: " + maxResultRows);
+		this.endpoint = endpoint;
+		this.maxResultRows = maxResultRows;
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maxRows).weigher(new Weigher<String, Object>() {
+			@Override
+			public int weigh(String query, Object result) {
+				return (result instanceof TupleResult) ? ((TupleResult) result).bindingSets.size() + 1 : 1;
+			}
+		}).recordStats().build();
+	}
+
+	public SPARQLEndpoint getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * Discards all the cached results.
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long getHitCount() {
+		return cache.stats().hitCount();
+	}
+
+	public long getMissCount() {
+		return cache.stats().missCount();
+	}
+
+	/**
+	 * Collapses whitespace outside string literals so queries that differ only in formatting share a cache entry.
+	 */
+	private static String normalize(String query) {
+		StringBuilder sb = new StringBuilder(query.length());
+		char quote = 0;
+		boolean space = false;
+		for (int i = 0, n = query.length(); i < n; i++) {
+			char c = query.charAt(i);
+			if (quote != 0) {
+				sb.append(c);
+				if (c == '\\' && i + 1 < n) {
+					sb.append(query.charAt(++i));
+				}
+				else if (c == quote) {
+					quote = 0;
+				}
+			}
+			else if (CharMatcher.WHITESPACE.matches(c)) {
+				space = true;
+			}
+			else {
+				if (space && sb.length() > 0) {
+					sb.append(' ');
+				}
+				space = false;
+				if (c == '"' || c == '\'') {
+					quote = c;
+				}
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String getURL() {
+		return endpoint.getURL();
+	}
+
+	@Override
+	public void close() {
+		invalidate();
+		endpoint.close();
+	}
+
+	@Override
+	public void executeSelectQuery(String query, TupleQueryResultHandler handler) throws QueryEvaluationException {
+		String key = normalize(query);
+		Object cached = cache.getIfPresent(key);
+		if (cached instanceof TupleResult) {
+			try {
+				((TupleResult) cached).replay(handler);
+			}
+			catch (TupleQueryResultHandlerException e) {
+				throw new QueryEvaluationException(e);
+			}
+			return;
+		}
+
+		long queryGeneration = generation.get();
+		RecordingHandler recorder = new RecordingHandler(handler, maxResultRows);
+		endpoint.executeSelectQuery(query, recorder);
+		if (recorder.result != null && queryGeneration == generation.get()) {
+			cache.put(key, recorder.result);
+		}
+	}
+
+	@Override
+	public boolean executeAskQuery(String query) throws QueryEvaluationException {
+		String key = normalize(query);
+		Object cached = cache.getIfPresent(key);
+		if (cached instanceof Boolean) {
+			return (Boolean) cached;
+		}
+
+		long queryGeneration = generation.get();
+		boolean result = endpoint.executeAskQuery(query);
+		if (queryGeneration == generation.get()) {
+			cache.put(key, result);
+		}
+		return result;
+	}
+
+	@Override
+	public void addData(RDFInput input, String namedGraph) throws Exception {
+		try {
+			endpoint.addData(input, namedGraph);
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void removeData(RDFInput input, String namedGraph) throws Exception {
+		try {
+			endpoint.removeData(input, namedGraph);
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public boolean updateData(RDFInput removals, RDFInput additions, String namedGraph, String condition)
+	                throws Exception {
+		try {
+			return endpoint.updateData(removals, additions, namedGraph, condition);
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void copy(String sourceGraph, String targetGraph) throws Exception {
+		try {
+			endpoint.copy(sourceGraph, targetGraph);
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void export(RDFHandler handler, String namedGraph) throws Exception {
+		endpoint.export(handler, namedGraph);
+	}
+
+	@Override
+	public void clear() throws Exception {
+		try {
+			endpoint.clear();
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void clear(String namedGraph) throws Exception {
+		try {
+			endpoint.clear(namedGraph);
+		}
+		finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void validate(RDFInput constraints, String namedGraph) throws Exception {
+		endpoint.validate(constraints, namedGraph);
+	}
+
+	@Override
+	public long size() throws Exception {
+		return endpoint.size();
+	}
+
+	private static class TupleResult {
+		private final List<String> bindingNames;
+		private final List<BindingSet> bindingSets;
+
+		private TupleResult(List<String> bindingNames, List<BindingSet> bindingSets) {
+			this.bindingNames = bindingNames;
+			this.bindingSets = bindingSets;
+		}
+
+		private void replay(TupleQueryResultHandler handler) throws TupleQueryResultHandlerException {
+			handler.startQueryResult(bindingNames);
+			for (BindingSet bindingSet : bindingSets) {
+				handler.handleSolution(bindingSet);
+			}
+			handler.endQueryResult();
+		}
+	}
+
+	/**
+	 * Passes the results to the actual handler while recording them. The result is available only if the query
+	 * result ended normally and didn't have more than the maximum number of rows. Recording stops as soon as the
+	 * limit is exceeded.
+	 */
+	private static class RecordingHandler implements TupleQueryResultHandler {
+		private final TupleQueryResultHandler handler;
+		private final int maxRows;
+		private List<String> bindingNames = ImmutableList.of();
+		private List<BindingSet> bindingSets = Lists.newArrayList();
+		private TupleResult result;
+
+		private RecordingHandler(TupleQueryResultHandler handler, int maxRows) {
+			this.handler = handler;
+			this.maxRows = maxRows;
+		}
+
+		@Override
+		public void startQueryResult(List<String> bindingNames) throws TupleQueryResultHandlerException {
+			this.bindingNames = ImmutableList.copyOf(bindingNames);
+			handler.startQueryResult(bindingNames);
+		}
+
+		@Override
+		public void handleSolution(BindingSet bindingSet) throws TupleQueryResultHandlerException {
+			if (bindingSets != null) {
+				if (bindingSets.size() < maxRows) {
+					bindingSets.add(bindingSet);
+				}
+				else {
+					bindingSets = null;
+				}
+			}
+			handler.handleSolution(bindingSet);
+		}
+
+		@Override
+		public void endQueryResult() throws TupleQueryResultHandlerException {
+			handler.endQueryResult();
+			if (bindingSets != null) {
+				result = new TupleResult(bindingNames, ImmutableList.copyOf(bindingSets));
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.sparql;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps track of consecutive failures of calls to a remote service and rejects calls for a while once too many calls
+ * failed in a row so callers fail fast instead of waiting for a server that is down. After the cool down period a
+ * single trial call is let through; the breaker closes again if it succeeds and reopens otherwise.
+ */
+class CircuitBreaker {
+	private final int failureThreshold;
+	private final long coolDownMillis;
+
+	private int failures;
+	private long openedAt = -1;
+	private boolean trialInProgress;
+
+	/**
+	 * @param failureThreshold number of consecutive failures that opens the breaker, zero to disable the breaker
+	 * @param coolDownMillis time in milliseconds calls are rejected once the breaker is open
+	 */
+	CircuitBreaker(int failureThreshold, long coolDownMillis) {
+		Preconditions.checkArgument(failureThreshold >= 0, "Invalid failure threshold: " + failureThreshold);
+		Preconditions.checkArgument(coolDownMillis >= 0, "Invalid cool down period: " + coolDownMillis);
+		this.failureThreshold = failureThreshold;
+		this.coolDownMillis = coolDownMillis;
+	}
+
+	/**
+	 * Returns true if a call is allowed. Every allowed call must be followed by a call to either {@link #succeeded()}
+	 * or {@link #failed()}.
+	 */
+	synchronized boolean allowRequest() {
+		if (openedAt < 0) {
+			return true;
+		}
+		if (trialInProgress || System.currentTimeMillis() - openedAt < coolDownMillis) {
+			return false;
+		}
+		trialInProgress = true;
+		return true;
+	}
+
+	synchronized void succeeded() {
+		failures = 0;
+		openedAt = -1;
+		trialInProgress = false;
+	}
+
+	synchronized void failed() {
+		failures++;
+		if (trialInProgress || (failureThreshold > 0 && failures >= failureThreshold)) {
+			openedAt = System.currentTimeMillis();
+		}
+		trialInProgress = false;
+	}
+
+	synchronized boolean isOpen() {
+		return openedAt >= 0;
+	}
+}
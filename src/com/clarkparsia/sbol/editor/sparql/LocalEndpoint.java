@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.List;
 
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
@@ -31,6 +32,8 @@ import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.repository.util.RDFInserter;
+import org.openrdf.repository.util.RDFRemover;
 import org.openrdf.rio.RDFFormat;
 import org.openrdf.rio.RDFHandler;
 import org.openrdf.rio.RDFHandlerException;
@@ -45,6 +48,7 @@ import org.openrdf.sail.memory.MemoryStore;
 public class LocalEndpoint extends AbstractEndpoint {
 	private final Repository repo;
 	private final String url;
+	private final Object updateLock = new Object();
 	
 	public LocalEndpoint() {
 		this(null);
@@ -138,59 +142,165 @@ public class LocalEndpoint extends AbstractEndpoint {
 		RepositoryConnection conn = null;
 		try {
 			conn = repo.getConnection();
-			if (input.isFile()) {
-				File file = input.getFile();
-				conn.add(file, "", RDFFormat.forFileName(file.getName()), context(namedGraph));
-			}
-			else if (input.isStream()) {				
-				conn.add(input.getStream(), "", RDFFormat.RDFXML, context(namedGraph));				
-			}
-			else if (input.isStatements()) {				
-				conn.add(input.getStatements(), context(namedGraph));				
-			}
-			else {
-				throw new AssertionError();
-			}
+			add(conn, input, namedGraph);
 		}
 		finally {
 			closeQuietly(conn);
 		}
     }
 
+	private void add(RepositoryConnection conn, RDFInput input, String namedGraph) throws Exception {
+		if (input.isFile()) {
+			File file = input.getFile();
+			conn.add(file, "", RDFFormat.forFileName(file.getName()), context(namedGraph));
+		}
+		else if (input.isStream()) {				
+			conn.add(input.getStream(), "", RDFFormat.RDFXML, context(namedGraph));				
+		}
+		else if (input.isStatements()) {				
+			conn.add(input.getStatements(), context(namedGraph));				
+		}
+		else if (input.isSource()) {
+			RDFInserter inserter = new RDFInserter(conn);
+			inserter.enforceContext(context(namedGraph));
+			readInTransaction(conn, input.getSource(), inserter);
+		}
+		else {
+			throw new AssertionError();
+		}
+	}
+	
+	/**
+	 * Passes the statements of the source to the handler in a single transaction rather than committing each
+	 * statement separately.
+	 */
+	private void readInTransaction(RepositoryConnection conn, RDFSource source, RDFHandler handler) throws Exception {
+		if (!conn.isAutoCommit()) {
+			// already part of a larger transaction
+			source.read(handler);
+			return;
+		}
+		
+		conn.setAutoCommit(false);
+		boolean committed = false;
+		try {
+			source.read(handler);
+			conn.commit();
+			committed = true;
+		}
+		finally {
+			if (!committed) {
+				conn.rollback();
+			}
+			conn.setAutoCommit(true);
+		}
+	}
+
 	@Override
     public void removeData(RDFInput input, String namedGraph) throws Exception {
 		RepositoryConnection conn = null;
 		try {
 			conn = repo.getConnection();
-			Iterable<? extends Statement> stmts;
-			if (input.isStatements()) {				
-				stmts = input.getStatements();				
+			remove(conn, input, namedGraph);
+		}
+		finally {
+			closeQuietly(conn);
+		}
+	}
+
+	private void remove(RepositoryConnection conn, RDFInput input, String namedGraph) throws Exception {
+		if (input.isSource()) {
+			RDFRemover remover = new RDFRemover(conn);
+			if (namedGraph != null) {
+				remover.enforceContext(ValueFactoryImpl.getInstance().createURI(namedGraph));
+			}
+			readInTransaction(conn, input.getSource(), remover);
+			return;
+		}
+		
+		Iterable<? extends Statement> stmts;
+		if (input.isStatements()) {				
+			stmts = input.getStatements();				
+		}
+		else {
+			RDFFormat format = RDFFormat.RDFXML;
+			InputStream stream = null;				
+			if (input.isFile()) {
+				File file = input.getFile();
+				format = RDFFormat.forFileName(file.getName());
+				stream = new FileInputStream(file);
 			}
+			else if (input.isStream()) {				
+				stream = input.getStream();				
+			} 
 			else {
-				RDFFormat format = RDFFormat.RDFXML;
-				InputStream stream = null;				
-				if (input.isFile()) {
-					File file = input.getFile();
-					format = RDFFormat.forFileName(file.getName());
-					stream = new FileInputStream(file);
+				throw new AssertionError();
+			}
+			
+			StatementCollector collector = new StatementCollector();
+			RDFParser parser = Rio.createParser(format);
+			parser.setRDFHandler(collector);
+			parser.parse(stream, "");
+			stmts = collector.getStatements();
+		}
+		
+		conn.remove(stmts, context(namedGraph));
+	}
+
+	/**
+	 * Conditional updates are serialized with a lock since the memory store does not isolate the condition check
+	 * from concurrent transactions.
+	 */
+	@Override
+	public boolean updateData(RDFInput removals, RDFInput additions, String namedGraph, String condition)
+	                throws Exception {
+		synchronized (updateLock) {
+			RepositoryConnection conn = null;
+			boolean committed = false;
+			try {
+				conn = repo.getConnection();
+				conn.setAutoCommit(false);
+				if (condition != null) {
+					String ask = "ASK " + (namedGraph == null ? "" : "FROM <" + namedGraph + "> ") + condition;
+					if (!conn.prepareBooleanQuery(QueryLanguage.SPARQL, ask).evaluate()) {
+						return false;
+					}
 				}
-				else if (input.isStream()) {				
-					stream = input.getStream();				
-				} 
-				else {
-					throw new AssertionError();
+				if (removals != null) {
+					remove(conn, removals, namedGraph);
 				}
-				
-				StatementCollector collector = new StatementCollector();
-				RDFParser parser = Rio.createParser(format);
-				parser.setRDFHandler(collector);
-				parser.parse(stream, "");
-				stmts = collector.getStatements();
+				if (additions != null) {
+					add(conn, additions, namedGraph);
+				}
+				conn.commit();
+				committed = true;
+				return true;
 			}
-			
-			conn.remove(stmts, context(namedGraph));
+			finally {
+				if (conn != null && !committed) {
+					conn.rollback();
+				}
+				closeQuietly(conn);
+			}
+		}
+	}
+	
+	@Override
+	public void copy(String sourceGraph, String targetGraph) throws Exception {
+		RepositoryConnection conn = null;
+		boolean committed = false;
+		try {
+			conn = repo.getConnection();
+			conn.setAutoCommit(false);
+			List<Statement> stmts = conn.getStatements(null, null, null, false, context(sourceGraph)).asList();
+			conn.add(stmts, context(targetGraph));
+			conn.commit();
+			committed = true;
 		}
 		finally {
+			if (conn != null && !committed) {
+				conn.rollback();
+			}
 			closeQuietly(conn);
 		}
 	}
@@ -56,6 +56,14 @@ public abstract class RDFInput {
 		throw new IllegalStateException("Not a statements source");
 	}
 	
+	public boolean isSource() {
+		return false;
+	}
+	
+	public RDFSource getSource() {
+		throw new IllegalStateException("Not an RDF source");
+	}
+	
 	public RDFFormat getFormat() {
 		return RDFFormat.RDFXML;
 	}
@@ -119,6 +127,25 @@ public abstract class RDFInput {
 		};
 	}
 		
+	/**
+	 * Creates an input whose statements are produced by the given source when the input is consumed. Endpoints pass
+	 * the statements on as they are generated so the input is never materialized in memory. The source may be read
+	 * more than once, e.g. if a request needs to be resent.
+	 */
+	public static RDFInput forSource(final RDFSource source) {
+		return new RDFInput() {
+			@Override
+            public boolean isSource() {
+	            return true;
+            }
+
+			@Override
+            public RDFSource getSource() {
+	            return source;
+            }			
+		};
+	}
+		
 	public static RDFInput forStatements(Statement... statements) {
 		return forStatements(Arrays.asList(statements));
 	}
@@ -36,6 +36,24 @@ public interface SPARQLEndpoint {
 
 	public void removeData(RDFInput file, String namedGraph) throws Exception;
 
+	/**
+	 * Removes and adds statements in the named graph as a single atomic update that is applied only if the condition
+	 * matches the named graph when the update is made. The condition is a SPARQL group graph pattern, e.g.
+	 * <code>{ &lt;s&gt; &lt;p&gt; &lt;o&gt; }</code>, using full IRIs. The condition is checked by the update itself
+	 * so it can be used to implement a compare-and-swap. Returns false, leaving the store unchanged, if the condition
+	 * doesn't match. Concurrent conditional updates are only serialized if the store aborts conflicting transactions,
+	 * see {@link StardogEndpoint#updateData(RDFInput, RDFInput, String, String)}.
+	 * <p>
+	 * Some endpoints find out whether a conditional update was applied by looking for the additions afterwards, so
+	 * the additions of a conditional update must not be empty and must not all be in the graph already.
+	 */
+	public boolean updateData(RDFInput removals, RDFInput additions, String namedGraph, String condition) throws Exception;
+
+	/**
+	 * Adds all the statements of the source graph to the target graph without transferring them to the client.
+	 */
+	public void copy(String sourceGraph, String targetGraph) throws Exception;
+
 	public void export(RDFHandler handler) throws Exception;
 
 	public void export(RDFHandler handler, String namedGraph) throws Exception;
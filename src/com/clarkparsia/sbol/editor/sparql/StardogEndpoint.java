@@ -15,40 +15,53 @@
 
 package com.clarkparsia.sbol.editor.sparql;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HeaderElement;
 import org.apache.commons.httpclient.HttpClient;
-import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.HttpMethodBase;
+import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
-import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
 import org.apache.commons.httpclient.methods.DeleteMethod;
-import org.apache.commons.httpclient.methods.FileRequestEntity;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.apache.commons.httpclient.methods.GetMethod;
-import org.apache.commons.httpclient.methods.InputStreamRequestEntity;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.params.HttpClientParams;
 import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.openrdf.model.BNode;
 import org.openrdf.model.Statement;
 import org.openrdf.query.QueryEvaluationException;
 import org.openrdf.query.TupleQueryResultHandler;
 import org.openrdf.query.TupleQueryResultHandlerException;
+import org.openrdf.query.resultio.BooleanQueryResultFormat;
 import org.openrdf.query.resultio.QueryResultParseException;
+import org.openrdf.query.resultio.TupleQueryResultFormat;
+import org.openrdf.query.resultio.TupleQueryResultParser;
 import org.openrdf.query.resultio.UnsupportedQueryResultFormatException;
+import org.openrdf.query.resultio.binary.BinaryQueryResultParser;
 import org.openrdf.query.resultio.sparqlxml.SPARQLBooleanXMLParser;
 import org.openrdf.query.resultio.sparqlxml.SPARQLResultsXMLParser;
 import org.openrdf.rio.RDFFormat;
@@ -58,25 +71,59 @@ import org.openrdf.rio.RDFParseException;
 import org.openrdf.rio.RDFParser;
 import org.openrdf.rio.RDFParserFactory;
 import org.openrdf.rio.RDFParserRegistry;
-import org.openrdf.rio.RDFWriter;
 import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.openrdf.rio.ntriples.NTriplesUtil;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
 
 /**
  * 
  * @author Evren Sirin
  */
 public class StardogEndpoint extends AbstractEndpoint {
-	private final SPARQLResultsXMLParser tupleParser = new SPARQLResultsXMLParser();
-	private final SPARQLBooleanXMLParser booleanParser = new SPARQLBooleanXMLParser();
 	private final RDFParserRegistry registry = RDFParserRegistry.getInstance();
 
 	private String url;
 
 	private HttpClient client;
 	
+	private final MultiThreadedHttpConnectionManager manager;
+	
+	private IdleConnectionTimeoutThread idleConnectionEvictor;
+	
+	private boolean compressResponses = true;
+	
+	/**
+	 * Set to false once the server refuses binary results so we don't ask again.
+	 */
+	private volatile boolean binaryResults = true;
+	
+	private int queryTimeout = DEFAULT_QUERY_TIMEOUT;
+	private int updateTimeout = 0;
+	private int maxRetries = DEFAULT_MAX_RETRIES;
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+	private CircuitBreaker circuitBreaker = new CircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN);
+	private final Random random = new Random();
+	
 	private boolean isAnonymous;
+	
+	private RDFFormat uploadFormat = RDFFormat.TURTLE;
+	private boolean compressUploads = false;
+	private int uploadChunkSize = 64 * 1024;
+	private UploadListener uploadListener;
+
+	private static final int DEFAULT_MAX_CONNECTIONS = 20;
+	private static final int DEFAULT_CONNECTION_TIMEOUT = 30 * 1000;
+	private static final int DEFAULT_SOCKET_TIMEOUT = 5 * 60 * 1000;
+	private static final int DEFAULT_QUERY_TIMEOUT = 2 * 60 * 1000;
+	private static final int DEFAULT_MAX_RETRIES = 2;
+	private static final long DEFAULT_RETRY_DELAY = 250;
+	private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	private static final long DEFAULT_COOL_DOWN = 30 * 1000;
 
 	public StardogEndpoint(String url) {
 		this(url, "anonymous", "anonymous");
@@ -85,10 +132,13 @@ public class StardogEndpoint extends AbstractEndpoint {
 	public StardogEndpoint(String url, String username, String passwd) {
 		this.url = url;
 
-		HttpConnectionManager manager = new MultiThreadedHttpConnectionManager();
+		manager = new MultiThreadedHttpConnectionManager();
 
 		HttpConnectionManagerParams params = new HttpConnectionManagerParams();
-		params.setDefaultMaxConnectionsPerHost(20);
+		params.setDefaultMaxConnectionsPerHost(DEFAULT_MAX_CONNECTIONS);
+		params.setMaxTotalConnections(DEFAULT_MAX_CONNECTIONS);
+		params.setConnectionTimeout(DEFAULT_CONNECTION_TIMEOUT);
+		params.setSoTimeout(DEFAULT_SOCKET_TIMEOUT);
 		params.setStaleCheckingEnabled(false);
 		manager.setParams(params);
 
@@ -117,9 +167,97 @@ public class StardogEndpoint extends AbstractEndpoint {
 	public boolean isAnonymous() {
 		return isAnonymous;
 	}
+	
+	/**
+	 * Sets whether gzip or deflate compressed responses will be requested from the server. Enabled by default.
+	 */
+	public void setCompressResponses(boolean compressResponses) {
+		this.compressResponses = compressResponses;
+	}
+	
+	/**
+	 * Sets the maximum number of pooled connections to the server.
+	 */
+	public void setMaxConnections(int maxConnections) {
+		Preconditions.checkArgument(maxConnections > 0, "Invalid number of connections: " + maxConnections);
+		manager.getParams().setDefaultMaxConnectionsPerHost(maxConnections);
+		manager.getParams().setMaxTotalConnections(maxConnections);
+	}
+	
+	/**
+	 * Sets the timeout in milliseconds for establishing a connection, zero for no timeout.
+	 */
+	public void setConnectionTimeout(int timeout) {
+		manager.getParams().setConnectionTimeout(timeout);
+	}
+	
+	/**
+	 * Sets the timeout in milliseconds for waiting for data from the server, zero for no timeout. This is used for
+	 * requests that don't have a more specific timeout, e.g. beginning or committing transactions, exports and
+	 * updates without an update timeout. Five minutes by default.
+	 */
+	public void setSocketTimeout(int timeout) {
+		manager.getParams().setSoTimeout(timeout);
+	}
+	
+	/**
+	 * Sets the timeout in milliseconds for waiting for the results of select and ask queries, zero for no timeout.
+	 */
+	public void setQueryTimeout(int timeout) {
+		this.queryTimeout = timeout;
+	}
+	
+	/**
+	 * Sets the timeout in milliseconds for waiting for the server to respond to an update (adding, removing or
+	 * clearing data), zero to use the socket timeout.
+	 */
+	public void setUpdateTimeout(int timeout) {
+		this.updateTimeout = timeout;
+	}
+	
+	/**
+	 * Sets how many times a select or ask query is retried after a connection error, a timeout or a server error.
+	 * Retries are delayed with exponential back-off starting from the given delay, randomized to avoid many clients
+	 * retrying at the same time. Updates are never retried.
+	 */
+	public void setRetries(int maxRetries, long retryDelay) {
+		Preconditions.checkArgument(maxRetries >= 0, "Invalid number of retries: " + maxRetries);
+		this.maxRetries = maxRetries;
+		this.retryDelay = retryDelay;
+	}
+	
+	/**
+	 * Sets the number of consecutive failed requests after which further requests fail immediately without
+	 * contacting the server for the given cool down period. A failure threshold of zero disables this behavior.
+	 */
+	public void setCircuitBreaker(int failureThreshold, long coolDownMillis) {
+		this.circuitBreaker = new CircuitBreaker(failureThreshold, coolDownMillis);
+	}
+	
+	/**
+	 * Sets the time in milliseconds after which idle pooled connections are closed, zero to keep them open until
+	 * the endpoint is closed. Closing idle connections avoids reusing connections the server or a proxy has already
+	 * dropped which would otherwise need the (disabled) stale connection check.
+	 */
+	public synchronized void setIdleConnectionTimeout(long timeout) {
+		if (idleConnectionEvictor != null) {
+			idleConnectionEvictor.shutdown();
+			idleConnectionEvictor = null;
+		}
+		if (timeout > 0) {
+			idleConnectionEvictor = new IdleConnectionTimeoutThread();
+			idleConnectionEvictor.setName("Stardog idle connection evictor");
+			idleConnectionEvictor.setConnectionTimeout(timeout);
+			idleConnectionEvictor.setTimeoutInterval(Math.max(1000, timeout / 2));
+			idleConnectionEvictor.addConnectionManager(manager);
+			idleConnectionEvictor.start();
+		}
+	}
 
 	@Override
 	public void close() {
+		setIdleConnectionTimeout(0);
+		manager.shutdown();
 		client = null;
 	}
 
@@ -127,11 +265,11 @@ public class StardogEndpoint extends AbstractEndpoint {
 	public void executeSelectQuery(String query, TupleQueryResultHandler handler) throws QueryEvaluationException {
 		try {
 			boolean complete = false;
-			HttpMethod response = executeQuery(query);
+			HttpMethod response = executeTupleQuery(query);
 			try {
+				TupleQueryResultParser tupleParser = createTupleParser(response);
 				tupleParser.setTupleQueryResultHandler(handler);
-				byte[] bytes = response.getResponseBody();
-				tupleParser.parse(new ByteArrayInputStream(bytes));
+				tupleParser.parse(getResponseStream(response));
 				complete = true;
 			}
 			catch (HttpException e) {
@@ -156,12 +294,17 @@ public class StardogEndpoint extends AbstractEndpoint {
 
 	@Override
 	public boolean executeAskQuery(String query) throws QueryEvaluationException {
+		return executeAskQuery(url + "/query", query);
+	}
+
+	private boolean executeAskQuery(String queryURL, String query) throws QueryEvaluationException {
 		try {
 			Boolean result = null;
-			HttpMethod response = executeQuery(query);
+			HttpMethod response = executeQuery(queryURL, query, BooleanQueryResultFormat.SPARQL.getDefaultMIMEType());
 			try {
-				InputStream in = response.getResponseBodyAsStream();
-				result = booleanParser.parse(in);
+				InputStream in = getResponseStream(response);
+				// parsers are not thread-safe so a new one is created for each query
+				result = new SPARQLBooleanXMLParser().parse(in);
 				return result.booleanValue();
 			}
 			catch (HttpException e) {
@@ -184,75 +327,374 @@ public class StardogEndpoint extends AbstractEndpoint {
 	private String startTransaction() throws Exception {
 		PostMethod post = new PostMethod(url + "/transaction/begin");
 		execute(post);
-		return post.getResponseBodyAsString();
+		return getResponseString(post);
 	}
 	
 	private void commitTransaction(String txId) throws Exception {
 		PostMethod post = new PostMethod(url + "/transaction/commit/" + txId);
 		execute(post);
 	}
+	
+	private void rollbackTransaction(String txId) {
+		try {
+			PostMethod post = new PostMethod(url + "/transaction/rollback/" + txId);
+			execute(post);
+		}
+		catch (Exception e) {
+			System.err.println("Cannot rollback the transaction " + txId + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets the format used to serialize statements generated on the client side (statement lists and RDF sources)
+	 * when they are uploaded. Files and streams are always sent in their own format. The default format is Turtle;
+	 * {@link RDFFormat#BINARY} is considerably more compact and faster to parse.
+	 */
+	public void setUploadFormat(RDFFormat uploadFormat) {
+		this.uploadFormat = uploadFormat;
+	}
+
+	/**
+	 * Sets whether request bodies will be gzip compressed.
+	 */
+	public void setCompressUploads(boolean compressUploads) {
+		this.compressUploads = compressUploads;
+	}
+
+	/**
+	 * Sets the size of the chunks the request bodies are sent in. At most one chunk is held in memory at any time.
+	 */
+	public void setUploadChunkSize(int uploadChunkSize) {
+		Preconditions.checkArgument(uploadChunkSize > 0, "Invalid chunk size: " + uploadChunkSize);
+		this.uploadChunkSize = uploadChunkSize;
+	}
+
+	/**
+	 * Sets the listener notified after each chunk of an upload is sent, null to stop reporting progress.
+	 */
+	public void setUploadListener(UploadListener uploadListener) {
+		this.uploadListener = uploadListener;
+	}
 
 	@Override
 	public void addData(RDFInput input, String namedGraph) throws Exception {
+		updateData(input, namedGraph, "add");
+	}
+
+	@Override
+	public void removeData(RDFInput input, String namedGraph) throws Exception {
+		updateData(input, namedGraph, "remove");
+	}
+
+	/**
+	 * Streams the input to the server inside a transaction which is rolled back if the upload fails so a partial
+	 * upload is never committed.
+	 */
+	private void updateData(RDFInput input, String namedGraph, String operation) throws Exception {
 		String txId = startTransaction();
-		
-		RequestEntity entity = createEntity(input);		
-		PostMethod post = new PostMethod(url + "/" + txId + "/add");
+		boolean committed = false;
+		try {
+			sendData(txId, input, namedGraph, operation);
+
+			commitTransaction(txId);
+			committed = true;
+		}
+		finally {
+			if (!committed) {
+				rollbackTransaction(txId);
+			}
+		}
+	}
+
+	/**
+	 * A conditional update is sent as a single SPARQL update so the condition is checked by the same operation that
+	 * changes the data; the statements are held in memory and sent inline so conditional updates should be small.
+	 * Unconditional updates are streamed.
+	 * <p>
+	 * The condition is evaluated against the snapshot the transaction started from. Conditional updates are only
+	 * atomic with respect to concurrent transactions if the database aborts the commit of a transaction that
+	 * conflicts with a transaction committed in the meantime, which requires the database option
+	 * <code>transaction.isolation=SERIALIZABLE</code> or
+	 * <code>transaction.write.conflict.strategy=abort_on_conflict</code>. With the default snapshot isolation and
+	 * last-commit-wins strategy two concurrent updates can both see the condition match and both commit. A commit
+	 * rejected with a <code>409 Conflict</code> status is reported as a condition that didn't match.
+	 */
+	@Override
+	public boolean updateData(RDFInput removals, RDFInput additions, String namedGraph, String condition)
+	                throws Exception {
+		String txId = startTransaction();
+		boolean finished = false;
+		try {
+			if (condition != null) {
+				if (!sendConditionalUpdate(txId, removals, additions, namedGraph, condition)) {
+					return false;
+				}
+			}
+			else {
+				if (removals != null) {
+					sendData(txId, removals, namedGraph, "remove");
+				}
+				if (additions != null) {
+					sendData(txId, additions, namedGraph, "add");
+				}
+			}
+
+			try {
+				commitTransaction(txId);
+			}
+			catch (StatusException e) {
+				if (condition == null || e.getStatusCode() != HttpStatus.SC_CONFLICT) {
+					throw e;
+				}
+				// the server aborted the transaction so there is nothing to roll back
+				finished = true;
+				return false;
+			}
+			finished = true;
+			return true;
+		}
+		finally {
+			if (!finished) {
+				rollbackTransaction(txId);
+			}
+		}
+	}
+
+	/**
+	 * Sends <code>DELETE { removals } INSERT { additions } WHERE condition</code>, which changes nothing if the
+	 * condition doesn't match, and returns whether it was applied. The server doesn't report that so the additions
+	 * are looked up afterwards in the same transaction. Neither the update nor the lookup sees transactions
+	 * committed after this one started; conflicts with those are detected, if at all, when this one is committed.
+	 */
+	private boolean sendConditionalUpdate(String txId, RDFInput removals, RDFInput additions, String namedGraph,
+	                String condition) throws Exception {
+		Preconditions.checkArgument(additions != null, "A conditional update needs additions");
+		List<Statement> added = readStatements(additions);
+		Preconditions.checkArgument(!added.isEmpty(), "A conditional update needs additions");
+
+		StringBuilder update = new StringBuilder();
+		if (removals != null) {
+			List<Statement> removed = readStatements(removals);
+			for (Statement stmt : removed) {
+				Preconditions.checkArgument(!(stmt.getSubject() instanceof BNode || stmt.getObject() instanceof BNode),
+				                "Blank nodes cannot be removed by a conditional update");
+			}
+			update.append("DELETE ").append(toGraphPattern(removed, namedGraph)).append("\n");
+		}
+		update.append("INSERT ").append(toGraphPattern(added, namedGraph)).append("\n");
 		if (namedGraph != null) {
-			post.setQueryString(new NameValuePair[] { new NameValuePair("graph-uri", namedGraph) });
+			update.append("USING <").append(namedGraph).append(">\n");
 		}
-		post.setRequestEntity(entity);
+		update.append("WHERE ").append(condition);
 
+		PostMethod post = new PostMethod(url + "/" + txId + "/update");
+		post.addParameter("query", update.toString());
+		setUpdateTimeout(post);
 		execute(post);
-		
-		commitTransaction(txId);
+
+		return executeAskQuery(url + "/" + txId + "/query", "ASK " + toGraphPattern(added, namedGraph));
 	}
 
-	@Override
-	public void removeData(RDFInput input, String namedGraph) throws Exception {
-		String txId = startTransaction();
-		
-		RequestEntity entity = createEntity(input);		
-		PostMethod post = new PostMethod(url + "/" + txId + "/remove");
+	/**
+	 * Returns the statements as a SPARQL group pattern, nested in a graph pattern if a named graph is given.
+	 */
+	private static String toGraphPattern(Iterable<Statement> stmts, String namedGraph) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(namedGraph == null ? "{\n" : "{ GRAPH <" + namedGraph + "> {\n");
+		for (Statement stmt : stmts) {
+			sb.append(NTriplesUtil.toNTriplesString(stmt.getSubject())).append(' ');
+			sb.append(NTriplesUtil.toNTriplesString(stmt.getPredicate())).append(' ');
+			sb.append(NTriplesUtil.toNTriplesString(stmt.getObject())).append(" .\n");
+		}
+		sb.append(namedGraph == null ? "}" : "} }");
+		return sb.toString();
+	}
+
+	private static List<Statement> readStatements(RDFInput input) throws Exception {
+		if (input.isStatements()) {
+			return Lists.<Statement> newArrayList(input.getStatements());
+		}
+
+		StatementCollector collector = new StatementCollector();
+		if (input.isSource()) {
+			input.getSource().read(collector);
+		}
+		else {
+			RDFParser parser = Rio.createParser(input.getFormat());
+			parser.setRDFHandler(collector);
+			InputStream in = input.isFile() ? new FileInputStream(input.getFile()) : input.getStream();
+			try {
+				parser.parse(in, "");
+			}
+			finally {
+				in.close();
+			}
+		}
+		return Lists.newArrayList(collector.getStatements());
+	}
+
+	private void sendData(String txId, RDFInput input, String namedGraph, String operation) throws Exception {
+		PostMethod post = new PostMethod(url + "/" + txId + "/" + operation);
 		if (namedGraph != null) {
 			post.setQueryString(new NameValuePair[] { new NameValuePair("graph-uri", namedGraph) });
 		}
-		post.setRequestEntity(entity);
+		setRequestEntity(post, input);
+		setUpdateTimeout(post);
 
 		execute(post);
-		
-		commitTransaction(txId);
 	}
 	
-	private RequestEntity createEntity(RDFInput input) throws IOException {
+	private void setUpdateTimeout(HttpMethodBase method) {
+		if (updateTimeout > 0) {
+			method.getParams().setSoTimeout(updateTimeout);
+		}
+	}
+	
+	private void setRequestEntity(EntityEnclosingMethod method, RDFInput input) throws IOException {
+		if (compressUploads) {
+			method.setRequestHeader("Content-Encoding", "gzip");
+		}
+		method.setRequestEntity(createEntity(input));
+	}
+	
+	private RequestEntity createEntity(final RDFInput input) throws IOException {
 		if (input.isFile()) {
-			File file = input.getFile();
-			return new FileRequestEntity(file, input.getFormat().getDefaultMIMEType());
+			final File file = input.getFile();
+			return new StreamingEntity(input.getFormat(), true) {
+				@Override
+				protected void writeContent(OutputStream out) throws IOException {
+					Files.copy(file, out);
+				}
+			};
 		}
-		else if (input.isStream()) {				
-			return new InputStreamRequestEntity(input.getStream(), input.getFormat().getDefaultMIMEType());				
+		else if (input.isStream()) {
+			return new StreamingEntity(input.getFormat(), false) {
+				@Override
+				protected void writeContent(OutputStream out) throws IOException {
+					ByteStreams.copy(input.getStream(), out);
+				}
+			};
 		}
 		else if (input.isStatements()) {				
-			return createEntity(input.getStatements());				
+			return createEntity(new RDFSource() {
+				@Override
+				public void read(RDFHandler handler) throws IOException {
+					try {
+						handler.startRDF();
+						for (Statement stmt : input.getStatements()) {
+							handler.handleStatement(stmt);
+						}
+						handler.endRDF();
+					}
+					catch (RDFHandlerException e) {
+						throw new IOException(e);
+					}
+				}
+			});
+		}
+		else if (input.isSource()) {
+			return createEntity(input.getSource());
 		}
 		else {
 			throw new AssertionError();
 		}
 	}
 
-	private ByteArrayRequestEntity createEntity(Iterable<? extends Statement> theGraph) throws IOException {
-		try {
-			ByteArrayOutputStream out = new ByteArrayOutputStream();
-			RDFWriter writer = Rio.createWriter(RDFFormat.TURTLE, out);
-			writer.startRDF();
-			for (Statement stmt : theGraph) {
-				writer.handleStatement(stmt);
+	/**
+	 * Creates an entity that serializes the statements of the source directly to the request body.
+	 */
+	private RequestEntity createEntity(final RDFSource source) {
+		final RDFFormat format = uploadFormat;
+		return new StreamingEntity(format, true) {
+			@Override
+			protected void writeContent(OutputStream out) throws IOException {
+				source.read(Rio.createWriter(format, out));
 			}
-			writer.endRDF();
-			return new ByteArrayRequestEntity(out.toByteArray(), RDFFormat.TURTLE.getDefaultMIMEType());
+		};
+	}
+	
+	/**
+	 * Listener notified about the progress of uploads.
+	 */
+	public interface UploadListener {
+		/**
+		 * Called after a chunk of the request body has been sent with the total number of bytes sent for the
+		 * current request so far.
+		 */
+		void uploaded(long bytes);
+	}
+
+	/**
+	 * A request entity whose content is written directly to the connection. The length of the content is not known
+	 * in advance so the request is sent with chunked transfer encoding in chunks of the configured size and the body
+	 * is optionally compressed on the fly.
+	 */
+	private abstract class StreamingEntity implements RequestEntity {
+		private final RDFFormat format;
+		private final boolean repeatable;
+		private final boolean compress = compressUploads;
+		private final int chunkSize = uploadChunkSize;
+		private final UploadListener listener = uploadListener;
+
+		private StreamingEntity(RDFFormat format, boolean repeatable) {
+			this.format = format;
+			this.repeatable = repeatable;
 		}
-		catch (Exception e) {
-			throw new IOException(e);
+
+		protected abstract void writeContent(OutputStream out) throws IOException;
+
+		@Override
+		public boolean isRepeatable() {
+			return repeatable;
+		}
+
+		@Override
+		public void writeRequest(OutputStream out) throws IOException {
+			OutputStream chunked = new BufferedOutputStream(new ProgressOutputStream(out, listener), chunkSize);
+			if (compress) {
+				GZIPOutputStream gzip = new GZIPOutputStream(chunked, chunkSize);
+				writeContent(gzip);
+				gzip.finish();
+			}
+			else {
+				writeContent(chunked);
+			}
+			chunked.flush();
+		}
+
+		@Override
+		public long getContentLength() {
+			return -1;
+		}
+
+		@Override
+		public String getContentType() {
+			return format.getDefaultMIMEType();
+		}
+	}
+
+	private static class ProgressOutputStream extends FilterOutputStream {
+		private final UploadListener listener;
+		private long count;
+
+		private ProgressOutputStream(OutputStream out, UploadListener listener) {
+			super(out);
+			this.listener = listener;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+			if (listener != null) {
+				listener.uploaded(count);
+			}
 		}
 	}
 
@@ -270,7 +712,7 @@ public class StardogEndpoint extends AbstractEndpoint {
 			try {
 				RDFParser parser = getParser(response);
 				parser.setRDFHandler(handler);
-				parser.parse(response.getResponseBodyAsStream(), url);
+				parser.parse(getResponseStream(response), url);
 				complete = true;
 			}
 			catch (HttpException e) {
@@ -313,41 +755,154 @@ public class StardogEndpoint extends AbstractEndpoint {
 		String txId = startTransaction();
 		
 		PostMethod post = new PostMethod(url + "/" + txId + "/clear");
+		setUpdateTimeout(post);
 
 		execute(post);
 		
 		commitTransaction(txId);
 	}
 
+	@Override
+	public void copy(String sourceGraph, String targetGraph) throws Exception {
+		PostMethod post = new PostMethod(url + "/update");
+		post.addParameter("query", "ADD <" + sourceGraph + "> TO <" + targetGraph + ">");
+		setUpdateTimeout(post);
+		execute(post);
+	}
+
 	@Override
 	public void clear(String namedGraph) throws HttpException, IOException, QueryEvaluationException {
 		DeleteMethod delete = new DeleteMethod(url);
+		setUpdateTimeout(delete);
 		delete.setQueryString(new NameValuePair[] { graphParam(namedGraph) });
 		execute(delete);
 	}
 
-	protected HttpMethodBase executeQuery(String query) throws HttpException, IOException, QueryEvaluationException {
-		PostMethod post = new PostMethod(url + "/query");
-		post.addParameter("query", query);
-		post.addRequestHeader("Accept", tupleParser.getTupleQueryResultFormat().getDefaultMIMEType());
+	/**
+	 * Sets whether the compact binary result format will be requested for select queries. The XML format is used if
+	 * this is disabled or the server doesn't support the binary format.
+	 */
+	public void setBinaryResults(boolean binaryResults) {
+		this.binaryResults = binaryResults;
+	}
 
-		execute(post);
+	private HttpMethodBase executeTupleQuery(String query) throws HttpException, IOException, QueryEvaluationException {
+		if (binaryResults) {
+			try {
+				return executeQuery(query, TupleQueryResultFormat.BINARY.getDefaultMIMEType() + ", "
+				                + TupleQueryResultFormat.SPARQL.getDefaultMIMEType() + ";q=0.9");
+			}
+			catch (StatusException e) {
+				if (e.getStatusCode() != HttpStatus.SC_NOT_ACCEPTABLE) {
+					throw e;
+				}
+				binaryResults = false;
+			}
+		}
+		return executeQuery(query, TupleQueryResultFormat.SPARQL.getDefaultMIMEType());
+	}
+
+	/**
+	 * Sends the query to the server retrying a limited number of times if the server cannot be reached or it fails.
+	 * Queries don't modify the store so it is safe to send them again. Only sending the query and receiving the
+	 * response status is retried; once the results are being passed to a handler a failure is final.
+	 */
+	protected HttpMethodBase executeQuery(String query, String accept) throws HttpException, IOException,
+	                QueryEvaluationException {
+		return executeQuery(url + "/query", query, accept);
+	}
+
+	private HttpMethodBase executeQuery(String queryURL, String query, String accept) throws HttpException,
+	                IOException, QueryEvaluationException {
+		for (int attempt = 0;; attempt++) {
+			PostMethod post = new PostMethod(queryURL);
+			post.addParameter("query", query);
+			post.addRequestHeader("Accept", accept);
+			if (queryTimeout > 0) {
+				post.getParams().setSoTimeout(queryTimeout);
+			}
+
+			try {
+				execute(post);
+				return post;
+			}
+			catch (IOException e) {
+				if (attempt >= maxRetries || !isRetryable(e)) {
+					throw e;
+				}
+			}
+
+			backOff(attempt);
+		}
+	}
+
+	private static boolean isRetryable(IOException e) {
+		if (e instanceof StatusException) {
+			return ((StatusException) e).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+		}
+		// connection errors and timeouts
+		return true;
+	}
+
+	private void backOff(int attempt) throws InterruptedIOException {
+		long delay = retryDelay << Math.min(attempt, 10);
+		double jitter;
+		synchronized (random) {
+			jitter = 0.5 + random.nextDouble();
+		}
+		try {
+			Thread.sleep((long) (delay * jitter));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry the query");
+		}
+	}
 
-		return post;
+	/**
+	 * Returns a parser for the format of the query results, falling back to XML if the server didn't specify a
+	 * format we know.
+	 */
+	private TupleQueryResultParser createTupleParser(HttpMethod response) {
+		for (Header header : response.getResponseHeaders("Content-Type")) {
+			for (HeaderElement headerEl : header.getElements()) {
+				if (TupleQueryResultFormat.BINARY.hasMIMEType(headerEl.getName())) {
+					return new BinaryQueryResultParser();
+				}
+			}
+		}
+		return new SPARQLResultsXMLParser();
 	}
 
 	protected void execute(HttpMethodBase post) throws HttpException, IOException, QueryEvaluationException {
 		post.setDoAuthentication(true);
+		if (compressResponses) {
+			post.setRequestHeader("Accept-Encoding", "gzip, deflate");
+		}
+
+		CircuitBreaker breaker = circuitBreaker;
+		if (!breaker.allowRequest()) {
+			throw new QueryEvaluationException("Too many failed requests, not contacting the server " + url
+			                + " for a while");
+		}
 
 		boolean completed = false;
+		boolean available = false;
 		try {
 			int resultCode = client.executeMethod(post);
+			available = resultCode < HttpStatus.SC_INTERNAL_SERVER_ERROR;
 			if (resultCode >= 400) {
-				throw new HttpException("Code: " + resultCode + " " + post.getResponseBodyAsString());
+				throw new StatusException(resultCode, getResponseString(post));
 			}
 			completed = true;
 		}
 		finally {
+			if (available) {
+				breaker.succeeded();
+			}
+			else {
+				breaker.failed();
+			}
 			if (!completed) {
 				post.abort();
 			}
@@ -356,16 +911,15 @@ public class StardogEndpoint extends AbstractEndpoint {
 	
 	@Override
 	public void validate(RDFInput constraints, String namedGraph) throws Exception {
-		RequestEntity entity = createEntity(constraints);		
 		PostMethod post = new PostMethod(url + "/icv/violations");
 		if (namedGraph != null) {
 			post.setQueryString(new NameValuePair[] { new NameValuePair("graph-uri", namedGraph) });
 		}
-		post.setRequestEntity(entity);
+		setRequestEntity(post, constraints);
 
 		execute(post);
 		
-		ByteStreams.copy(post.getResponseBodyAsStream(), System.out);
+		ByteStreams.copy(getResponseStream(post), System.out);
 	}
 
 	@Override
@@ -374,6 +928,46 @@ public class StardogEndpoint extends AbstractEndpoint {
 
 		execute(get);
 
-		return Long.parseLong(get.getResponseBodyAsString());
+		return Long.parseLong(getResponseString(get).trim());
+	}
+
+	/**
+	 * Returns the body of the response decompressing it if the server used a content encoding.
+	 */
+	private static InputStream getResponseStream(HttpMethod response) throws IOException {
+		InputStream in = response.getResponseBodyAsStream();
+		if (in == null) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		Header encoding = response.getResponseHeader("Content-Encoding");
+		if (encoding != null) {
+			String value = encoding.getValue().trim();
+			if (value.equalsIgnoreCase("gzip") || value.equalsIgnoreCase("x-gzip")) {
+				return new GZIPInputStream(in);
+			}
+			else if (value.equalsIgnoreCase("deflate")) {
+				return new InflaterInputStream(in);
+			}
+		}
+		return in;
+	}
+
+	private static String getResponseString(HttpMethodBase response) throws IOException {
+		return new String(ByteStreams.toByteArray(getResponseStream(response)), response.getResponseCharSet());
+	}
+
+	private static class StatusException extends HttpException {
+		private static final long serialVersionUID = 1L;
+
+		private final int statusCode;
+
+		private StatusException(int statusCode, String body) {
+			super("Code: " + statusCode + " " + body);
+			this.statusCode = statusCode;
+		}
+
+		public int getStatusCode() {
+			return statusCode;
+		}
 	}
 }
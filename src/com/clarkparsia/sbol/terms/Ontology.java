@@ -15,10 +15,29 @@
 
 package com.clarkparsia.sbol.terms;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
+import org.openrdf.model.Literal;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
 import org.openrdf.model.Value;
@@ -30,52 +49,235 @@ import org.openrdf.rio.RDFParser;
 import org.openrdf.rio.Rio;
 import org.openrdf.rio.helpers.RDFHandlerBase;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 
+/**
+ * The class hierarchy of an ontology. The hierarchy can be loaded from a binary snapshot stored next to the RDF/XML
+ * source of the ontology with the {@link #SNAPSHOT_EXTENSION} extension. A snapshot records the CRC-32 checksum of the
+ * source it was created from and it is ignored if the source has changed since, in which case the source is parsed.
+ * Snapshots of the bundled ontologies are created by {@link #main(String[])} at build time.
+ */
 public class Ontology {		
+	public static final String SNAPSHOT_EXTENSION = ".snapshot";
+	
+	private static final int SNAPSHOT_MAGIC = 0x534f4e54;
+	private static final int SNAPSHOT_VERSION = 2;
+	
+	/**
+	 * Annotation properties used for the synonyms of a term in the OWL versions of OBO ontologies.
+	 */
+	private static final Set<String> SYNONYM_PROPERTIES = ImmutableSet.of(
+			"http://purl.obolibrary.org/obo/IAO_0000118",
+			"http://www.geneontology.org/formats/oboInOwl#hasExactSynonym");
+	
 	private final Map<String, Term> terms = Maps.newHashMap();
 	private final Term top;
+	private long checksum = -1;
 
 	public Ontology(InputStream in, final String namespace, final String topTerm) {
 		try {
-			RDFHandler aHandler = new RDFHandlerBase() {
-				@Override
-				public void handleStatement(Statement stmt) throws RDFHandlerException {
-					Resource subj = stmt.getSubject();
-					if (!subj.stringValue().startsWith(namespace)) {
-						return;
-					}
-					Resource pred = stmt.getPredicate();
-					Value obj = stmt.getObject();
-					if (pred.equals(RDFS.LABEL)) {
-						createTerm(subj.stringValue()).setLabel(obj.stringValue());
-					}
-					else if (pred.equals(RDFS.SUBCLASSOF) && obj.stringValue().startsWith(namespace)) {
-						Term sub = createTerm(subj.stringValue());
-						Term sup = createTerm(obj.stringValue());
-						sup.addSubClass(sub);
-					}
-				}
-			};
-
-			RDFParser aParser = Rio.createParser(RDFFormat.RDFXML);
-			aParser.setRDFHandler(aHandler);
-			aParser.parse(in, namespace);
+			parse(in, namespace);
 		}
 		catch (Exception e) {
 			e.printStackTrace();
 		}
 		finally {			
 			top = terms.get(topTerm);
+			close(in);
+		}
+	}
+
+	/**
+	 * Loads the ontology from the snapshot of the given source if there is an up-to-date snapshot, parses the source
+	 * otherwise.
+	 */
+	protected Ontology(URL source, String namespace, String topTerm) {
+		boolean loaded = false;
+		try {
+			loaded = readSnapshot(source);
+		}
+		catch (Exception e) {
+			System.err.println("Cannot read the snapshot of " + source + ": " + e.getMessage());
+			terms.clear();
+		}
+		
+		try {
+			if (!loaded) {
+				parse(source.openStream(), namespace);
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+		finally {
+			top = terms.get(topTerm);
+		}
+	}
+
+	private void parse(InputStream in, final String namespace) throws Exception {
+		RDFHandler aHandler = new RDFHandlerBase() {
+			@Override
+			public void handleStatement(Statement stmt) throws RDFHandlerException {
+				Resource subj = stmt.getSubject();
+				if (!subj.stringValue().startsWith(namespace)) {
+					return;
+				}
+				Resource pred = stmt.getPredicate();
+				Value obj = stmt.getObject();
+				if (pred.equals(RDFS.LABEL)) {
+					createTerm(subj.stringValue()).setLabel(obj.stringValue());
+				}
+				else if (SYNONYM_PROPERTIES.contains(pred.stringValue()) && obj instanceof Literal) {
+					createTerm(subj.stringValue()).addSynonym(obj.stringValue());
+				}
+				else if (pred.equals(RDFS.SUBCLASSOF) && obj.stringValue().startsWith(namespace)) {
+					Term sub = createTerm(subj.stringValue());
+					Term sup = createTerm(obj.stringValue());
+					sup.addSubClass(sub);
+				}
+			}
+		};
+
+		CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+		try {
+			RDFParser aParser = Rio.createParser(RDFFormat.RDFXML);
+			aParser.setRDFHandler(aHandler);
+			// the parser closes the stream when it is done and it might stop before the end of the document so it
+			// cannot close the stream and the rest is read to get the checksum of the whole source
+			aParser.parse(new FilterInputStream(checked) {
+				@Override
+				public void close() {
+				}
+			}, namespace);
+			ByteStreams.copy(checked, ByteStreams.nullOutputStream());
+			checksum = checked.getChecksum().getValue();
+		}
+		finally {
+			close(checked);
+		}
+	}
+	
+	private boolean readSnapshot(URL source) throws IOException {
+		InputStream in;
+		try {
+			in = new URL(source, fileName(source) + SNAPSHOT_EXTENSION).openStream();
+		}
+		catch (FileNotFoundException e) {
+			return false;
+		}
+		
+		try {
+			DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+			if (data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION) {
+				return false;
+			}
+			long snapshotChecksum = data.readLong();
+			if (snapshotChecksum != checksum(source)) {
+				return false;
+			}
 			
-			try {
-				if (in != null) {
-					in.close();
+			int size = data.readInt();
+			List<Term> list = Lists.newArrayListWithCapacity(size);
+			for (int i = 0; i < size; i++) {
+				String uri = data.readUTF();
+				String label = data.readBoolean() ? data.readUTF() : null;
+				Term term = new Term(uri, label);
+				for (int j = data.readInt(); j > 0; j--) {
+					term.addSynonym(data.readUTF());
+				}
+				terms.put(uri, term);
+				list.add(term);
+			}
+			for (Term term : list) {
+				for (int i = data.readInt(); i > 0; i--) {
+					term.addSubClass(list.get(data.readInt()));
 				}
 			}
-			catch (IOException e) {
+			
+			checksum = snapshotChecksum;
+			return true;
+		}
+		finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Writes the snapshot of this ontology. The snapshot should be saved next to the source with the
+	 * {@link #SNAPSHOT_EXTENSION} extension.
+	 */
+	public void writeSnapshot(OutputStream out) throws IOException {
+		if (checksum == -1) {
+			throw new IllegalStateException("The ontology was not loaded completely");
+		}
+		
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(SNAPSHOT_MAGIC);
+		data.writeInt(SNAPSHOT_VERSION);
+		data.writeLong(checksum);
+		
+		Map<Term, Integer> indices = Maps.newIdentityHashMap();
+		data.writeInt(terms.size());
+		for (Term term : terms.values()) {
+			indices.put(term, indices.size());
+			data.writeUTF(term.getURI());
+			data.writeBoolean(term.getLabel() != null);
+			if (term.getLabel() != null) {
+				data.writeUTF(term.getLabel());
+			}
+			data.writeInt(term.getSynonyms().size());
+			for (String synonym : term.getSynonyms()) {
+				data.writeUTF(synonym);
+			}
+		}
+		for (Term term : terms.values()) {
+			data.writeInt(term.getSubClasses().size());
+			for (Term sub : term.getSubClasses()) {
+				data.writeInt(indices.get(sub));
+			}
+		}
+		data.flush();
+	}
+	
+	/**
+	 * Returns the CRC-32 checksum of the source. The checksum recorded in the jar file is used for sources read from
+	 * a jar so the source does not need to be read.
+	 */
+	private static long checksum(URL source) throws IOException {
+		URLConnection conn = source.openConnection();
+		if (conn instanceof JarURLConnection) {
+			long crc = ((JarURLConnection) conn).getJarEntry().getCrc();
+			if (crc != -1) {
+				return crc;
+			}
+		}
+		
+		CheckedInputStream in = new CheckedInputStream(conn.getInputStream(), new CRC32());
+		try {
+			ByteStreams.copy(in, ByteStreams.nullOutputStream());
+			return in.getChecksum().getValue();
+		}
+		finally {
+			close(in);
+		}
+	}
+	
+	private static String fileName(URL url) {
+		String path = url.getPath();
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+	
+	private static void close(InputStream in) {
+		try {
+			if (in != null) {
+				in.close();
 			}
 		}
+		catch (IOException e) {
+		}
 	}
 	
 	private Term createTerm(String uri) {
@@ -95,5 +297,32 @@ public class Ontology {
 		return top;
 	}
 	
+	public Collection<Term> getTerms() {
+		return Collections.unmodifiableCollection(terms.values());
+	}
+	
+	/**
+	 * Writes the snapshots of the bundled ontologies to the directory given as the only argument.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: Ontology <output directory>");
+			System.exit(1);
+		}
+		
+		File dir = new File(args[0]);
+		writeSnapshot(SO.getInstance(), new File(dir, SO.SOURCE + SNAPSHOT_EXTENSION));
+		writeSnapshot(SOFA.getInstance(), new File(dir, SOFA.SOURCE + SNAPSHOT_EXTENSION));
+	}
 	
+	private static void writeSnapshot(Ontology ontology, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			ontology.writeSnapshot(out);
+		}
+		finally {
+			out.close();
+		}
+		System.out.println("Wrote " + file + " (" + ontology.terms.size() + " terms)");
+	}
 }
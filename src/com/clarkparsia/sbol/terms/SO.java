@@ -15,18 +15,61 @@
 
 package com.clarkparsia.sbol.terms;
 
+import java.net.URI;
+
 import org.sbolstandard.core2.SequenceOntology;
 
-import com.clarkparsia.sbol.editor.Parts;
+import com.google.common.base.Function;
 
 public class SO extends Ontology {
+	/**
+	 * The namespace of the SO terms in the OWL files. SBOL documents refer to the same terms with URIs in
+	 * {@link SequenceOntology#NAMESPACE}.
+	 */
+	public static final String NAMESPACE = "http://purl.obolibrary.org/obo/SO_";
+	
+	static final String SOURCE = "so.owl";
+	
 	private static final SO INSTANCE = new SO();
 	
 	public static SO getInstance() {
 		return INSTANCE;
 	}
 	
+	/**
+	 * Returns the index of the SO terms where terms are identified by the URIs used in SBOL documents. The index is
+	 * built the first time it is requested.
+	 */
+	public static TermIndex getIndex() {
+		return IndexHolder.INDEX;
+	}
+	
+	/**
+	 * Converts the URI of a term in the ontology to the URI SBOL uses for the term.
+	 */
+	public static URI toSBOLURI(String termURI) {
+		return URI.create(SequenceOntology.NAMESPACE + "SO:" + termURI.substring(NAMESPACE.length()));
+	}
+	
+	/**
+	 * Converts the URI SBOL uses for a term to the URI of the term in the ontology.
+	 */
+	public static String toTermURI(URI uri) {
+		String str = uri.toString();
+		int index = str.lastIndexOf("SO:");
+		return index < 0 ? str : NAMESPACE + str.substring(index + 3);
+	}
+	
+	private static class IndexHolder {
+		private static final TermIndex INDEX = new TermIndex(INSTANCE, new Function<String, URI>() {
+			@Override
+			public URI apply(String termURI) {
+				return toSBOLURI(termURI);
+			}
+		});
+	}
+	
 	private SO() { 
-		super(SO.class.getResourceAsStream("so.owl"), SequenceOntology.NAMESPACE.toString() + "SO_", Parts.GENERIC.getRole().toString());
+		super(SO.class.getResource(SOURCE), NAMESPACE, toTermURI(SequenceOntology.SEQUENCE_FEATURE));
 	}
 }
@@ -15,11 +15,9 @@
 
 package com.clarkparsia.sbol.terms;
 
-import org.sbolstandard.core2.SequenceOntology;
-
-import com.clarkparsia.sbol.editor.Parts;
-
 public class SOFA extends Ontology {
+	static final String SOURCE = "sofa.owl";
+	
 	private static final SOFA INSTANCE = new SOFA();
 	
 	public static SOFA getInstance() {
@@ -27,6 +25,7 @@ public class SOFA extends Ontology {
 	}
 	
 	private SOFA() { 
-		super(SOFA.class.getResourceAsStream("sofa.owl"), SequenceOntology.NAMESPACE.toString() + "SO_", Parts.GENERIC.getRole().toString());
+		// the top term is sequence_feature, written out so loading SOFA does not load SO
+		super(SOFA.class.getResource(SOURCE), SO.NAMESPACE, SO.NAMESPACE + "0000110");
 	}
 }
@@ -23,6 +23,7 @@ public class Term {
 	String label;
 	String uri;
 	final List<Term> subclasses = Lists.newArrayList();
+	final List<String> synonyms = Lists.newArrayList();
 
 	public Term() {			
 	}
@@ -55,6 +56,14 @@ public class Term {
 	public List<Term> getSubClasses() {
 		return subclasses;
 	}
+
+	public void addSynonym(String synonym) {
+		synonyms.add(synonym);
+	}
+
+	public List<String> getSynonyms() {
+		return synonyms;
+	}
 	
 	public String toString() {
 		return label == null ? uri : label;
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.terms;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeMultimap;
+
+/**
+ * Lookup tables over the terms of an {@link Ontology} that are built once so the names, URIs and descendants of terms
+ * can be found without traversing the ontology. Terms are identified by the URIs used in SBOL documents, which are
+ * mapped from the URIs in the ontology by the function given to the constructor, and the name of a term is its label.
+ * If several terms have the same label the name refers to a term in the class hierarchy, which excludes obsolete
+ * terms, and the one with the smallest URI is picked among those.
+ * <p>
+ * The sorted names of the descendants of a term are computed the first time they are requested and are reused
+ * afterwards. Labels and synonyms, along with the words in them, are kept in a sorted index for prefix search.
+ */
+public class TermIndex {
+	private static final Splitter WORDS = Splitter.on(CharMatcher.anyOf(" _-")).omitEmptyStrings();
+
+	private final Map<URI, Term> terms = Maps.newHashMap();
+	private final Map<Term, URI> uris = Maps.newIdentityHashMap();
+	private final Map<String, URI> names = Maps.newHashMap();
+	private final TreeMultimap<String, String> prefixIndex = TreeMultimap.create();
+
+	private final LoadingCache<URI, Descendants> descendants = CacheBuilder.newBuilder().build(
+	                new CacheLoader<URI, Descendants>() {
+		                @Override
+		                public Descendants load(URI uri) {
+			                return computeDescendants(uri);
+		                }
+	                });
+
+	public TermIndex(Ontology ontology, Function<String, URI> uriMapper) {
+		Set<Term> parented = Sets.newIdentityHashSet();
+		if (ontology.getTopTerm() != null) {
+			parented.add(ontology.getTopTerm());
+		}
+		for (Term term : ontology.getTerms()) {
+			parented.addAll(term.getSubClasses());
+		}
+
+		Map<String, Term> named = Maps.newHashMap();
+		for (Term term : ontology.getTerms()) {
+			URI uri = uriMapper.apply(term.getURI());
+			terms.put(uri, term);
+			uris.put(term, uri);
+
+			String name = term.getLabel();
+			if (name == null) {
+				continue;
+			}
+			Term current = named.get(name);
+			if (current == null || isPreferred(term, current, parented)) {
+				named.put(name, term);
+			}
+			index(name, name);
+			for (String synonym : term.getSynonyms()) {
+				index(synonym, name);
+			}
+		}
+		for (Map.Entry<String, Term> entry : named.entrySet()) {
+			names.put(entry.getKey(), uris.get(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Returns true if the name shared by the terms should refer to the first term rather than the second one.
+	 */
+	private static boolean isPreferred(Term term, Term other, Set<Term> parented) {
+		boolean hasParent = parented.contains(term);
+		if (hasParent != parented.contains(other)) {
+			return hasParent;
+		}
+		return term.getURI().compareTo(other.getURI()) < 0;
+	}
+
+	private void index(String text, String name) {
+		String key = text.toLowerCase(Locale.ENGLISH);
+		prefixIndex.put(key, name);
+		for (String word : WORDS.split(key)) {
+			prefixIndex.put(word, name);
+		}
+	}
+
+	/**
+	 * Returns the URI of the term with the given name, null if there is no such term.
+	 */
+	public URI getURI(String name) {
+		return names.get(name);
+	}
+
+	/**
+	 * Returns the name of the term with the given URI, null if there is no such term or the term has no label.
+	 */
+	public String getName(URI uri) {
+		Term term = terms.get(uri);
+		return term == null ? null : term.getLabel();
+	}
+
+	public boolean contains(URI uri) {
+		return terms.containsKey(uri);
+	}
+
+	/**
+	 * Returns true if the first term is a (direct or indirect) subclass of the second term. A term is not a
+	 * descendant of itself.
+	 */
+	public boolean isDescendantOf(URI uri, URI ancestor) {
+		return ancestor != null && terms.containsKey(ancestor) && descendants.getUnchecked(ancestor).uris.contains(uri);
+	}
+
+	/**
+	 * Returns the sorted names of all the descendants of the term, empty if the term is not in the ontology.
+	 */
+	public List<String> getDescendantNames(URI uri) {
+		return uri == null || !terms.containsKey(uri) ? ImmutableList.<String> of()
+		                : descendants.getUnchecked(uri).names;
+	}
+
+	/**
+	 * Returns the sorted names of the terms whose label, one of its synonyms or a word in them starts with the given
+	 * prefix ignoring case.
+	 */
+	public Set<String> search(String prefix) {
+		String key = prefix.toLowerCase(Locale.ENGLISH);
+		if (key.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Collection<Collection<String>> matches = prefixIndex.asMap()
+		                .subMap(key, true, key + Character.MAX_VALUE, false).values();
+		Set<String> result = Sets.newTreeSet();
+		for (Collection<String> match : matches) {
+			result.addAll(match);
+		}
+		return result;
+	}
+
+	private Descendants computeDescendants(URI uri) {
+		Set<Term> visited = Sets.newIdentityHashSet();
+		Deque<Term> pending = new ArrayDeque<Term>(terms.get(uri).getSubClasses());
+		while (!pending.isEmpty()) {
+			Term term = pending.pop();
+			if (visited.add(term)) {
+				pending.addAll(term.getSubClasses());
+			}
+		}
+
+		ImmutableSet.Builder<URI> descendantURIs = ImmutableSet.builder();
+		Set<String> descendantNames = Sets.newHashSet();
+		for (Term term : visited) {
+			descendantURIs.add(uris.get(term));
+			if (term.getLabel() != null) {
+				descendantNames.add(term.getLabel());
+			}
+		}
+		return new Descendants(descendantURIs.build(), ImmutableSortedSet.copyOf(Ordering.natural(), descendantNames)
+		                .asList());
+	}
+
+	private static class Descendants {
+		private final Set<URI> uris;
+		private final List<String> names;
+
+		private Descendants(Set<URI> uris, List<String> names) {
+			this.uris = uris;
+			this.names = names;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.query.TupleQueryResultHandler;
+
+import com.clarkparsia.sbol.editor.sparql.AsyncEndpoint;
+import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
+import com.clarkparsia.sbol.editor.sparql.RDFInput;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class AsyncEndpointTests {
+	private static final String SELECT = "SELECT ?label { ?s <" + RDFS.LABEL + "> ?label }";
+
+	private AsyncEndpoint endpoint;
+
+	@After
+	public void after() {
+		endpoint.shutdown();
+	}
+
+	@Test
+	public void concurrentQueries() throws Exception {
+		final int queries = 3;
+		final CountDownLatch started = new CountDownLatch(queries);
+		LocalEndpoint local = new LocalEndpoint() {
+			@Override
+			public void executeSelectQuery(String query, TupleQueryResultHandler handler)
+			                throws QueryEvaluationException {
+				// none of the queries can finish before all of them have started
+				started.countDown();
+				try {
+					if (!started.await(5, TimeUnit.SECONDS)) {
+						throw new QueryEvaluationException("The queries were not run concurrently");
+					}
+				}
+				catch (InterruptedException e) {
+					throw new QueryEvaluationException(e);
+				}
+				super.executeSelectQuery(query, handler);
+			}
+		};
+		local.addData(RDFInput.forStatements(new StatementImpl(new URIImpl("urn:a"), RDFS.LABEL, new LiteralImpl(
+		                "a"))));
+		endpoint = new AsyncEndpoint(local, queries);
+
+		List<ListenableFuture<TupleQueryResult>> results = Lists.newArrayList();
+		for (int i = 0; i < queries; i++) {
+			results.add(endpoint.executeSelectQuery(SELECT));
+		}
+		for (ListenableFuture<TupleQueryResult> result : results) {
+			assertEquals("a", result.get().next().getValue("label").stringValue());
+		}
+	}
+
+	@Test
+	public void concurrentTasks() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		endpoint = new AsyncEndpoint(new LocalEndpoint(), 2);
+
+		List<ListenableFuture<Boolean>> tasks = Lists.newArrayList();
+		for (int i = 0; i < 2; i++) {
+			tasks.add(endpoint.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					// neither task can finish before both have started
+					started.countDown();
+					return started.await(5, TimeUnit.SECONDS);
+				}
+			}));
+		}
+		assertEquals(Lists.newArrayList(true, true), Futures.allAsList(tasks).get());
+	}
+
+	@Test
+	public void errorsReachFuture() throws Exception {
+		final QueryEvaluationException error = new QueryEvaluationException("Invalid query");
+		endpoint = new AsyncEndpoint(new LocalEndpoint() {
+			@Override
+			public boolean executeAskQuery(String query) throws QueryEvaluationException {
+				throw error;
+			}
+		});
+
+		ListenableFuture<Boolean> result = endpoint.executeAskQuery("ASK {}");
+		try {
+			result.get();
+			fail();
+		}
+		catch (ExecutionException e) {
+			assertSame(error, e.getCause());
+		}
+
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Futures.addCallback(result, new FutureCallback<Boolean>() {
+			@Override
+			public void onSuccess(Boolean value) {
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				failure.set(t);
+			}
+		}, MoreExecutors.sameThreadExecutor());
+		assertSame(error, failure.get());
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.query.TupleQueryResultHandler;
+import org.openrdf.query.TupleQueryResultHandlerException;
+import org.openrdf.query.impl.TupleQueryResultBuilder;
+
+import com.clarkparsia.sbol.editor.sparql.CachingEndpoint;
+import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
+import com.clarkparsia.sbol.editor.sparql.RDFInput;
+
+public class CachingEndpointTests {
+	private static final String SELECT = "SELECT ?label { ?s <" + RDFS.LABEL + "> ?label }";
+	private static final String ASK = "ASK { ?s <" + RDFS.LABEL + "> ?label }";
+
+	private CountingEndpoint counter;
+	private CachingEndpoint endpoint;
+
+	@Before
+	public void before() {
+		counter = new CountingEndpoint();
+		endpoint = new CachingEndpoint(counter);
+	}
+
+	private int select(String query) throws QueryEvaluationException, TupleQueryResultHandlerException {
+		TupleQueryResultBuilder builder = new TupleQueryResultBuilder();
+		endpoint.executeSelectQuery(query, builder);
+		int count = 0;
+		for (TupleQueryResult result = builder.getQueryResult(); result.hasNext(); result.next()) {
+			count++;
+		}
+		return count;
+	}
+
+	private void addLabel(String subj, String label) throws Exception {
+		endpoint.addData(RDFInput.forStatements(new StatementImpl(new URIImpl(subj), RDFS.LABEL, new LiteralImpl(label))));
+	}
+
+	@Test
+	public void repeatedQueries() throws Exception {
+		addLabel("urn:a", "a");
+
+		assertEquals(1, select(SELECT));
+		assertEquals(1, select(SELECT));
+		assertEquals(1, select("  SELECT ?label\n{ ?s <" + RDFS.LABEL + ">   ?label }"));
+		assertTrue(endpoint.executeAskQuery(ASK));
+		assertTrue(endpoint.executeAskQuery(ASK));
+
+		assertEquals(1, counter.selectQueries);
+		assertEquals(1, counter.askQueries);
+		assertEquals(3, endpoint.getHitCount());
+		assertEquals(2, endpoint.getMissCount());
+	}
+
+	@Test
+	public void invalidation() throws Exception {
+		assertFalse(endpoint.executeAskQuery(ASK));
+		assertEquals(0, select(SELECT));
+
+		addLabel("urn:a", "a");
+		assertTrue(endpoint.executeAskQuery(ASK));
+		assertEquals(1, select(SELECT));
+
+		endpoint.removeData(RDFInput.forStatements(new StatementImpl(new URIImpl("urn:a"), RDFS.LABEL,
+		                new LiteralImpl("a"))));
+		assertEquals(0, select(SELECT));
+
+		addLabel("urn:b", "b");
+		endpoint.clear();
+		assertEquals(0, select(SELECT));
+
+		assertEquals(4, counter.selectQueries);
+		assertEquals(2, counter.askQueries);
+	}
+
+	@Test
+	public void literalWhitespace() throws Exception {
+		addLabel("urn:a", "a  b");
+
+		assertEquals(1, select("SELECT * { ?s ?p \"a  b\" }"));
+		assertEquals(0, select("SELECT * { ?s ?p \"a b\" }"));
+		assertEquals(2, counter.selectQueries);
+	}
+
+	@Test
+	public void clearAllGraphs() throws Exception {
+		addLabel("urn:a", "a");
+		assertEquals(1, select(SELECT));
+
+		endpoint.clear();
+		assertEquals(1, counter.clearAll);
+		assertEquals(0, select(SELECT));
+	}
+
+	@Test
+	public void largeResults() throws Exception {
+		endpoint = new CachingEndpoint(counter, 100, 2);
+		addLabel("urn:a", "a");
+		addLabel("urn:b", "b");
+
+		assertEquals(2, select(SELECT));
+		assertEquals(2, select(SELECT));
+		assertEquals(1, counter.selectQueries);
+
+		addLabel("urn:c", "c");
+		assertEquals(3, select(SELECT));
+		assertEquals(3, select(SELECT));
+		assertEquals(3, counter.selectQueries);
+	}
+
+	private static class CountingEndpoint extends LocalEndpoint {
+		private int selectQueries;
+		private int askQueries;
+		private int clearAll;
+
+		@Override
+		public void clear() throws Exception {
+			clearAll++;
+			super.clear();
+		}
+
+		@Override
+		public void executeSelectQuery(String query, TupleQueryResultHandler handler) throws QueryEvaluationException {
+			selectQueries++;
+			super.executeSelectQuery(query, handler);
+		}
+
+		@Override
+		public boolean executeAskQuery(String query) throws QueryEvaluationException {
+			askQueries++;
+			return super.executeAskQuery(query);
+		}
+	}
+}
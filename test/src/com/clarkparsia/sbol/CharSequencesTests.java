@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class CharSequencesTests {
+	private static void assertChars(String expected, CharSequence actual) {
+		assertEquals(expected.length(), actual.length());
+		for (int i = 0; i < expected.length(); i++) {
+			assertEquals("at " + i, expected.charAt(i), actual.charAt(i));
+		}
+		assertEquals(expected, actual.toString());
+	}
+
+	@Test
+	public void repeat() {
+		assertChars("NNNN", CharSequences.repeat('N', 4));
+		assertChars("NN", CharSequences.repeat('N', 4).subSequence(1, 3));
+		assertChars("", CharSequences.repeat('N', 0));
+		try {
+			CharSequences.repeat('N', 4).charAt(4);
+			fail();
+		}
+		catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void slice() {
+		String seq = "aaacccgggttt";
+		assertSame(seq, CharSequences.slice(seq, 0, seq.length()));
+		CharSequence slice = CharSequences.slice(seq, 3, 9);
+		assertChars("cccggg", slice);
+		assertChars("ccg", slice.subSequence(1, 4));
+		assertChars("cg", CharSequences.slice(slice, 2, 4));
+		assertChars("", CharSequences.slice(seq, 5, 5));
+		try {
+			CharSequences.slice(seq, 6, 13);
+			fail();
+		}
+		catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void concat() {
+		assertChars("", CharSequences.concat(Collections.<CharSequence> emptyList()));
+		assertChars("acg", CharSequences.concat(Arrays.asList("acg")));
+
+		List<CharSequence> pieces = Lists.newArrayList();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 37; i++) {
+			CharSequence piece = i % 3 == 0 ? CharSequences.repeat('N', i % 5) : "ac" + i;
+			pieces.add(piece);
+			expected.append(piece);
+		}
+		CharSequence rope = CharSequences.concat(pieces);
+		assertChars(expected.toString(), rope);
+		assertChars(expected.substring(5, 60), rope.subSequence(5, 60));
+
+		// ropes nest
+		CharSequence nested = CharSequences.concat(Arrays.asList(rope, CharSequences.slice(rope, 0, 3), rope));
+		assertChars(expected + expected.substring(0, 3) + expected, nested);
+	}
+
+	@Test
+	public void reverseComplement() {
+		assertChars("aacgTTNR", CharSequences.reverseComplement("YNAAcgtt"));
+		assertChars("aacgUUNR", CharSequences.reverseComplementRNA("YNAAcgtt"));
+		assertChars("aacgUUNR", CharSequences.reverseComplementRNA("YNAAcguu"));
+		assertChars("", CharSequences.reverseComplement(""));
+
+		CharSequence reversed = CharSequences.reverseComplement("aaacccgggt");
+		assertChars("acccgggttt", reversed);
+		assertChars("cccg", reversed.subSequence(1, 5));
+		assertChars("cccg", CharSequences.slice(reversed, 1, 5));
+		assertChars("aaacccgggt", CharSequences.reverseComplement(reversed));
+		assertChars("aaacccgggt", CharSequences.reverseComplement(CharSequences.concat(Arrays.<CharSequence> asList(
+		                "ac", CharSequences.slice(reversed, 2, 10)))));
+	}
+}
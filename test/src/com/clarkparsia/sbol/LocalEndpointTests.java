@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.RDFHandlerWrapper;
+import org.openrdf.rio.helpers.StatementCollector;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLWriter;
+
+import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
+import com.clarkparsia.sbol.editor.sparql.RDFInput;
+import com.clarkparsia.sbol.editor.sparql.RDFSource;
+import com.google.common.collect.Sets;
+
+public class LocalEndpointTests {
+	private static final String GRAPH = "urn:graph";
+
+	private File file;
+	private LocalEndpoint endpoint;
+
+	@Before
+	public void before() throws Exception {
+		SBOLDocument doc = new SBOLDocument();
+		doc.setDefaultURIprefix("http://example.org");
+		ComponentDefinition sub = doc.createComponentDefinition("sub", "1", ComponentDefinition.DNA);
+		for (int i = 0; i < 20; i++) {
+			ComponentDefinition part = doc.createComponentDefinition("part" + i, "1", ComponentDefinition.DNA);
+			part.createComponent("sub_c", AccessType.PUBLIC, sub.getIdentity());
+		}
+
+		file = File.createTempFile("document", ".rdf");
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			SBOLWriter.write(doc, out);
+		}
+		finally {
+			out.close();
+		}
+
+		endpoint = new LocalEndpoint();
+	}
+
+	@After
+	public void after() {
+		endpoint.close();
+		file.delete();
+	}
+
+	/**
+	 * Parses the document file into the handler each time the source is read.
+	 */
+	private class DocumentSource implements RDFSource {
+		@Override
+		public void read(RDFHandler handler) throws IOException {
+			RDFParser parser = Rio.createParser(RDFFormat.RDFXML);
+			parser.setRDFHandler(handler);
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				parser.parse(in, "");
+			}
+			catch (Exception e) {
+				throw new IOException(e);
+			}
+			finally {
+				in.close();
+			}
+		}
+	}
+
+	private Set<Statement> getDocumentStatements() throws IOException {
+		StatementCollector collector = new StatementCollector();
+		new DocumentSource().read(collector);
+		return Sets.newHashSet(collector.getStatements());
+	}
+
+	private Set<Statement> getGraphStatements() throws Exception {
+		StatementCollector collector = new StatementCollector();
+		endpoint.export(collector, GRAPH);
+		return Sets.newHashSet(collector.getStatements());
+	}
+
+	@Test
+	public void streamDocument() throws Exception {
+		Set<Statement> expected = getDocumentStatements();
+		assertTrue(expected.size() > 40);
+
+		endpoint.addData(RDFInput.forSource(new DocumentSource()), GRAPH);
+		assertEquals(expected, getGraphStatements());
+		assertEquals(expected.size(), endpoint.size());
+
+		endpoint.removeData(RDFInput.forSource(new DocumentSource()), GRAPH);
+		assertEquals(0, endpoint.size());
+	}
+
+	@Test
+	public void failedStreamIsRolledBack() throws Exception {
+		// the source fails half way through the document
+		final int limit = getDocumentStatements().size() / 2;
+		RDFSource failing = new RDFSource() {
+			@Override
+			public void read(RDFHandler handler) throws IOException {
+				new DocumentSource().read(new RDFHandlerWrapper(handler) {
+					private int count;
+
+					@Override
+					public void handleStatement(Statement st) throws RDFHandlerException {
+						if (++count > limit) {
+							throw new RDFHandlerException("Source failed");
+						}
+						super.handleStatement(st);
+					}
+				});
+			}
+		};
+
+		try {
+			endpoint.addData(RDFInput.forSource(failing), GRAPH);
+			fail();
+		}
+		catch (IOException e) {
+			// expected
+		}
+		// none of the statements passed on before the failure were kept
+		assertEquals(0, endpoint.size());
+
+		endpoint.addData(RDFInput.forSource(new DocumentSource()), GRAPH);
+		try {
+			endpoint.removeData(RDFInput.forSource(failing), GRAPH);
+			fail();
+		}
+		catch (IOException e) {
+			// expected
+		}
+		assertEquals(getDocumentStatements(), getGraphStatements());
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.clarkparsia.sbol.terms.Ontology;
+import com.clarkparsia.sbol.terms.SO;
+import com.clarkparsia.sbol.terms.SOFA;
+import com.clarkparsia.sbol.terms.Term;
+import com.clarkparsia.sbol.terms.TermIndex;
+import com.google.common.base.Function;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+
+public class OntologyTests {
+	private static final String NS = "http://example.org/onto#";
+	private static final String SO_TOP = SO.NAMESPACE + "0000110";
+
+	private File source;
+	private File snapshot;
+
+	@Before
+	public void before() throws IOException {
+		File dir = Files.createTempDir();
+		source = new File(dir, "test.owl");
+		snapshot = new File(dir, "test.owl" + Ontology.SNAPSHOT_EXTENSION);
+	}
+
+	private void writeSource(String... subClasses) throws IOException {
+		StringBuilder rdf = new StringBuilder();
+		rdf.append("<rdf:RDF xmlns:rdf='http://www.w3.org/1999/02/22-rdf-syntax-ns#'");
+		rdf.append(" xmlns:rdfs='http://www.w3.org/2000/01/rdf-schema#'>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "top'><rdfs:label>top</rdfs:label></rdf:Description>\n");
+		for (String sub : subClasses) {
+			rdf.append("<rdf:Description rdf:about='" + NS + sub + "'>");
+			rdf.append("<rdfs:label>" + sub + "</rdfs:label>");
+			rdf.append("<rdfs:subClassOf rdf:resource='" + NS + "top'/>");
+			rdf.append("</rdf:Description>\n");
+		}
+		rdf.append("</rdf:RDF>\n");
+		Files.write(rdf.toString(), source, Charsets.UTF_8);
+	}
+
+	private Ontology load() throws IOException {
+		return new Ontology(source.toURI().toURL(), NS, NS + "top") {};
+	}
+
+	private List<String> subClasses(Ontology ontology) {
+		List<String> labels = Lists.newArrayList();
+		for (Term term : ontology.getTopTerm().getSubClasses()) {
+			labels.add(term.getLabel());
+		}
+		return labels;
+	}
+
+	private void writeSnapshot(Ontology ontology) throws IOException {
+		OutputStream out = new FileOutputStream(snapshot);
+		try {
+			ontology.writeSnapshot(out);
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	@Test
+	public void snapshot() throws IOException {
+		writeSource("a", "b", "c");
+		writeSnapshot(load());
+
+		Ontology ontology = load();
+		assertEquals(Lists.newArrayList("a", "b", "c"), subClasses(ontology));
+		assertEquals("b", ontology.getTerm(NS + "b").getLabel());
+		assertNull(ontology.getTerm(NS + "d"));
+	}
+
+	@Test
+	public void staleSnapshot() throws IOException {
+		writeSource("a", "b");
+		writeSnapshot(load());
+
+		writeSource("a", "b", "d");
+		assertEquals(Lists.newArrayList("a", "b", "d"), subClasses(load()));
+	}
+
+	@Test
+	public void corruptSnapshot() throws IOException {
+		writeSource("a", "b");
+		writeSnapshot(load());
+		byte[] bytes = Files.toByteArray(snapshot);
+		Files.write(Arrays.copyOf(bytes, bytes.length - 3), snapshot);
+
+		assertEquals(Lists.newArrayList("a", "b"), subClasses(load()));
+	}
+
+	@Test
+	public void bundledOntology() throws IOException {
+		Term top = SO.getInstance().getTopTerm();
+		assertEquals(SO_TOP, top.getURI());
+		assertFalse(top.getSubClasses().isEmpty());
+		assertEquals(SO_TOP, SOFA.getInstance().getTopTerm().getURI());
+		assertFalse(SOFA.getInstance().getTopTerm().getSubClasses().isEmpty());
+
+		Resources.asByteSource(Resources.getResource(Ontology.class, "so.owl")).copyTo(Files.asByteSink(source));
+		Ontology parsed = new Ontology(Files.asByteSource(source).openStream(), SO.NAMESPACE, SO_TOP);
+		writeSnapshot(parsed);
+
+		Ontology loaded = new Ontology(source.toURI().toURL(), SO.NAMESPACE, SO_TOP) {};
+		assertEquals(SO_TOP, loaded.getTopTerm().getURI());
+		assertEquals(count(top), count(parsed.getTopTerm()));
+		assertEquals(count(parsed.getTopTerm()), count(loaded.getTopTerm()));
+	}
+
+	@Test
+	public void termIndex() throws IOException {
+		StringBuilder rdf = new StringBuilder();
+		rdf.append("<rdf:RDF xmlns:rdf='http://www.w3.org/1999/02/22-rdf-syntax-ns#'");
+		rdf.append(" xmlns:rdfs='http://www.w3.org/2000/01/rdf-schema#'");
+		rdf.append(" xmlns:obo='http://purl.obolibrary.org/obo/'>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "top'><rdfs:label>top</rdfs:label></rdf:Description>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "b'><rdfs:label>promoter</rdfs:label>");
+		rdf.append("<rdfs:subClassOf rdf:resource='" + NS + "top'/></rdf:Description>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "a'><rdfs:label>core_promoter</rdfs:label>");
+		rdf.append("<obo:IAO_0000118>minimal promoter</obo:IAO_0000118>");
+		rdf.append("<rdfs:subClassOf rdf:resource='" + NS + "b'/></rdf:Description>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "c'><rdfs:label>terminator</rdfs:label>");
+		rdf.append("<rdfs:subClassOf rdf:resource='" + NS + "top'/></rdf:Description>\n");
+		// duplicate labels: an obsolete term without a parent and a term with a larger URI
+		rdf.append("<rdf:Description rdf:about='" + NS + "bb'><rdfs:label>terminator</rdfs:label></rdf:Description>\n");
+		rdf.append("<rdf:Description rdf:about='" + NS + "d'><rdfs:label>promoter</rdfs:label>");
+		rdf.append("<rdfs:subClassOf rdf:resource='" + NS + "top'/></rdf:Description>\n");
+		rdf.append("</rdf:RDF>\n");
+		Files.write(rdf.toString(), source, Charsets.UTF_8);
+		writeSnapshot(load());
+
+		TermIndex index = new TermIndex(load(), new Function<String, URI>() {
+			@Override
+			public URI apply(String uri) {
+				return URI.create("urn:" + uri.substring(NS.length()));
+			}
+		});
+		URI top = URI.create("urn:top");
+		assertEquals(URI.create("urn:a"), index.getURI("core_promoter"));
+		assertEquals(URI.create("urn:b"), index.getURI("promoter"));
+		assertEquals(URI.create("urn:c"), index.getURI("terminator"));
+		assertEquals("terminator", index.getName(URI.create("urn:c")));
+		assertEquals(Lists.newArrayList("core_promoter", "promoter", "terminator"), index.getDescendantNames(top));
+		assertTrue(index.isDescendantOf(URI.create("urn:a"), top));
+		assertFalse(index.isDescendantOf(top, top));
+		assertEquals(ImmutableSet.of("core_promoter", "promoter"), index.search("Prom"));
+		assertEquals(ImmutableSet.of("core_promoter"), index.search("minimal"));
+	}
+
+	private int count(Term term) {
+		int count = 1;
+		for (Term sub : term.getSubClasses()) {
+			count += count(sub);
+		}
+		return count;
+	}
+}
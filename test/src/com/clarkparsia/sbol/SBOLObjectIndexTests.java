@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.SequenceOntology;
+
+import com.clarkparsia.sbol.editor.Part;
+import com.google.common.base.Predicate;
+
+public class SBOLObjectIndexTests {
+	private SBOLDocument doc;
+	private ComponentDefinition promoter, terminator;
+	private SequenceAnnotation ann;
+	private Sequence seq;
+
+	@Before
+	public void before() throws SBOLValidationException {
+		doc = new SBOLDocument();
+		doc.setDefaultURIprefix("http://example.org");
+		promoter = doc.createComponentDefinition("promoter", ComponentDefinition.DNA);
+		promoter.addRole(SequenceOntology.PROMOTER);
+		terminator = doc.createComponentDefinition("terminator", ComponentDefinition.DNA);
+		terminator.addRole(SequenceOntology.TERMINATOR);
+		ann = promoter.createSequenceAnnotation("ann", "range", 1, 10);
+		seq = doc.createSequence("seq", "aaaccc", Sequence.IUPAC_DNA);
+	}
+
+	@Test
+	public void lookups() {
+		SBOLObjectIndex index = SBOLObjectIndex.create(doc);
+
+		assertEquals(4, index.getObjects().size());
+		assertSame(ann, index.getByURI(ann.getIdentity()));
+		assertSame(seq, index.findOne(SBOLPredicates.<Sequence> uri(seq.getIdentity()), Sequence.class));
+		assertSame(terminator, index.findOne(SBOLPredicates.displayId("terminator"), ComponentDefinition.class));
+		assertEquals(Arrays.asList(promoter), index.find(SBOLPredicates.role(SequenceOntology.PROMOTER),
+		                ComponentDefinition.class));
+		assertEquals(Arrays.asList(promoter, terminator), index.find(
+		                SBOLPredicates.type(ComponentDefinition.DNA), ComponentDefinition.class));
+
+		// predicates that aren't indexed are tested against all the objects
+		assertEquals(Arrays.asList(ann), index.find(new Predicate<SequenceAnnotation>() {
+			@Override
+			public boolean apply(SequenceAnnotation input) {
+				return input.getDisplayId().equals("ann");
+			}
+		}, SequenceAnnotation.class));
+	}
+
+	@Test
+	public void addAndRemove() throws SBOLValidationException {
+		SBOLObjectIndex index = SBOLObjectIndex.create(doc);
+
+		ComponentDefinition cds = doc.createComponentDefinition("cds", ComponentDefinition.DNA);
+		cds.addRole(SequenceOntology.CDS);
+		index.add(cds);
+		assertSame(cds, index.findOne(SBOLPredicates.role(SequenceOntology.CDS), ComponentDefinition.class));
+
+		index.remove(terminator);
+		assertNull(index.getByURI(terminator.getIdentity()));
+		assertEquals(0, index.getByRole(SequenceOntology.TERMINATOR).size());
+		assertEquals(4, index.getObjects().size());
+		assertEquals(Arrays.asList(promoter, cds), index.find(SBOLPredicates.type(ComponentDefinition.DNA),
+		                ComponentDefinition.class));
+
+		// removing twice is harmless
+		index.remove(terminator);
+		assertEquals(4, index.getObjects().size());
+	}
+
+	@Test
+	public void finder() {
+		assertSame(seq, SBOLObjectFinder.findObject(doc, SBOLPredicates.<Sequence> uri(seq.getIdentity()),
+		                Sequence.class));
+		assertEquals(Arrays.asList(promoter), SBOLObjectFinder.findObjects(doc,
+		                SBOLPredicates.role(SequenceOntology.PROMOTER), ComponentDefinition.class));
+
+		// uri predicates can be used with any object type
+		Predicate<Object> uri = SBOLPredicates.uri(promoter.getIdentity());
+		assertTrue(uri.apply(promoter));
+		assertFalse(uri.apply(terminator));
+		assertFalse(uri.apply(promoter.getIdentity()));
+	}
+
+	@Test
+	public void cdOfRole() {
+		SBOLObjectIndex index = SBOLObjectIndex.create(doc);
+
+		for (Part part : Arrays.asList(null, new Part(SequenceOntology.PROMOTER, "Promoter", "prom"), new Part(
+		                SequenceOntology.SEQUENCE_FEATURE, "Feature", "feat"), new Part(SequenceOntology.CDS, "CDS",
+		                "cds"))) {
+			assertEquals(new HashSet<ComponentDefinition>(SBOLUtils.getCDOfRole(doc, part)),
+			                new HashSet<ComponentDefinition>(SBOLUtils.getCDOfRole(index, part)));
+		}
+		assertEquals(2, SBOLUtils.getCDOfRole(index, new Part(SequenceOntology.SEQUENCE_FEATURE, "Feature", "feat"))
+		                .size());
+		assertEquals(Arrays.asList(promoter), SBOLUtils.getCDOfRole(index, new Part(SequenceOntology.PROMOTER,
+		                "Promoter", "prom")));
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OrientationType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+public class SequenceAnnotationIndexTests {
+	private SBOLDocument doc;
+	private ComponentDefinition comp;
+
+	@Before
+	public void before() throws SBOLValidationException {
+		doc = new SBOLDocument();
+		doc.setDefaultURIprefix("http://example.org");
+		comp = doc.createComponentDefinition("comp", ComponentDefinition.DNA);
+	}
+
+	private SequenceAnnotation annotate(String displayId, int start, int end) throws SBOLValidationException {
+		return comp.createSequenceAnnotation(displayId, "range", start, end);
+	}
+
+	@Test
+	public void positionQueries() throws SBOLValidationException {
+		SequenceAnnotation c = annotate("c", 30, 40);
+		SequenceAnnotation a = annotate("a", 1, 10);
+		SequenceAnnotation b = annotate("b", 5, 20);
+
+		SequenceAnnotationIndex index = SequenceAnnotationIndex.of(comp);
+		assertEquals(Arrays.asList(a, b, c), index.getSortedAnnotations());
+		assertSame(a, index.getAnnotationAt(3));
+		assertSame(b, index.getAnnotationAt(7));
+		assertSame(b, index.getAnnotationAt(15));
+		assertNull(index.getAnnotationAt(25));
+		assertSame(c, index.getAnnotationAt(40));
+		assertEquals(Arrays.asList(b, c), index.getOverlapping(15, 30));
+		assertEquals(ImmutableList.of(), index.getOverlapping(21, 29));
+	}
+
+	@Test
+	public void uncoveredSpans() throws SBOLValidationException {
+		annotate("a", 3, 10);
+		annotate("b", 5, 12);
+		annotate("c", 20, 25);
+
+		SequenceAnnotationIndex index = SequenceAnnotationIndex.of(comp);
+		assertEquals("[1..2, 13..19, 26..30]", index.getUncoveredSpans(30).toString());
+		assertEquals("[1..2, 13..19]", index.getUncoveredSpans(25).toString());
+	}
+
+	@Test
+	public void uncoveredElements() throws SBOLValidationException {
+		comp.addSequence(doc.createSequence("seq", "aaacccgggttt", Sequence.IUPAC_DNA));
+		ComponentDefinition part = doc.createComponentDefinition("part", ComponentDefinition.DNA);
+		Component component = comp.createComponent("part_c", AccessType.PUBLIC, part.getIdentity());
+		SequenceAnnotation withoutSequence = annotate("a", 4, 6);
+		withoutSequence.setComponent(component.getIdentity());
+		SequenceAnnotation last = annotate("b", 10, 12);
+
+		Map<Integer, String> expected = Maps.newLinkedHashMap();
+		expected.put(-1, "aaa");
+		expected.put(0, "ccc");
+		expected.put(-2, "ggg");
+		Map<Integer, String> actual = Maps.newLinkedHashMap();
+		for (Map.Entry<Integer, CharSequence> entry : SBOLUtils.findUncoveredElements(comp,
+		                Arrays.asList(withoutSequence, last)).entrySet()) {
+			actual.put(entry.getKey(), entry.getValue().toString());
+		}
+		assertEquals(ImmutableList.copyOf(expected.entrySet()), ImmutableList.copyOf(actual.entrySet()));
+	}
+
+	private ComponentDefinition createPart(String displayId, String nucleotides) throws SBOLValidationException {
+		ComponentDefinition part = doc.createComponentDefinition(displayId, ComponentDefinition.DNA);
+		if (nucleotides != null) {
+			part.addSequence(doc.createSequence(displayId + "_seq", nucleotides, Sequence.IUPAC_DNA));
+		}
+		return part;
+	}
+
+	private SequenceAnnotation annotate(ComponentDefinition parent, String displayId, ComponentDefinition part,
+	                int start, int end, OrientationType orientation) throws SBOLValidationException {
+		SequenceAnnotation sa = parent.createSequenceAnnotation(displayId, "range", start, end, orientation);
+		Component component = parent.createComponent(displayId + "_c", AccessType.PUBLIC, part.getIdentity());
+		sa.setComponent(component.getIdentity());
+		return sa;
+	}
+
+	@Test
+	public void impliedSequence() throws SBOLValidationException {
+		ComponentDefinition a = createPart("a", "aaaa");
+		ComponentDefinition b = createPart("b", "ccg");
+		ComponentDefinition nested = createPart("nested", null);
+		annotate(nested, "nested_a", a, 2, 5, OrientationType.INLINE);
+		annotate(comp, "sa_a", a, 3, 6, OrientationType.INLINE);
+		annotate(comp, "sa_b", b, 8, 10, OrientationType.REVERSECOMPLEMENT);
+		annotate(comp, "sa_nested", nested, 12, 16, OrientationType.INLINE);
+		annotate("end", 18, 18);
+
+		assertEquals("NNaaaaNcggNNaaaaNN", SBOLUtils.getImpliedNucleicAcidSequence(comp).toString());
+		assertEquals(comp.getImpliedNucleicAcidSequence(), SBOLUtils.getImpliedNucleicAcidSequence(comp).toString());
+		assertNull(SBOLUtils.getImpliedNucleicAcidSequence(doc.createComponentDefinition("protein",
+		                ComponentDefinition.PROTEIN)));
+	}
+
+	@Test
+	public void impliedSequenceOverlap() throws SBOLValidationException {
+		annotate(comp, "sa_a", createPart("a", "aaaaaa"), 1, 6, OrientationType.INLINE);
+		annotate(comp, "sa_c", createPart("c", "cccc"), 3, 6, OrientationType.INLINE);
+		annotate(comp, "sa_g", createPart("g", "gg"), 2, 3, OrientationType.INLINE);
+		annotate(comp, "sa_t", createPart("t", "tttttt"), 5, 10, OrientationType.INLINE);
+
+		// later annotations overwrite earlier ones like they do in libSBOLj
+		CharSequence implied = SBOLUtils.getImpliedNucleicAcidSequence(comp);
+		assertEquals(comp.getImpliedNucleicAcidSequence(), implied.toString());
+		assertEquals(10, implied.length());
+	}
+
+	@Test
+	public void impliedSequencePastEnd() throws SBOLValidationException {
+		// the part is longer than its range so it runs past the end of comp
+		annotate(comp, "sa_a", createPart("a", "acgtac"), 3, 4, OrientationType.INLINE);
+		annotate(comp, "sa_c", createPart("c", "cc"), 1, 2, OrientationType.INLINE);
+
+		assertEquals("ccac", SBOLUtils.getImpliedNucleicAcidSequence(comp).toString());
+	}
+}
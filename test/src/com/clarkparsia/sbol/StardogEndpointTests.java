@@ -0,0 +1,671 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.query.TupleQueryResultHandler;
+import org.openrdf.query.TupleQueryResultHandlerException;
+import org.openrdf.query.impl.MapBindingSet;
+import org.openrdf.query.impl.TupleQueryResultBuilder;
+import org.openrdf.query.resultio.BooleanQueryResultFormat;
+import org.openrdf.query.resultio.TupleQueryResultFormat;
+import org.openrdf.query.resultio.binary.BinaryQueryResultWriter;
+import org.openrdf.query.resultio.sparqlxml.SPARQLBooleanXMLWriter;
+import org.openrdf.query.resultio.sparqlxml.SPARQLResultsXMLWriter;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.StatementCollector;
+
+import com.clarkparsia.sbol.editor.sparql.RDFInput;
+import com.clarkparsia.sbol.editor.sparql.RDFSource;
+import com.clarkparsia.sbol.editor.sparql.StardogEndpoint;
+import com.clarkparsia.sbol.editor.sparql.StardogEndpoint.UploadListener;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the Stardog endpoint against a local HTTP server that records the requests it receives and answers them the
+ * way each test needs.
+ */
+public class StardogEndpointTests {
+	private static final String DB = "/sbol";
+	private static final String TX = "tx1";
+	private static final String SELECT = "SELECT ?label { ?s <" + RDFS.LABEL + "> ?label }";
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private final List<Request> requests = Collections.synchronizedList(Lists.<Request> newArrayList());
+	private volatile Responder responder = new Responder();
+	private StardogEndpoint endpoint;
+
+	@Before
+	public void before() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					Request request = new Request(exchange);
+					requests.add(request);
+					responder.respond(request, exchange);
+				}
+				finally {
+					exchange.close();
+				}
+			}
+		});
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.start();
+
+		endpoint = new StardogEndpoint("http://localhost:" + server.getAddress().getPort() + DB);
+	}
+
+	@After
+	public void after() {
+		endpoint.close();
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private List<String> getPaths() {
+		List<String> paths = Lists.newArrayList();
+		synchronized (requests) {
+			for (Request request : requests) {
+				paths.add(request.path);
+			}
+		}
+		return paths;
+	}
+
+	private Request getRequest(String path) {
+		synchronized (requests) {
+			for (Request request : requests) {
+				if (request.path.equals(path)) {
+					return request;
+				}
+			}
+		}
+		throw new AssertionError("No request for " + path + " in " + getPaths());
+	}
+
+	private static List<Statement> createLabels(int count) {
+		List<Statement> statements = Lists.newArrayList();
+		for (int i = 0; i < count; i++) {
+			statements.add(new StatementImpl(new URIImpl("urn:s" + i), RDFS.LABEL, new LiteralImpl("label " + i)));
+		}
+		return statements;
+	}
+
+	/**
+	 * Returns the select query results binding the label variable to each of the given labels in the given format.
+	 */
+	private static byte[] createResults(TupleQueryResultFormat format, String... labels) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TupleQueryResultHandler writer = format == TupleQueryResultFormat.BINARY ? new BinaryQueryResultWriter(out)
+		                : new SPARQLResultsXMLWriter(out);
+		try {
+			writer.startQueryResult(Arrays.asList("label"));
+			for (String label : labels) {
+				MapBindingSet bindings = new MapBindingSet();
+				bindings.addBinding("label", new LiteralImpl(label));
+				writer.handleSolution(bindings);
+			}
+			writer.endQueryResult();
+		}
+		catch (TupleQueryResultHandlerException e) {
+			throw new IOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private void assertSelectFails() throws Exception {
+		try {
+			selectLabels();
+			fail();
+		}
+		catch (QueryEvaluationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns a responder that accepts every update and answers ask queries with the given result.
+	 */
+	private static Responder answerAsk(final boolean result) {
+		return new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.path.endsWith("/query")) {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					new SPARQLBooleanXMLWriter(out).write(result);
+					send(exchange, 200, BooleanQueryResultFormat.SPARQL.getDefaultMIMEType(), out.toByteArray());
+				}
+				else {
+					super.respond(request, exchange);
+				}
+			}
+		};
+	}
+
+	private static String getQueryParameter(Request request) throws IOException {
+		String body = new String(request.body, Charsets.UTF_8);
+		assertTrue(body, body.startsWith("query="));
+		return URLDecoder.decode(body.substring("query=".length()), "UTF-8");
+	}
+
+	private List<String> selectLabels() throws Exception {
+		TupleQueryResultBuilder builder = new TupleQueryResultBuilder();
+		endpoint.executeSelectQuery(SELECT, builder);
+		List<String> labels = Lists.newArrayList();
+		for (TupleQueryResult result = builder.getQueryResult(); result.hasNext();) {
+			labels.add(result.next().getValue("label").stringValue());
+		}
+		return labels;
+	}
+
+	@Test
+	public void chunkedCompressedUpload() throws Exception {
+		final List<Long> progress = Collections.synchronizedList(Lists.<Long> newArrayList());
+		endpoint.setCompressUploads(true);
+		endpoint.setUploadChunkSize(256);
+		endpoint.setUploadListener(new UploadListener() {
+			@Override
+			public void uploaded(long bytes) {
+				progress.add(bytes);
+			}
+		});
+
+		List<Statement> statements = createLabels(500);
+		endpoint.addData(RDFInput.forStatements(statements), "urn:graph");
+
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/add", DB + "/transaction/commit/"
+		                + TX), getPaths());
+
+		Request upload = getRequest(DB + "/" + TX + "/add");
+		assertEquals("chunked", upload.headers.getFirst("Transfer-Encoding"));
+		assertEquals("gzip", upload.headers.getFirst("Content-Encoding"));
+		assertEquals("graph-uri=urn%3Agraph", upload.query);
+
+		StatementCollector collector = new StatementCollector();
+		RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
+		parser.setRDFHandler(collector);
+		parser.parse(new GZIPInputStream(new ByteArrayInputStream(upload.body)), "");
+		assertEquals(Sets.newHashSet(statements), Sets.newHashSet(collector.getStatements()));
+
+		// the compressed body is much larger than a single chunk
+		assertTrue(progress.size() > 1);
+	}
+
+	@Test
+	public void sourceUpload() throws Exception {
+		final List<Statement> statements = createLabels(500);
+		final List<Integer> reads = Collections.synchronizedList(Lists.<Integer> newArrayList());
+		RDFSource source = new RDFSource() {
+			@Override
+			public void read(RDFHandler handler) throws IOException {
+				reads.add(reads.size());
+				try {
+					handler.startRDF();
+					for (Statement stmt : statements) {
+						handler.handleStatement(stmt);
+					}
+					handler.endRDF();
+				}
+				catch (RDFHandlerException e) {
+					throw new IOException(e);
+				}
+			}
+		};
+		endpoint.setUploadChunkSize(256);
+		endpoint.addData(RDFInput.forSource(source), "urn:graph");
+
+		// the statements are written to the request body as the source produces them
+		assertEquals(1, reads.size());
+		Request upload = getRequest(DB + "/" + TX + "/add");
+		assertEquals("chunked", upload.headers.getFirst("Transfer-Encoding"));
+
+		StatementCollector collector = new StatementCollector();
+		RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
+		parser.setRDFHandler(collector);
+		parser.parse(new ByteArrayInputStream(upload.body), "");
+		assertEquals(Sets.newHashSet(statements), Sets.newHashSet(collector.getStatements()));
+	}
+
+	@Test
+	public void compressedResponses() throws Exception {
+		for (final String encoding : Arrays.asList("gzip", "deflate")) {
+			responder = new Responder() {
+				@Override
+				void respond(Request request, HttpExchange exchange) throws IOException {
+					ByteArrayOutputStream body = new ByteArrayOutputStream();
+					OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(body) : new DeflaterOutputStream(
+					                body);
+					out.write(createResults(TupleQueryResultFormat.SPARQL, "a", "b"));
+					out.close();
+					exchange.getResponseHeaders().set("Content-Encoding", encoding);
+					send(exchange, 200, TupleQueryResultFormat.SPARQL.getDefaultMIMEType(), body.toByteArray());
+				}
+			};
+
+			assertEquals(encoding, Arrays.asList("a", "b"), selectLabels());
+		}
+		assertEquals("gzip, deflate", getRequest(DB + "/query").headers.getFirst("Accept-Encoding"));
+
+		requests.clear();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 200, TupleQueryResultFormat.SPARQL.getDefaultMIMEType(), createResults(
+				                TupleQueryResultFormat.SPARQL, "c"));
+			}
+		};
+		endpoint.setCompressResponses(false);
+		assertEquals(Arrays.asList("c"), selectLabels());
+		assertNull(getRequest(DB + "/query").headers.getFirst("Accept-Encoding"));
+	}
+
+	@Test
+	public void binaryResults() throws Exception {
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 200, TupleQueryResultFormat.BINARY.getDefaultMIMEType(), createResults(
+				                TupleQueryResultFormat.BINARY, "a", "b"));
+			}
+		};
+
+		assertEquals(Arrays.asList("a", "b"), selectLabels());
+		assertTrue(getRequest(DB + "/query").headers.getFirst("Accept").startsWith(
+		                TupleQueryResultFormat.BINARY.getDefaultMIMEType()));
+	}
+
+	@Test
+	public void binaryResultsNotAcceptable() throws Exception {
+		final String binary = TupleQueryResultFormat.BINARY.getDefaultMIMEType();
+		final String xml = TupleQueryResultFormat.SPARQL.getDefaultMIMEType();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.headers.getFirst("Accept").contains(binary)) {
+					send(exchange, 406, "text/plain", new byte[0]);
+				}
+				else {
+					send(exchange, 200, xml, createResults(TupleQueryResultFormat.SPARQL, "a"));
+				}
+			}
+		};
+
+		assertEquals(Arrays.asList("a"), selectLabels());
+		assertEquals(Arrays.asList(DB + "/query", DB + "/query"), getPaths());
+		assertEquals(xml, requests.get(1).headers.getFirst("Accept"));
+
+		// binary results aren't requested again
+		requests.clear();
+		assertEquals(Arrays.asList("a"), selectLabels());
+		assertEquals(1, requests.size());
+		assertEquals(xml, requests.get(0).headers.getFirst("Accept"));
+	}
+
+	@Test
+	public void retryServerErrors() throws Exception {
+		final String xml = TupleQueryResultFormat.SPARQL.getDefaultMIMEType();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (requests.size() <= 2) {
+					send(exchange, 503, "text/plain", new byte[0]);
+				}
+				else {
+					send(exchange, 200, xml, createResults(TupleQueryResultFormat.SPARQL, "a"));
+				}
+			}
+		};
+		endpoint.setBinaryResults(false);
+		endpoint.setRetries(2, 100);
+
+		long start = System.currentTimeMillis();
+		assertEquals(Arrays.asList("a"), selectLabels());
+		long elapsed = System.currentTimeMillis() - start;
+		assertEquals(Arrays.asList(DB + "/query", DB + "/query", DB + "/query"), getPaths());
+		// the delays are 100 and 200 ms, each randomized by at most 50%
+		assertTrue("Retried after " + elapsed + " ms", elapsed >= 150);
+
+		// a server error on the last attempt is reported
+		requests.clear();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 500, "text/plain", new byte[0]);
+			}
+		};
+		endpoint.setRetries(1, 0);
+		assertSelectFails();
+		assertEquals(2, requests.size());
+
+		// client errors are not retried
+		requests.clear();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 400, "text/plain", new byte[0]);
+			}
+		};
+		assertSelectFails();
+		assertEquals(1, requests.size());
+	}
+
+	@Test
+	public void updatesNotRetried() throws Exception {
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.path.endsWith("/add")) {
+					send(exchange, 503, "text/plain", new byte[0]);
+				}
+				else {
+					super.respond(request, exchange);
+				}
+			}
+		};
+		endpoint.setRetries(2, 0);
+
+		try {
+			endpoint.addData(RDFInput.forStatements(createLabels(1)), null);
+			fail();
+		}
+		catch (Exception e) {
+			// expected
+		}
+
+		// the failed upload is sent once and the transaction is rolled back
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/add", DB + "/transaction/rollback/"
+		                + TX), getPaths());
+	}
+
+	@Test
+	public void socketTimeout() throws Exception {
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.path.endsWith("/size") || request.path.endsWith("/transaction/begin")) {
+					try {
+						Thread.sleep(5000);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				super.respond(request, exchange);
+			}
+		};
+		endpoint.setSocketTimeout(200);
+
+		// requests without a more specific timeout don't wait forever for the server
+		long start = System.currentTimeMillis();
+		try {
+			endpoint.size();
+			fail();
+		}
+		catch (IOException e) {
+			// expected
+		}
+		assertTrue(System.currentTimeMillis() - start < 4000);
+
+		start = System.currentTimeMillis();
+		try {
+			endpoint.addData(RDFInput.forStatements(createLabels(1)), null);
+			fail();
+		}
+		catch (Exception e) {
+			// expected
+		}
+		assertTrue(System.currentTimeMillis() - start < 4000);
+		assertEquals(Arrays.asList(DB + "/size", DB + "/transaction/begin"), getPaths());
+	}
+
+	@Test
+	public void circuitBreaker() throws Exception {
+		final String xml = TupleQueryResultFormat.SPARQL.getDefaultMIMEType();
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 503, "text/plain", new byte[0]);
+			}
+		};
+		endpoint.setBinaryResults(false);
+		endpoint.setRetries(0, 0);
+		endpoint.setCircuitBreaker(2, 300);
+
+		assertSelectFails();
+		assertSelectFails();
+		assertEquals(2, requests.size());
+
+		// the breaker is open so the server is not contacted
+		assertSelectFails();
+		assertEquals(2, requests.size());
+
+		// after the cool down a single trial request is sent and its failure opens the breaker again
+		Thread.sleep(400);
+		assertSelectFails();
+		assertEquals(3, requests.size());
+		assertSelectFails();
+		assertEquals(3, requests.size());
+
+		// a successful trial closes the breaker
+		Thread.sleep(400);
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				send(exchange, 200, xml, createResults(TupleQueryResultFormat.SPARQL, "a"));
+			}
+		};
+		assertEquals(Arrays.asList("a"), selectLabels());
+		assertEquals(Arrays.asList("a"), selectLabels());
+		assertEquals(5, requests.size());
+	}
+
+	@Test
+	public void timeouts() throws Exception {
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.path.endsWith("/query") || request.path.endsWith("/add")) {
+					try {
+						Thread.sleep(5000);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				super.respond(request, exchange);
+			}
+		};
+		endpoint.setQueryTimeout(200);
+		endpoint.setUpdateTimeout(200);
+		endpoint.setRetries(1, 0);
+
+		// a query that times out is retried
+		long start = System.currentTimeMillis();
+		assertSelectFails();
+		assertEquals(Arrays.asList(DB + "/query", DB + "/query"), getPaths());
+		assertTrue(System.currentTimeMillis() - start < 4000);
+
+		// an update that times out is rolled back
+		requests.clear();
+		start = System.currentTimeMillis();
+		try {
+			endpoint.addData(RDFInput.forStatements(createLabels(1)), null);
+			fail();
+		}
+		catch (Exception e) {
+			// expected
+		}
+		assertTrue(System.currentTimeMillis() - start < 4000);
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/add", DB + "/transaction/rollback/"
+		                + TX), getPaths());
+	}
+
+	@Test
+	public void conditionalUpdate() throws Exception {
+		RDFInput oldHead = RDFInput.forStatements(new StatementImpl(new URIImpl("urn:branch"), new URIImpl("urn:head"),
+		                new URIImpl("urn:rev1")));
+		RDFInput newHead = RDFInput.forStatements(new StatementImpl(new URIImpl("urn:branch"), new URIImpl("urn:head"),
+		                new URIImpl("urn:rev2")));
+		String condition = "{ <urn:branch> <urn:head> <urn:rev1> }";
+
+		responder = answerAsk(true);
+		assertTrue(endpoint.updateData(oldHead, newHead, "urn:graph", condition));
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/update", DB + "/" + TX + "/query", DB
+		                + "/transaction/commit/" + TX), getPaths());
+
+		// the condition is checked by the update itself and the additions are looked up in the same transaction
+		assertEquals("DELETE { GRAPH <urn:graph> {\n<urn:branch> <urn:head> <urn:rev1> .\n} }\n"
+		                + "INSERT { GRAPH <urn:graph> {\n<urn:branch> <urn:head> <urn:rev2> .\n} }\n"
+		                + "USING <urn:graph>\nWHERE " + condition, getQueryParameter(getRequest(DB + "/" + TX
+		                + "/update")));
+		assertEquals("ASK { GRAPH <urn:graph> {\n<urn:branch> <urn:head> <urn:rev2> .\n} }", getQueryParameter(
+		                getRequest(DB + "/" + TX + "/query")));
+
+		// the additions are missing if the condition didn't match
+		requests.clear();
+		responder = answerAsk(false);
+		assertFalse(endpoint.updateData(oldHead, newHead, "urn:graph", condition));
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/update", DB + "/" + TX + "/query", DB
+		                + "/transaction/rollback/" + TX), getPaths());
+	}
+
+	@Test
+	public void conflictingConditionalUpdate() throws Exception {
+		RDFInput newHead = RDFInput.forStatements(new StatementImpl(new URIImpl("urn:branch"), new URIImpl("urn:head"),
+		                new URIImpl("urn:rev2")));
+		final Responder answerTrue = answerAsk(true);
+		responder = new Responder() {
+			@Override
+			void respond(Request request, HttpExchange exchange) throws IOException {
+				if (request.path.contains("/transaction/commit/")) {
+					// a concurrent transaction changed what the condition matched
+					send(exchange, 409, "text/plain", "Conflict".getBytes(Charsets.UTF_8));
+				}
+				else {
+					answerTrue.respond(request, exchange);
+				}
+			}
+		};
+
+		// the aborted transaction is reported as a condition that didn't match and is not rolled back
+		assertFalse(endpoint.updateData(null, newHead, "urn:graph", "{ }"));
+		assertEquals(Arrays.asList(DB + "/transaction/begin", DB + "/" + TX + "/update", DB + "/" + TX + "/query", DB
+		                + "/transaction/commit/" + TX), getPaths());
+
+		// other updates still fail
+		requests.clear();
+		try {
+			endpoint.addData(newHead, "urn:graph");
+			fail();
+		}
+		catch (Exception e) {
+			// expected
+		}
+	}
+
+	private static class Request {
+		private final String method;
+		private final String path;
+		private final String query;
+		private final Headers headers;
+		private final byte[] body;
+
+		private Request(HttpExchange exchange) throws IOException {
+			method = exchange.getRequestMethod();
+			path = exchange.getRequestURI().getPath();
+			query = exchange.getRequestURI().getRawQuery();
+			headers = new Headers();
+			headers.putAll(exchange.getRequestHeaders());
+			body = ByteStreams.toByteArray(exchange.getRequestBody());
+		}
+
+		@Override
+		public String toString() {
+			return method + " " + path;
+		}
+	}
+
+	/**
+	 * Answers requests like a Stardog server that accepts every update. Tests override {@link #respond} to answer
+	 * queries or to simulate failures.
+	 */
+	private static class Responder {
+		void respond(Request request, HttpExchange exchange) throws IOException {
+			if (request.path.endsWith("/transaction/begin")) {
+				send(exchange, 200, "text/plain", TX.getBytes(Charsets.UTF_8));
+			}
+			else {
+				send(exchange, 200, "text/plain", new byte[0]);
+			}
+		}
+
+		static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			// the server may close a kept-alive connection while the client is reusing it so every request gets a
+			// new connection to keep the number of requests the tests see exact
+			exchange.getResponseHeaders().set("Connection", "close");
+			exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(body);
+			out.close();
+		}
+	}
+}
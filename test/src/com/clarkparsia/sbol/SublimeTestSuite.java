@@ -19,9 +19,12 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.clarkparsia.sbol.editor.SBOLDesignTests;
+import com.clarkparsia.sbol.editor.io.RVTDocumentIOTests;
 import com.clarkparsia.sbol.geneious.GeneiousTestSuite;
 
 @RunWith(Suite.class)
-@SuiteClasses({SBOLSPARQLReaderTests.class, SBOLSPARQLWriterTests.class, SBOLTests.class, GeneiousTestSuite.class})
+@SuiteClasses({SBOLSPARQLReaderTests.class, SBOLSPARQLWriterTests.class, SBOLTests.class, CachingEndpointTests.class, AsyncEndpointTests.class, StardogEndpointTests.class, LocalEndpointTests.class, OntologyTests.class,
+		CharSequencesTests.class, SequenceAnnotationIndexTests.class, SBOLObjectIndexTests.class, SBOLDesignTests.class, RVTDocumentIOTests.class, GeneiousTestSuite.class})
 public class SublimeTestSuite {
 }
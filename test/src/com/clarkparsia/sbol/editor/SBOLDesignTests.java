@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SequenceConstraint;
+import org.sbolstandard.core2.SequenceOntology;
+
+import com.adamtaft.eb.EventBus;
+import com.clarkparsia.sbol.editor.SBOLDesign.BatchEdit;
+import com.clarkparsia.sbol.editor.event.DesignChangedEvent;
+import com.clarkparsia.sbol.editor.event.FocusInEvent;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class SBOLDesignTests {
+	private SBOLDocument doc;
+	private RecordingEventBus eventBus;
+	private SBOLDesign design;
+	private ComponentDefinition promoter, rbs, cds, terminator;
+
+	@Before
+	public void before() throws SBOLValidationException {
+		doc = new SBOLDocument();
+		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
+		ComponentDefinition root = doc.createComponentDefinition("root", "1", ComponentDefinition.DNA);
+		root.addRole(SequenceOntology.ENGINEERED_REGION);
+
+		eventBus = new RecordingEventBus();
+		design = new SBOLDesign(eventBus);
+		design.load(doc, Collections.<String> emptyList());
+
+		promoter = createCD("promoter", SequenceOntology.PROMOTER);
+		rbs = createCD("rbs", SequenceOntology.RIBOSOME_ENTRY_SITE);
+		cds = createCD("cds", SequenceOntology.CDS);
+		terminator = createCD("terminator", SequenceOntology.TERMINATOR);
+		design.addCDs(Arrays.asList(promoter, rbs, cds, terminator));
+	}
+
+	private ComponentDefinition createCD(String displayId, URI role) throws SBOLValidationException {
+		ComponentDefinition comp = doc.createComponentDefinition(displayId, "1", ComponentDefinition.DNA);
+		comp.addRole(role);
+		return comp;
+	}
+
+	/**
+	 * Returns the CDs on the canvas in the order given by the precedes
+	 * constraints the design creates for its elements.
+	 */
+	private List<ComponentDefinition> getCanvasOrder() {
+		Map<URI, URI> next = Maps.newHashMap();
+		for (SequenceConstraint constraint : design.getCanvasCD().getSequenceConstraints()) {
+			next.put(constraint.getSubjectURI(), constraint.getObjectURI());
+		}
+		URI first = null;
+		for (URI subject : next.keySet()) {
+			if (!next.containsValue(subject)) {
+				first = subject;
+			}
+		}
+		List<ComponentDefinition> order = Lists.newArrayList();
+		for (URI uri = first; uri != null; uri = next.get(uri)) {
+			order.add(design.getCanvasCD().getComponent(uri).getDefinition());
+		}
+		return order;
+	}
+
+	private int countDesignChanges() {
+		int count = 0;
+		for (Object event : eventBus.events) {
+			if (event instanceof DesignChangedEvent) {
+				count++;
+			}
+		}
+		eventBus.events.clear();
+		return count;
+	}
+
+	@Test
+	public void deleteCDs() throws SBOLValidationException {
+		design.deleteCDs(Arrays.asList(terminator, rbs));
+
+		assertEquals(Arrays.asList(promoter, cds), getCanvasOrder());
+		assertNull(design.getPart(rbs));
+		assertNull(design.getPart(terminator));
+		assertSame(Parts.CDS, design.getPart(cds));
+	}
+
+	@Test
+	public void deleteDuplicateCD() throws SBOLValidationException {
+		design.addCD(promoter);
+		assertEquals(Arrays.asList(promoter, rbs, cds, terminator, promoter), getCanvasOrder());
+
+		// the CD stays in the document while another element still uses it
+		design.deleteCD(promoter);
+		assertEquals(Arrays.asList(rbs, cds, terminator, promoter), getCanvasOrder());
+		assertSame(promoter, doc.getComponentDefinition(promoter.getIdentity()));
+		assertSame(Parts.PROMOTER, design.getPart(promoter));
+
+		design.deleteCD(promoter);
+		assertEquals(Arrays.asList(rbs, cds, terminator), getCanvasOrder());
+		assertNull(doc.getComponentDefinition(promoter.getIdentity()));
+	}
+
+	@Test
+	public void moveAndReverse() throws SBOLValidationException {
+		design.moveElement(0, 3);
+		assertEquals(Arrays.asList(rbs, cds, terminator, promoter), getCanvasOrder());
+
+		design.reverseRegion(1, 4);
+		assertEquals(Arrays.asList(rbs, promoter, terminator, cds), getCanvasOrder());
+
+		design.deleteCD(promoter);
+		assertEquals(Arrays.asList(rbs, terminator, cds), getCanvasOrder());
+		assertSame(Parts.TERMINATOR, design.getPart(terminator));
+	}
+
+	@Test
+	public void bulkEditsFireOnce() throws SBOLValidationException {
+		countDesignChanges();
+
+		design.addScars();
+		assertEquals(7, getCanvasOrder().size());
+		assertEquals(1, countDesignChanges());
+
+		design.removeScars();
+		assertEquals(Arrays.asList(promoter, rbs, cds, terminator), getCanvasOrder());
+		assertEquals(1, countDesignChanges());
+
+		design.reverseRegion(0, 4);
+		assertEquals(Arrays.asList(terminator, cds, rbs, promoter), getCanvasOrder());
+		assertEquals(1, countDesignChanges());
+	}
+
+	@Test
+	public void nestedBatches() throws SBOLValidationException {
+		final ComponentDefinition first = createCD("first", SequenceOntology.PROMOTER);
+		final ComponentDefinition second = createCD("second", SequenceOntology.CDS);
+		countDesignChanges();
+
+		design.batch(new BatchEdit() {
+			@Override
+			public void apply() throws SBOLValidationException {
+				design.addCD(first);
+				design.batch(new BatchEdit() {
+					@Override
+					public void apply() throws SBOLValidationException {
+						design.addCD(second);
+						design.deleteCD(rbs);
+					}
+				});
+				assertEquals(0, countDesignChanges());
+			}
+		});
+
+		assertEquals(1, countDesignChanges());
+		assertEquals(Arrays.asList(promoter, cds, terminator, first, second), getCanvasOrder());
+	}
+
+	@Test
+	public void failedBatch() throws SBOLValidationException {
+		final ComponentDefinition first = createCD("first", SequenceOntology.PROMOTER);
+		final IllegalStateException failure = new IllegalStateException();
+		countDesignChanges();
+
+		try {
+			design.batch(new BatchEdit() {
+				@Override
+				public void apply() throws SBOLValidationException {
+					design.addCD(first);
+					throw failure;
+				}
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+		}
+
+		// the part added before the failure is shown and later edits are not
+		// held back by the failed batch
+		assertEquals(1, countDesignChanges());
+		assertEquals(Arrays.asList(promoter, rbs, cds, terminator, first), getCanvasOrder());
+		design.deleteCD(first);
+		assertEquals(1, countDesignChanges());
+	}
+
+	@Test
+	public void snapshotCachedAcrossSelections() throws SBOLValidationException {
+		BufferedImage first = focusInAndOut(promoter);
+		// neither the selection nor the element focused in changes the design
+		assertSame(first, focusInAndOut(rbs));
+		assertSame(first, focusInAndOut(rbs));
+
+		design.deleteCD(terminator);
+		assertNotSame(first, focusInAndOut(rbs));
+	}
+
+	/**
+	 * Focuses in the component and back out again and returns the snapshot of
+	 * the parent design that was passed along with the focus event.
+	 */
+	private BufferedImage focusInAndOut(ComponentDefinition comp) throws SBOLValidationException {
+		eventBus.events.clear();
+		design.setSelectedCD(comp);
+		design.getPanel().setSize(800, 200);
+		layout(design.getPanel());
+		design.focusIn();
+		design.focusOut();
+		for (Object event : eventBus.events) {
+			if (event instanceof FocusInEvent) {
+				return ((FocusInEvent) event).getSnapshot();
+			}
+		}
+		throw new AssertionError("No focus in event");
+	}
+
+	/**
+	 * Lays out the components the way showing them would, which doesn't
+	 * happen on its own without a window.
+	 */
+	private static void layout(Container container) {
+		container.doLayout();
+		for (Component child : container.getComponents()) {
+			if (child instanceof Container) {
+				layout((Container) child);
+			}
+		}
+	}
+
+	/**
+	 * Delivers events synchronously and keeps them so tests can count them.
+	 */
+	static class RecordingEventBus implements EventBus {
+		final List<Object> events = Lists.newArrayList();
+
+		@Override
+		public void subscribe(Object subscriber) {
+		}
+
+		@Override
+		public void unsubscribe(Object subscriber) {
+		}
+
+		@Override
+		public void publish(Object event) {
+			events.add(event);
+		}
+
+		@Override
+		public boolean hasPendingEvents() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.sbol.editor.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+
+import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
+import com.clarkparsia.versioning.Branch;
+import com.clarkparsia.versioning.CommitConflictException;
+import com.clarkparsia.versioning.Repository;
+import com.google.common.collect.ImmutableList;
+
+public class RVTDocumentIOTests {
+	private static final URI PART1 = URI.create("http://example.org/part1/1");
+	private static final URI SUB = URI.create("http://example.org/sub/1");
+	private static final URI PART2 = URI.create("http://example.org/part2/1");
+
+	private Repository repo;
+
+	@Before
+	public void before() throws Exception {
+		RVTDocumentIO documentIO = RVTDocumentIO.createForNewRepo(new LocalEndpoint(), "library", "parts");
+		repo = documentIO.getBranch().getRepository();
+
+		SBOLDocument doc = new SBOLDocument();
+		doc.setDefaultURIprefix("http://example.org");
+		ComponentDefinition part1 = doc.createComponentDefinition("part1", "1", ComponentDefinition.DNA);
+		ComponentDefinition sub = doc.createComponentDefinition("sub", "1", ComponentDefinition.DNA);
+		part1.createComponent("sub_c", AccessType.PUBLIC, sub.getIdentity());
+		doc.createComponentDefinition("part2", "1", ComponentDefinition.DNA);
+		documentIO.write(doc, "first commit");
+	}
+
+	private RVTDocumentIO createPartial() {
+		return RVTDocumentIO.createForBranch(repo, Branch.MASTER,
+				ImmutableList.of(ValueFactoryImpl.getInstance().createURI(PART1.toString())));
+	}
+
+	private RVTDocumentIO createPartialForHead() {
+		return RVTDocumentIO.createForRevision(repo.branches().get(Branch.MASTER).getHead(),
+				ImmutableList.of(ValueFactoryImpl.getInstance().createURI(PART1.toString())));
+	}
+
+	@Test
+	public void partialCommit() throws Exception {
+		RVTDocumentIO partial = createPartialForHead();
+		SBOLDocument doc = partial.read();
+		assertNotNull(doc.getComponentDefinition(SUB));
+		assertNull(doc.getComponentDefinition(PART2));
+
+		doc.getComponentDefinition(PART1).setName("first");
+		partial.write(doc, "rename part1");
+		// the second commit is based on the first one
+		doc.getComponentDefinition(PART1).setName("renamed");
+		partial.write(doc, "rename part1 again");
+
+		// the parts that were not checked out are kept
+		SBOLDocument full = RVTDocumentIO.createForBranch(repo, Branch.MASTER).read();
+		assertEquals("renamed", full.getComponentDefinition(PART1).getName());
+		assertNotNull(full.getComponentDefinition(SUB));
+		assertNotNull(full.getComponentDefinition(PART2));
+	}
+
+	@Test
+	public void staleCommit() throws Exception {
+		RVTDocumentIO stale = RVTDocumentIO.createForBranch(repo, Branch.MASTER);
+		SBOLDocument doc = stale.read();
+
+		RVTDocumentIO other = RVTDocumentIO.createForBranch(repo, Branch.MASTER);
+		SBOLDocument otherDoc = other.read();
+		otherDoc.getComponentDefinition(PART2).setName("other");
+		other.write(otherDoc, "concurrent edit");
+		// later commits are based on the previous one
+		otherDoc.getComponentDefinition(PART2).setName("other again");
+		other.write(otherDoc, "second edit");
+
+		doc.getComponentDefinition(PART1).setName("renamed");
+		try {
+			stale.write(doc, "stale edit");
+			fail("Committed a stale checkout");
+		} catch (CommitConflictException e) {
+			// expected
+		}
+		assertEquals("other again", RVTDocumentIO.createForBranch(repo, Branch.MASTER).read()
+				.getComponentDefinition(PART2).getName());
+	}
+
+	@Test
+	public void partialCommitConflict() throws Exception {
+		assertPartialCommitConflict(createPartialForHead());
+	}
+
+	@Test
+	public void partialBranchCommitConflict() throws Exception {
+		assertPartialCommitConflict(createPartial());
+	}
+
+	/**
+	 * Checks that a document read partially is not committed after another commit changed the part.
+	 */
+	private void assertPartialCommitConflict(RVTDocumentIO partial) throws Exception {
+		SBOLDocument doc = partial.read();
+
+		RVTDocumentIO otherIO = createPartial();
+		SBOLDocument other = otherIO.read();
+		other.getComponentDefinition(PART1).setName("other");
+		otherIO.write(other, "concurrent edit");
+
+		doc.getComponentDefinition(PART1).setName("renamed");
+		try {
+			partial.write(doc, "stale edit");
+			fail("Committed a stale partial checkout");
+		} catch (CommitConflictException e) {
+			// expected
+		}
+		assertEquals("other", RVTDocumentIO.createForBranch(repo, Branch.MASTER).read().getComponentDefinition(PART1)
+				.getName());
+	}
+}
@@ -34,7 +34,6 @@ import java.util.List;
 import java.util.Properties;
 
 import org.openrdf.rio.RDFFormat;
-import org.openrdf.rio.RDFWriter;
 import org.openrdf.rio.Rio;
 
 import com.clarkparsia.sbol.editor.sparql.RDFInput;
@@ -48,7 +47,10 @@ import com.clarkparsia.versioning.RVTFactory;
 import com.clarkparsia.versioning.Ref;
 import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
+import com.clarkparsia.versioning.sparql.SortedStatements;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 
 public class RVTCli {
@@ -60,6 +62,8 @@ public class RVTCli {
                 .withCommand(Init.class)
                 .withCommand(Checkout.class)
                 .withCommand(Commit.class)
+                .withCommand(Status.class)
+                .withCommand(Diff.class)
                 .withCommand(MergeBranch.class);
 
         builder.withGroup("repo")
@@ -87,8 +91,19 @@ public class RVTCli {
 		protected File metadataFile = new File(".rvt/metadata.properties");
 		protected Properties metadata = new Properties();
 		protected RVT system;
+		protected WorkingCopy workingCopy;
 		
 		protected void init() throws Exception {
+			loadMetadata();
+			
+			String endpointURL = metadata.getProperty("endpoint");
+			system = RVTFactory.get(new StardogEndpoint(endpointURL));
+		}
+
+		/**
+		 * Loads the local metadata without connecting to the endpoint.
+		 */
+		protected void loadMetadata() throws IOException {
 			if (!metadataFile.exists()) {
 				throw new IllegalStateException("Not initialized");
 			}
@@ -99,8 +114,7 @@ public class RVTCli {
 			
 			//metadata.list(System.out);   
 			
-			String endpointURL = metadata.getProperty("endpoint");
-			system = RVTFactory.get(new StardogEndpoint(endpointURL));
+			workingCopy = new WorkingCopy(metadataFile.getParentFile());
 		}
 
 		protected void writeMetadata() throws IOException {
@@ -129,8 +143,22 @@ public class RVTCli {
 	    	Files.createParentDirs(file);
 	    	
 	    	if (revision != null) {
-	        	RDFWriter writer = Rio.createWriter(format, new FileOutputStream(file));
-	        	revision.checkout(writer);
+	    		// the revision is downloaded once for both the working file and the pristine copy
+	    		SortedStatements stmts = new SortedStatements();
+	    		try {
+	    			revision.checkout(stmts);
+	    			OutputStream out = new FileOutputStream(file);
+	    			try {
+	    				stmts.read(Rio.createWriter(format, out));
+	    			}
+	    			finally {
+	    				out.close();
+	    			}
+	    			workingCopy.update(repo.getName(), branch.getName(), revision.getURI(), stmts);
+	    		}
+	    		finally {
+	    			stmts.close();
+	    		}
 	    	}
 	    	else {
 	    		Files.touch(file);
@@ -142,6 +170,30 @@ public class RVTCli {
 	    	return file;
 		}
 		
+		protected File getWorkingFile(String repoName, String branchName) {
+			return new File(repoName, branchName + "." + getFormat(repoName, branchName).getDefaultFileExtension());
+		}
+		
+		protected RDFFormat getFormat(String repoName, String branchName) {
+			String formatName = metadata.getProperty(repoName + "." + branchName);
+			Preconditions.checkArgument(formatName != null, "Branch is not checked out: " + branchName);
+			return RDFFormat.valueOf(formatName);
+		}
+		
+		/**
+		 * Returns the names of the checked out branches of the repository.
+		 */
+		protected List<String> getBranchNames(String repoName) {
+			List<String> branchNames = Lists.newArrayList();
+			String prefix = repoName + ".";
+			for (String key : metadata.stringPropertyNames()) {
+				if (key.startsWith(prefix)) {
+					branchNames.add(key.substring(prefix.length()));
+				}
+			}
+			return branchNames;
+		}
+		
 		protected abstract void exec() throws Exception;
     }
 
@@ -263,25 +315,115 @@ public class RVTCli {
         	String repoName = names.get(0);        	
         	Repository repo = system.repos().get(repoName);
         	if (names.size() == 2) {
-        		String branchName = names.get(1);
-        		String formatExt = RDFFormat.valueOf(metadata.getProperty(repoName + "." + branchName)).getDefaultFileExtension();
-        		File file = new File(repoName, branchName + "." + formatExt);
-        		Branch branch = repo.branches().get(branchName);        		
-        		branch.commit(RDFInput.forFile(file), getActionInfo());
+        		commit(repo, names.get(1));
         	}
         	else {
-        		String prefix = repoName + ".";
-        		for (String key : metadata.stringPropertyNames()) {
-	                if (key.startsWith(prefix)) {
-	            		String formatExt = RDFFormat.valueOf(metadata.getProperty(key)).getDefaultFileExtension();
-	            		File file = new File(key.replace('.', File.separatorChar) + "." + formatExt);
-	                	String branchName = key.substring(prefix.length());
-	            		Branch branch = repo.branches().get(branchName);        		
-	            		branch.commit(RDFInput.forFile(file), getActionInfo());
-	                }
+        		for (String branchName : getBranchNames(repoName)) {
+        			commit(repo, branchName);
                 }
         	}
         }
+        
+        /**
+         * Sends only the changes made to the working file since it was checked out. Working files that were not
+         * checked out from a revision, or whose changes can't be computed because of blank nodes, are uploaded as a
+         * whole.
+         */
+        private void commit(Repository repo, String branchName) throws Exception {
+        	String repoName = repo.getName();
+        	File file = getWorkingFile(repoName, branchName);
+    		Branch branch = repo.branches().get(branchName);        		
+    		String base = workingCopy.getRevision(repoName, branchName);
+    		
+        	WorkingCopy.Changes changes = workingCopy.getChanges(repoName, branchName, file, getFormat(repoName, branchName));
+        	try {
+        		Revision revision;
+        		if (base != null) {
+        			Revision head = branch.getHead();
+        			Preconditions.checkState(head.getURI().stringValue().equals(base),
+        			                "Branch %s was updated after it was checked out", branchName);
+        			if (changes.isEmpty()) {
+        				System.out.println("No changes in " + file);
+        				return;
+        			}
+        			if (changes.isFull()) {
+        				revision = branch.commit(head, RDFInput.forSource(changes.working), getActionInfo());
+        			}
+        			else {
+        				revision = branch.commit(head, RDFInput.forSource(changes.removals), RDFInput.forSource(changes.additions), getActionInfo());
+        			}
+        		}
+        		else {
+        			revision = branch.commit(RDFInput.forSource(changes.working), getActionInfo());
+        		}
+        		workingCopy.update(repoName, branchName, revision.getURI(), changes.working);
+        		System.out.println("Committed " + file);
+        	}
+        	finally {
+        		changes.close();
+        	}
+        }
+    } 
+
+    @Command(name = "status", description = "Shows the working files changed since they were checked out")
+    public static class Status extends RVTCommand {
+        @Arguments(description = "Name of the repo", title="repo", required = true)
+        public String repoName;        
+        
+        protected void init() throws Exception {
+        	loadMetadata();
+        }
+        
+        public void exec() throws Exception {
+        	for (String branchName : getBranchNames(repoName)) {
+        		File file = getWorkingFile(repoName, branchName);
+        		WorkingCopy.Changes changes = workingCopy.getChanges(repoName, branchName, file, getFormat(repoName, branchName));
+        		try {
+        			if (changes.isEmpty()) {
+        				System.out.println("unchanged: " + file);
+        			}
+        			else {
+        				System.out.println("modified:  " + file + " (+" + Iterators.size(changes.additions.lines()) + " -"
+        				                + Iterators.size(changes.removals.lines()) + ")"
+        				                + (changes.isFull() ? " blank nodes, will be committed as a whole" : ""));
+        			}
+        		}
+        		finally {
+        			changes.close();
+        		}
+        	}
+        }
+    } 
+
+    @Command(name = "diff", description = "Shows the statements changed in a working file since it was checked out")
+    public static class Diff extends RVTCommand {
+        @Arguments(description = "Name of the repo optionally followed by branch", required = true)
+        public List<String> names;        
+        
+        protected void init() throws Exception {
+        	loadMetadata();
+        }
+        
+        public void exec() throws Exception {
+        	String repoName = names.get(0);        	
+        	String branchName = (names.size() == 2) ? names.get(1) : Branch.MASTER;        	
+    		File file = getWorkingFile(repoName, branchName);
+    		WorkingCopy.Changes changes = workingCopy.getChanges(repoName, branchName, file, getFormat(repoName, branchName));
+    		try {
+    			if (changes.isFull()) {
+    				System.out.println("# blank node labels differ, the file will be committed as a whole");
+    			}
+    			for (Iterator<String> lines = changes.removals.lines(); lines.hasNext();) {
+    				System.out.println("- " + lines.next());
+    			}
+    			for (Iterator<String> lines = changes.additions.lines(); lines.hasNext();) {
+    				System.out.println("+ " + lines.next());
+    			}
+    		}
+    		finally {
+    			changes.close();
+    		}
+        }
     } 
 
     @Command(name = "create", description = "Create a branch")
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.versioning.cli;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.openrdf.OpenRDFException;
+import org.openrdf.model.URI;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+
+import com.clarkparsia.versioning.sparql.RDFDiff;
+import com.clarkparsia.versioning.sparql.SortedStatements;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Pristine copies of the checked out branches kept in the .rvt directory. The pristine copy of a branch is the
+ * contents of the revision the working file was checked out from or last committed as, stored as sorted N-Triples
+ * along with the URI of that revision. Changes to the working file are found by comparing it to the pristine copy
+ * without contacting the server and only the changes are sent when the working file is committed.
+ */
+class WorkingCopy {
+	private final File dir;
+	private final File revisionsFile;
+	private final Properties revisions = new Properties();
+
+	WorkingCopy(File metadataDir) throws IOException {
+		this.dir = new File(metadataDir, "pristine");
+		this.revisionsFile = new File(dir, "revisions.properties");
+		if (revisionsFile.exists()) {
+			InputStream in = new FileInputStream(revisionsFile);
+			try {
+				revisions.load(in);
+			}
+			finally {
+				in.close();
+			}
+		}
+	}
+
+	private static String key(String repoName, String branchName) {
+		return repoName + "." + branchName;
+	}
+
+	private File pristineFile(String repoName, String branchName) {
+		return new File(new File(dir, repoName), branchName + ".nt");
+	}
+
+	/**
+	 * Returns the URI of the revision the pristine copy of the branch corresponds to, null if the branch has not been
+	 * checked out from a revision.
+	 */
+	String getRevision(String repoName, String branchName) {
+		return revisions.getProperty(key(repoName, branchName));
+	}
+
+	/**
+	 * Records the statements as the pristine copy of the branch for the given revision.
+	 */
+	void update(String repoName, String branchName, URI revision, SortedStatements stmts) throws IOException {
+		File file = pristineFile(repoName, branchName);
+		Files.createParentDirs(file);
+		Writer out = Files.newWriter(file, Charsets.UTF_8);
+		try {
+			for (Iterator<String> lines = stmts.lines(); lines.hasNext();) {
+				out.write(lines.next());
+				out.write('\n');
+			}
+		}
+		finally {
+			out.close();
+		}
+
+		revisions.setProperty(key(repoName, branchName), revision.stringValue());
+		OutputStream propsOut = new FileOutputStream(revisionsFile);
+		try {
+			revisions.store(propsOut, "Revisions of the pristine copies");
+		}
+		finally {
+			propsOut.close();
+		}
+	}
+
+	/**
+	 * Compares the working file of the branch to its pristine copy. A branch without a pristine copy is compared to
+	 * an empty graph. Blank node labels are kept when the files are read so an unchanged file compares equal to its
+	 * pristine copy, but once a file with blank nodes is edited the labels can't be matched and the changes are
+	 * {@link Changes#isFull() full}.
+	 */
+	Changes getChanges(String repoName, String branchName, File workingFile, RDFFormat format) throws IOException {
+		SortedStatements pristine = new SortedStatements();
+		Changes changes = new Changes();
+		boolean done = false;
+		try {
+			File pristineFile = pristineFile(repoName, branchName);
+			if (pristineFile.exists()) {
+				read(pristineFile, RDFFormat.NTRIPLES, pristine);
+			}
+			read(workingFile, format, changes.working);
+			RDFDiff.compute(pristine, changes.working, changes.removals, changes.additions);
+			changes.full = !changes.isEmpty() && (pristine.hasBlankNodes() || changes.working.hasBlankNodes());
+			done = true;
+			return changes;
+		}
+		finally {
+			pristine.close();
+			if (!done) {
+				changes.close();
+			}
+		}
+	}
+
+	private static void read(File file, RDFFormat format, SortedStatements stmts) throws IOException {
+		RDFParser parser = Rio.createParser(format);
+		parser.setPreserveBNodeIDs(true);
+		parser.setRDFHandler(stmts);
+		InputStream in = new FileInputStream(file);
+		try {
+			parser.parse(in, "");
+		}
+		catch (OpenRDFException e) {
+			throw new IOException(e);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * The statements of a working file and the differences from its pristine copy.
+	 */
+	static class Changes implements Closeable {
+		final SortedStatements working = new SortedStatements();
+		final SortedStatements removals = new SortedStatements();
+		final SortedStatements additions = new SortedStatements();
+		private boolean full;
+
+		boolean isEmpty() {
+			return removals.isEmpty() && additions.isEmpty();
+		}
+
+		/**
+		 * Returns true if the working file changed and either version has blank nodes. The removals and additions
+		 * are then only the differences of the statements as written and the working file has to be committed as a
+		 * whole.
+		 */
+		boolean isFull() {
+			return full;
+		}
+
+		@Override
+		public void close() {
+			working.close();
+			removals.close();
+			additions.close();
+		}
+	}
+}
@@ -15,6 +15,8 @@
 
 package com.clarkparsia.versioning;
 
+import java.util.List;
+
 import com.clarkparsia.sbol.editor.sparql.RDFInput;
 
 public interface Branch extends Ref {
@@ -28,7 +30,34 @@ public interface Branch extends Ref {
 	
 	public Revision getHead();
 	
+	/**
+	 * Returns all the revisions committed to this branch, newest first.
+	 */
+	public List<Revision> getRevisions();
+	
+	/**
+	 * Commits the input as a new revision on top of whatever the head of the branch is when the commit is made.
+	 * Contents derived from an earlier checkout should be committed with {@link #commit(Revision, RDFInput, ActionInfo)}
+	 * so commits made since the checkout are not overwritten.
+	 */
 	public Revision commit(RDFInput input, ActionInfo info);
 	
+	/**
+	 * Commits the input as a new revision on top of the base revision, which has to be the head of the branch or null
+	 * if the branch has no revisions yet.
+	 * 
+	 * @throws CommitConflictException if the base revision is not the head of the branch
+	 */
+	public Revision commit(Revision base, RDFInput input, ActionInfo info);
+	
+	/**
+	 * Commits a revision that differs from the base revision by the given removals and additions. The contents of the
+	 * base revision are copied by the store so only the changes are transferred. The base revision has to be the head
+	 * of the branch.
+	 * 
+	 * @throws CommitConflictException if the base revision is not the head of the branch
+	 */
+	public Revision commit(Revision base, RDFInput removals, RDFInput additions, ActionInfo info);
+	
 	public Revision merge(Revision revision, ActionInfo info);
 }
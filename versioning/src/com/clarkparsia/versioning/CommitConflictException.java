@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.versioning;
+
+/**
+ * Thrown when a commit is rejected because the head of the branch moved after the commit was started. The commit can
+ * be retried on top of the new head.
+ */
+public class CommitConflictException extends IllegalStateException {
+	private static final long serialVersionUID = 1L;
+
+	public CommitConflictException(String message) {
+		super(message);
+	}
+}
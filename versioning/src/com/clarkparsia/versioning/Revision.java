@@ -17,6 +17,7 @@ package com.clarkparsia.versioning;
 
 import java.util.List;
 
+import org.openrdf.model.URI;
 import org.openrdf.rio.RDFHandler;
 
 
@@ -29,6 +30,20 @@ public interface Revision extends Ref {
 	public List<Tag> getTags();
 	
 	public void checkout(RDFHandler handler);
+	
+	/**
+	 * Streams the part of the revision that describes the given roots: statements about the roots and about the
+	 * resources that can be reached from the roots by following the given link properties. The part is selected by
+	 * the store so the cost depends on the size of the part rather than the size of the revision.
+	 */
+	public void checkout(RDFHandler handler, Iterable<URI> roots, Iterable<URI> links);
+	
+	/**
+	 * Streams the differences between this revision and the other revision: statements that exist only in this
+	 * revision are passed to the removals handler and statements that exist only in the other revision are passed to
+	 * the additions handler. The difference is computed by the store so only the changed statements are transferred.
+	 */
+	public void diff(Revision other, RDFHandler removals, RDFHandler additions);
 
 	public Branch branch(String name, ActionInfo info);
 	
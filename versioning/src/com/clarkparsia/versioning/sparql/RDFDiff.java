@@ -15,10 +15,15 @@
 
 package com.clarkparsia.versioning.sparql;
 
+import java.io.IOException;
 import java.util.Set;
 
 import org.openrdf.model.Statement;
+import org.openrdf.rio.RDFHandler;
 
+import com.clarkparsia.sbol.editor.sparql.RDFSource;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.Sets;
 
 public class RDFDiff {
@@ -51,6 +56,86 @@ public class RDFDiff {
 		return new RDFDiff(createSet(initialStmts), createSet(finalStmts));
 	}
 	
+	/**
+	 * Computes the difference between two sorted statement sets with a single linear merge, adding the statements
+	 * that only exist in the initial set to the removals and the ones that only exist in the final set to the
+	 * additions. Unlike {@link #compute(Iterable, Iterable)} the memory needed does not depend on the size of the
+	 * sets so this can be used for graphs that don't fit in memory.
+	 */
+	public static void compute(SortedStatements initialStmts, SortedStatements finalStmts, SortedStatements removals,
+	                SortedStatements additions) throws IOException {
+		PeekingIterator<String> initialLines = initialStmts.lines();
+		PeekingIterator<String> finalLines = finalStmts.lines();
+		while (initialLines.hasNext() || finalLines.hasNext()) {
+			String line = min(initialLines, finalLines);
+			boolean inInitial = skip(initialLines, line);
+			boolean inFinal = skip(finalLines, line);
+			if (inInitial && !inFinal) {
+				removals.add(line);
+			}
+			else if (inFinal && !inInitial) {
+				additions.add(line);
+			}
+		}
+	}
+	
+	/**
+	 * Returns a source that streams the statements resulting from applying the sorted removals and additions to the
+	 * sorted statements with a linear merge. The source can be read more than once while the inputs are open.
+	 */
+	public static RDFSource apply(final SortedStatements stmts, final SortedStatements removals,
+	                final SortedStatements additions) {
+		return new RDFSource() {
+			@Override
+			public void read(RDFHandler handler) throws IOException {
+				final PeekingIterator<String> lines = stmts.lines();
+				final PeekingIterator<String> removedLines = removals.lines();
+				final PeekingIterator<String> addedLines = additions.lines();
+				SortedStatements.parse(new AbstractIterator<String>() {
+					@Override
+					protected String computeNext() {
+						while (lines.hasNext() || addedLines.hasNext()) {
+							String line = min(lines, addedLines);
+							boolean exists = skip(lines, line);
+							boolean added = skip(addedLines, line);
+							while (removedLines.hasNext() && removedLines.peek().compareTo(line) < 0) {
+								removedLines.next();
+							}
+							boolean removed = skip(removedLines, line);
+							if (added || (exists && !removed)) {
+								return line;
+							}
+						}
+						return endOfData();
+					}
+				}, handler);
+			}
+		};
+	}
+	
+	private static String min(PeekingIterator<String> it1, PeekingIterator<String> it2) {
+		if (!it1.hasNext()) {
+			return it2.peek();
+		}
+		if (!it2.hasNext()) {
+			return it1.peek();
+		}
+		String s1 = it1.peek();
+		String s2 = it2.peek();
+		return s1.compareTo(s2) <= 0 ? s1 : s2;
+	}
+	
+	/**
+	 * Advances the iterator past the given line if it is the next element and returns whether it was.
+	 */
+	private static boolean skip(PeekingIterator<String> it, String line) {
+		if (it.hasNext() && it.peek().equals(line)) {
+			it.next();
+			return true;
+		}
+		return false;
+	}
+	
 	@SuppressWarnings("unchecked")
     private static Set<Statement> createSet(Iterable<Statement> stmts) {
 		return (stmts instanceof Set) ? (Set) stmts : Sets.newHashSet(stmts);
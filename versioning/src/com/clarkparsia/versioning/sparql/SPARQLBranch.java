@@ -15,28 +15,43 @@
 
 package com.clarkparsia.versioning.sparql;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 
+import org.openrdf.model.Literal;
 import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
+import org.openrdf.model.Value;
 import org.openrdf.model.vocabulary.RDF;
-import org.openrdf.rio.helpers.StatementCollector;
 
 import com.clarkparsia.sbol.editor.sparql.RDFInput;
+import com.clarkparsia.sbol.editor.sparql.RDFSource;
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
 import com.clarkparsia.versioning.ActionInfo;
 import com.clarkparsia.versioning.Branch;
+import com.clarkparsia.versioning.CommitConflictException;
 import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 
 public class SPARQLBranch extends SPARQLRef implements Branch {
 	public SPARQLBranch(SPARQLEndpoint endpoint, URI baseURI, String name) {
 	    super(endpoint, baseURI, name);
     }
 	
+	public SPARQLBranch(SPARQLEndpoint endpoint, URI baseURI, String name, ActionInfo info) {
+	    super(endpoint, baseURI, name, info);
+    }
+	
 	@Override
 	public Revision getParent() {
 		return propertyQueryNamed(Terms.hasParent, revisionMapper).executeSelectOnlyElement(null);
@@ -60,39 +75,125 @@ public class SPARQLBranch extends SPARQLRef implements Branch {
 		return SPARQLQuery.create(endpoint, revisionMapper, query).binding("uri", uri).executeSelectOnlyElement();
 	}
 
+	@Override
+	public List<Revision> getRevisions() {
+    	String query = SELECT + "{" +
+    		    		"  ?x a :Revision .\n" +
+    		    		"  ?x :hasBranch ?uri .\n" +
+    		    		OPTIONAL_INFO_PATTERN +
+    		    		"}\n" +
+    		    		"ORDER BY DESC(?time)";
+		return SPARQLQuery.create(endpoint, revisionMapper, query).binding("uri", uri).executeSelect();
+	}
+
 	@Override
 	public Revision commit(RDFInput input, ActionInfo info) {
         Revision headRevision = propertyQuery(Terms.hasHead, revisionMapper).executeSelectOnlyElement(null);
-        Iterable<Revision> parents = (headRevision == null) ? ImmutableList.<Revision>of() : ImmutableList.<Revision>of(headRevision); 
-        return commit(input, info, headRevision, parents);
+        return commit(headRevision, input, info);
+	}
+
+	@Override
+	public Revision commit(Revision base, RDFInput input, ActionInfo info) {
+        Iterable<Revision> parents = (base == null) ? ImmutableList.<Revision>of() : ImmutableList.<Revision>of(base); 
+        return commit(input, info, base, parents);
+	}
+
+	@Override
+	public Revision commit(final Revision base, final RDFInput removals, final RDFInput additions, ActionInfo info) {
+		return commit(new RevisionContents() {
+			@Override
+			public void upload(URI revisionURI) throws Exception {
+				endpoint.copy(base.getURI().stringValue(), revisionURI.stringValue());
+				endpoint.removeData(removals, revisionURI.stringValue());
+				endpoint.addData(additions, revisionURI.stringValue());
+			}
+		}, info, base, ImmutableList.of(base));
 	}
 
+	/**
+	 * Merges the revision into this branch with a three-way merge. The revisions are checked out into sorted
+	 * statement sets that spill to disk and combined with linear merges so graphs larger than the heap can be merged.
+	 */
 	@Override
 	public Revision merge(Revision revision, ActionInfo info) {
-    	Iterable<Statement> revStmts = checkout(revision); 
-        Iterable<Statement> mergeStmts = revStmts; 
-        
-        Revision headRevision = getHead();        
-        Revision commonAncestor = getAncestorInBranch(revision, this);
-        
-        boolean fastForward = commonAncestor.equals(headRevision); 
-        if (!fastForward) {
-        	Iterable<Statement> ancestorStmts = checkout(commonAncestor);
-        	RDFDiff diff = RDFDiff.compute(ancestorStmts, revStmts);
-        	Iterable<Statement> headStmts = checkout(headRevision);
-        	mergeStmts = diff.apply(headStmts);
-        }
-        
-        return commit(RDFInput.forStatements(mergeStmts), info, headRevision, Arrays.asList(headRevision, revision));
+		List<SortedStatements> checkouts = Lists.newArrayList();
+		try {
+			SortedStatements revStmts = checkout(revision, checkouts);
+			RDFSource mergeStmts = revStmts;
+			
+	        Revision headRevision = getHead();        
+	        Revision commonAncestor = getAncestorInBranch(revision, this);
+	        
+	        boolean fastForward = commonAncestor.equals(headRevision); 
+	        if (!fastForward) {
+	        	SortedStatements ancestorStmts = checkout(commonAncestor, checkouts);
+	        	SortedStatements removals = new SortedStatements();
+	        	SortedStatements additions = new SortedStatements();
+	        	checkouts.add(removals);
+	        	checkouts.add(additions);
+	        	RDFDiff.compute(ancestorStmts, revStmts, removals, additions);
+	        	SortedStatements headStmts = checkout(headRevision, checkouts);
+	        	mergeStmts = RDFDiff.apply(headStmts, removals, additions);
+	        }
+	        
+	        return commit(RDFInput.forSource(mergeStmts), info, headRevision, Arrays.asList(headRevision, revision));
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			for (SortedStatements stmts : checkouts) {
+				stmts.close();
+			}
+		}
 	}
 	
-	private Iterable<Statement> checkout(Revision revision) {
-		StatementCollector collector = new StatementCollector();
-    	revision.checkout(collector);
-    	return collector.getStatements(); 
+	/**
+	 * Checks out the revision into a new sorted statement set that is added to the list of sets to close.
+	 */
+	private SortedStatements checkout(Revision revision, List<SortedStatements> checkouts) {
+		SortedStatements stmts = new SortedStatements();
+		checkouts.add(stmts);
+		revision.checkout(stmts);
+    	return stmts; 
 	}
 
+	/**
+	 * Returns the latest revision in the target branch that is a (proper) ancestor of the given revision. The lookup
+	 * uses the ancestry index stored for the parents of the revision and needs to inspect a single link per parent.
+	 * History committed before the index was introduced is indexed the first time it is looked up; the whole history
+	 * is only searched if the index still has no answer.
+	 */
 	private Revision getAncestorInBranch(Revision startRev, Branch targetBranch) {
+		Revision ancestor = lookupAncestorInBranch(startRev, targetBranch);
+		if (ancestor == null) {
+			try {
+				backfillAncestryIndex(startRev.getURI());
+			}
+			catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			ancestor = lookupAncestorInBranch(startRev, targetBranch);
+		}
+		return ancestor != null ? ancestor : searchAncestorInBranch(startRev, targetBranch);
+	}
+
+	private Revision lookupAncestorInBranch(Revision startRev, Branch targetBranch) {
+		String query = SELECT + "{" +
+						"  ?startRev :hasParent ?parentRev .\n" +
+						"  ?parentRev :hasLatestAncestor ?x .\n" +
+						"  ?x :hasBranch ?targetBranch .\n" +
+						"  ?x :generation ?generation .\n" +
+						"}\n" +
+						"ORDER BY DESC(?generation)\n" +
+						"LIMIT 1";
+		return SPARQLQuery.create(endpoint, revisionMapper, query)
+				.binding("startRev", startRev.getURI())
+				.binding("targetBranch", targetBranch.getURI())
+				.executeSelectOnlyElement(null);
+	}
+
+	private Revision searchAncestorInBranch(Revision startRev, Branch targetBranch) {
     	String query = SELECT + "{" +
     		    		"  ?startRev :hasParent+ ?x .\n" +
     		    		"  ?x :hasBranch ?targetBranch .\n" +
@@ -106,15 +207,197 @@ public class SPARQLBranch extends SPARQLRef implements Branch {
 				.executeSelectOnlyElement();
 	}
 	
-	private Revision commit(RDFInput input, ActionInfo info, Revision headRevision, Iterable<Revision> parents) {
+	/**
+	 * Computes the ancestry index of a new revision from the index of its parents: the generation number of the
+	 * revision and, for each branch in its history, a link to the latest revision of that branch that is an ancestor
+	 * of the new revision. Parents committed before the index was introduced are indexed first.
+	 */
+	private List<Statement> ancestryIndex(URI revisionURI, Iterable<Revision> parents) throws Exception {
+		Ancestry ancestry = new Ancestry();
+		for (Revision parent : parents) {
+			Ancestry parentAncestry = getAncestry(parent.getURI());
+			if (parentAncestry == null) {
+				backfillAncestryIndex(parent.getURI());
+				parentAncestry = getAncestry(parent.getURI());
+			}
+			if (parentAncestry != null) {
+				ancestry.addParent(parentAncestry);
+			}
+		}
+		ancestry.addSelf(uri, revisionURI);
+		return ancestry.statements(revisionURI);
+	}
+
+	/**
+	 * Returns the stored ancestry index of a revision or null if the revision is not indexed.
+	 */
+	private Ancestry getAncestry(Value revisionURI) {
+		String query = SELECT + "{" +
+						"  ?rev :hasLatestAncestor ?x .\n" +
+						"  ?x :hasBranch ?branch .\n" +
+						"  ?x :generation ?generation .\n" +
+						"}";
+		List<Function<String, Value>> results = SPARQLQuery.create(endpoint, query)
+				.binding("rev", revisionURI)
+				.executeSelect();
+		if (results.isEmpty()) {
+			return null;
+		}
+
+		Ancestry ancestry = new Ancestry();
+		for (Function<String, Value> result : results) {
+			ancestry.addAncestor(result.apply("branch"), result.apply("x"),
+					((Literal) result.apply("generation")).intValue());
+		}
+		return ancestry;
+	}
+
+	/**
+	 * Indexes the revision and its ancestors that were committed before the ancestry index was introduced. The
+	 * unindexed part of the history is read with one query and indexed in memory, parents before children, starting
+	 * from the stored index of the indexed ancestors it reaches. The index is stored so this is only done once for any
+	 * part of the history.
+	 */
+	private void backfillAncestryIndex(Value revisionURI) throws Exception {
+		String query = SELECT + "{" +
+						"  ?rev :hasParent* ?x .\n" +
+						"  ?x :hasBranch ?branch .\n" +
+						"  OPTIONAL { ?x :hasParent ?parentRev }\n" +
+						"  FILTER NOT EXISTS { ?x :generation ?generation }\n" +
+						"}";
+		List<Function<String, Value>> results = SPARQLQuery.create(endpoint, query)
+				.binding("rev", revisionURI)
+				.executeSelect();
+		if (results.isEmpty()) {
+			return;
+		}
+
+		Map<Value, Value> branches = Maps.newHashMap();
+		SetMultimap<Value, Value> parents = LinkedHashMultimap.create();
+		for (Function<String, Value> result : results) {
+			Value rev = result.apply("x");
+			branches.put(rev, result.apply("branch"));
+			if (result.apply("parentRev") != null) {
+				parents.put(rev, result.apply("parentRev"));
+			}
+		}
+
+		Map<Value, Ancestry> ancestries = Maps.newHashMap();
+		List<Statement> index = Lists.newArrayList();
+		Deque<Value> pending = new ArrayDeque<Value>();
+		for (Value start : branches.keySet()) {
+			pending.push(start);
+			while (!pending.isEmpty()) {
+				Value rev = pending.peek();
+				if (ancestries.containsKey(rev)) {
+					pending.pop();
+					continue;
+				}
+
+				boolean ready = true;
+				for (Value parent : parents.get(rev)) {
+					if (!ancestries.containsKey(parent)) {
+						if (branches.containsKey(parent)) {
+							pending.push(parent);
+							ready = false;
+						}
+						else {
+							Ancestry parentAncestry = getAncestry(parent);
+							ancestries.put(parent, parentAncestry != null ? parentAncestry : new Ancestry());
+						}
+					}
+				}
+				if (ready) {
+					pending.pop();
+					Ancestry ancestry = new Ancestry();
+					for (Value parent : parents.get(rev)) {
+						ancestry.addParent(ancestries.get(parent));
+					}
+					ancestry.addSelf(branches.get(rev), rev);
+					ancestries.put(rev, ancestry);
+					index.addAll(ancestry.statements((URI) rev));
+				}
+			}
+		}
+
+		endpoint.addData(RDFInput.forStatements(index), Terms.Metadata.stringValue());
+	}
+
+	/**
+	 * The ancestry index of a single revision: the latest ancestor in each branch with its generation and the
+	 * generation of the revision itself.
+	 */
+	private static class Ancestry {
+		private final Map<Value, Value> latestAncestors = Maps.newHashMap();
+		private final Map<Value, Integer> generations = Maps.newHashMap();
+		private int generation = 0;
+
+		private void addAncestor(Value branch, Value ancestor, int ancestorGeneration) {
+			Integer latestGeneration = generations.get(branch);
+			if (latestGeneration == null || latestGeneration < ancestorGeneration) {
+				latestAncestors.put(branch, ancestor);
+				generations.put(branch, ancestorGeneration);
+			}
+			generation = Math.max(generation, ancestorGeneration + 1);
+		}
+
+		private void addParent(Ancestry parent) {
+			for (Map.Entry<Value, Value> entry : parent.latestAncestors.entrySet()) {
+				addAncestor(entry.getKey(), entry.getValue(), parent.generations.get(entry.getKey()));
+			}
+		}
+
+		/**
+		 * Records the revision as the latest ancestor in its own branch. Called after all the parents are added.
+		 */
+		private void addSelf(Value branch, Value revision) {
+			latestAncestors.put(branch, revision);
+			generations.put(branch, generation);
+		}
+
+		private List<Statement> statements(URI revisionURI) {
+			List<Statement> index = Lists.newArrayList(Terms.stmt(revisionURI, Terms.generation,
+					Terms.literal(generation)));
+			for (Value ancestor : latestAncestors.values()) {
+				index.add(Terms.stmt(revisionURI, Terms.hasLatestAncestor, ancestor));
+			}
+			return index;
+		}
+	}
+	
+	/**
+	 * Commits a new revision on top of the expected head revision. The contents of the revision are uploaded first to
+	 * a graph that nothing refers to yet, then the revision metadata is added and the head of the branch is moved in
+	 * a single conditional update that fails if the head of the branch is no longer the expected one. A failed or
+	 * rejected commit leaves the branch unchanged.
+	 * 
+	 * @throws CommitConflictException if another revision was committed to the branch after the expected head
+	 */
+	private Revision commit(final RDFInput input, ActionInfo info, Revision headRevision, Iterable<Revision> parents) {
+		return commit(new RevisionContents() {
+			@Override
+			public void upload(URI revisionURI) throws Exception {
+				endpoint.addData(input, revisionURI.stringValue());
+			}
+		}, info, headRevision, parents);
+	}
+	
+	private Revision commit(RevisionContents contents, ActionInfo info, Revision headRevision, Iterable<Revision> parents) {
+        URI revisionURI = Terms.unique("revision");
+        boolean committed = false;
 		try {
-	        URI revisionURI = Terms.unique("revision");
+	        contents.upload(revisionURI);
 	        
+	        RDFInput removals = null;
+	        String condition;
 	        if (headRevision != null) {
-	        	RDFInput removals = RDFInput.forStatements(
+	        	removals = RDFInput.forStatements(
 	        		Terms.stmt(uri, Terms.hasHead, headRevision.getURI())
 	        	);
-	        	endpoint.removeData(removals, Terms.Metadata.stringValue());	
+	        	condition = "{ <" + uri + "> <" + Terms.hasHead + "> <" + headRevision.getURI() + "> }";
+	        }
+	        else {
+	        	condition = "{ FILTER NOT EXISTS { <" + uri + "> <" + Terms.hasHead + "> ?head } }";
 	        }
 	        
 	        List<Statement> additions = Lists.newArrayList(
@@ -130,16 +413,40 @@ public class SPARQLBranch extends SPARQLRef implements Branch {
 	        	additions.add(Terms.stmt(revisionURI, Terms.hasParent, parent.getURI()));
 	        }
 	        
-	        endpoint.addData(RDFInput.forStatements(additions), Terms.Metadata.stringValue());
-	        
-	        Revision revision = new SPARQLRevision(endpoint, revisionURI);		
-	        endpoint.addData(input, revisionURI.stringValue());
+	        additions.addAll(ancestryIndex(revisionURI, parents));
 	        
-	        return revision;
+	        committed = endpoint.updateData(removals, RDFInput.forStatements(additions), Terms.Metadata.stringValue(), condition);
         }
         catch (Exception e) {
 	        throw new RuntimeException(e);
         }
+		finally {
+			if (!committed) {
+				discard(revisionURI);
+			}
+		}
+		
+		if (!committed) {
+			throw new CommitConflictException("Branch " + name + " was modified by another commit");
+		}
+		
+		return new SPARQLRevision(endpoint, revisionURI);
+	}
+	
+	private void discard(URI revisionURI) {
+		try {
+	        endpoint.clear(revisionURI.stringValue());
+        }
+        catch (Exception e) {
+        	System.err.println("Cannot remove the contents of the failed commit " + revisionURI + ": " + e.getMessage());
+        }
+	}
+
+	/**
+	 * Writes the contents of a new revision to its named graph.
+	 */
+	private interface RevisionContents {
+		void upload(URI revisionURI) throws Exception;
 	}
 
 	public Repository getRepository() {
@@ -41,7 +41,25 @@ public class SPARQLRef implements Ref {
 			"SELECT *\n" + 
 			"FROM <" + Terms.Metadata + "> \n" +
 			"WHERE ";
-
+	
+	/**
+	 * Pattern that matches the action info of the ref bound to <code>?x</code> with the variables used by
+	 * {@link #infoMapper}. A single name and email is sampled for each user so a user with several of them does not
+	 * multiply the matches.
+	 */
+	protected static final String INFO_PATTERN =
+			"  ?x dc:creator ?user ;\n" +
+			"     rdfs:comment ?msg ;\n" +
+			"     dc:date ?time .\n" +
+			"  OPTIONAL { SELECT ?user (SAMPLE(?label) AS ?userName) { ?user rdfs:label ?label } GROUP BY ?user } \n" +
+			"  OPTIONAL { SELECT ?user (SAMPLE(?mbox) AS ?userEmail) { ?user foaf:mbox ?mbox } GROUP BY ?user } \n";
+	
+	/**
+	 * Optional version of {@link #INFO_PATTERN} used when listing refs so the action info of every ref is retrieved by
+	 * the same query that lists the refs.
+	 */
+	protected static final String OPTIONAL_INFO_PATTERN = "  OPTIONAL {\n" + INFO_PATTERN + "  }\n";
+	
 	protected final SPARQLEndpoint endpoint;
 	protected final String name;
 	protected final URI uri;	
@@ -50,28 +68,28 @@ public class SPARQLRef implements Ref {
     protected final Function<Function<String,Value>,Repository> repoMapper = new Function<Function<String,Value>,Repository>() {			
     	@Override
     	public Repository apply(Function<String,Value> bindings) {
-    		return new SPARQLRepository(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel());
+    		return new SPARQLRepository(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel(), info(bindings));
     	}
     };
 	
 	protected final Function<Function<String,Value>,Branch> branchMapper = new Function<Function<String,Value>,Branch>() {			
     	@Override
     	public Branch apply(Function<String,Value> bindings) {
-    		return new SPARQLBranch(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel());
+    		return new SPARQLBranch(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel(), info(bindings));
     	}
     };
 	
 	protected final Function<Function<String,Value>,Revision> revisionMapper = new Function<Function<String,Value>,Revision>() {			
     	@Override
     	public Revision apply(Function<String,Value> bindings) {
-    		return new SPARQLRevision(endpoint, (URI) bindings.apply("x"));
+    		return new SPARQLRevision(endpoint, (URI) bindings.apply("x"), info(bindings));
     	}
     };
 	
 	protected final Function<Function<String,Value>,Tag> tagMapper = new Function<Function<String,Value>,Tag>() {			
     	@Override
     	public Tag apply(Function<String,Value> bindings) {
-    		return new SPARQLTag(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel());
+    		return new SPARQLTag(endpoint, (URI) bindings.apply("x"), ((Literal) bindings.apply("name")).getLabel(), info(bindings));
     	}
     };
 	
@@ -95,10 +113,27 @@ public class SPARQLRef implements Ref {
     };
 	
 	public SPARQLRef(SPARQLEndpoint endpoint, URI baseURI, String name) {
+	    this(endpoint, baseURI, name, null);
+    }
+	
+	/**
+	 * Creates a ref whose action info is already known. If the info is null it will be retrieved the first time it is
+	 * requested.
+	 */
+	public SPARQLRef(SPARQLEndpoint endpoint, URI baseURI, String name, ActionInfo info) {
 	    this.endpoint = endpoint;
 	    this.uri = baseURI;
 	    this.name = name;
+	    this.info = info;
     }
+	
+	/**
+	 * Returns the action info selected by a query that used {@link #OPTIONAL_INFO_PATTERN}, null if the query did not
+	 * select it.
+	 */
+	private ActionInfo info(Function<String,Value> bindings) {
+		return bindings.apply("time") == null ? null : infoMapper.apply(bindings);
+	}
 
 	@Override
     public String getName() {
@@ -114,11 +149,7 @@ public class SPARQLRef implements Ref {
     public ActionInfo getActionInfo() {
 	    if (info == null) {
 	    	String query = SELECT + " {" +
-	    		"  ?x dc:creator ?user ;\n" +
-	    		"     rdfs:comment ?msg ;\n" +
-	    		"     dc:date ?time .\n" +
-	    		"  OPTIONAL { ?user rdfs:label ?userName } \n" +
-	    		"  OPTIONAL { ?user foaf:mbox ?userEmail } \n" +
+	    		INFO_PATTERN +
 	    		"} \n" +
 	    		"LIMIT 1";
 	    		
@@ -133,22 +164,30 @@ public class SPARQLRef implements Ref {
 	}
 
 	protected <T> SPARQLQuery<T> propertyQuery(URI prop, Function<Function<String,Value>, T> function) {
-		return propertyQuery(prop, function, false, false);
+		return propertyQuery(prop, function, false, false, false);
 	}
 
 	protected <T> SPARQLQuery<T> propertyQueryNamed(URI prop, Function<Function<String,Value>, T> function) {
-		return propertyQuery(prop, function, false, true);
+		return propertyQuery(prop, function, false, true, false);
+	}
+
+	/**
+	 * Same as {@link #propertyQueryNamed(URI, Function)} but the action info of the results is retrieved by the same
+	 * query.
+	 */
+	protected <T> SPARQLQuery<T> propertyQueryNamedWithInfo(URI prop, Function<Function<String,Value>, T> function) {
+		return propertyQuery(prop, function, false, true, true);
 	}
 
 	protected <T> SPARQLQuery<T> propertyQueryInv(URI prop, Function<Function<String,Value>, T> function) {
-		return propertyQuery(prop, function, true, false);
+		return propertyQuery(prop, function, true, false, false);
 	}
 
 	protected <T> SPARQLQuery<T> propertyQueryInvNamed(URI prop, Function<Function<String,Value>, T> function) {
-		return propertyQuery(prop, function, true, true);
+		return propertyQuery(prop, function, true, true, false);
 	}
 
-	private <T> SPARQLQuery<T> propertyQuery(URI prop, Function<Function<String,Value>, T> function, boolean inverse, boolean named) {
+	private <T> SPARQLQuery<T> propertyQuery(URI prop, Function<Function<String,Value>, T> function, boolean inverse, boolean named, boolean withInfo) {
 		StringBuilder query = new StringBuilder(SELECT);
 		query.append("{\n");
 		if (inverse) {
@@ -161,6 +200,9 @@ public class SPARQLRef implements Ref {
 		if (named) {
 			query.append("?x rdfs:label ?name .\n");
 		}		
+		if (withInfo) {
+			query.append(OPTIONAL_INFO_PATTERN);
+		}
 		query.append("}");
 		return SPARQLQuery.create(endpoint, function, query.toString()).binding("uri", uri).binding("p", prop);
 	}
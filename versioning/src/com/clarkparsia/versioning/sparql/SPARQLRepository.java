@@ -18,6 +18,7 @@ package com.clarkparsia.versioning.sparql;
 import org.openrdf.model.URI;
 
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
+import com.clarkparsia.versioning.ActionInfo;
 import com.clarkparsia.versioning.Branch;
 import com.clarkparsia.versioning.Listable;
 import com.clarkparsia.versioning.Repository;
@@ -29,11 +30,15 @@ public class SPARQLRepository extends SPARQLRef implements Repository {
 	private final Listable<Tag> tags;
 	
 	public SPARQLRepository(SPARQLEndpoint endpoint, URI uri, String name) {
-		super(endpoint, uri, name);
+		this(endpoint, uri, name, null);
+    }
+	
+	public SPARQLRepository(SPARQLEndpoint endpoint, URI uri, String name, ActionInfo info) {
+		super(endpoint, uri, name, info);
 		
-		branches = new SPARQLListable<Branch>(propertyQueryNamed(Terms.hasBranch, branchMapper));
+		branches = new SPARQLListable<Branch>(propertyQueryNamedWithInfo(Terms.hasBranch, branchMapper));
 		
-		tags = new SPARQLListable<Tag>(propertyQueryNamed(Terms.hasTag, tagMapper));
+		tags = new SPARQLListable<Tag>(propertyQueryNamedWithInfo(Terms.hasTag, tagMapper));
     }
 	
 	@Override
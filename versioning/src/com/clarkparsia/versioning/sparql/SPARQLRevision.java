@@ -17,9 +17,14 @@ package com.clarkparsia.versioning.sparql;
 
 import java.util.List;
 
+import org.openrdf.model.Resource;
 import org.openrdf.model.URI;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.TupleQueryResultHandlerBase;
+import org.openrdf.query.TupleQueryResultHandlerException;
 import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
 
 import com.clarkparsia.sbol.editor.sparql.RDFInput;
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
@@ -28,12 +33,18 @@ import com.clarkparsia.versioning.Branch;
 import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
 import com.clarkparsia.versioning.Tag;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 
 public class SPARQLRevision extends SPARQLRef implements Revision {
 	public SPARQLRevision(SPARQLEndpoint endpoint, URI uri) {
 	    super(endpoint, uri, uri.getLocalName());
     }
 	
+	public SPARQLRevision(SPARQLEndpoint endpoint, URI uri, ActionInfo info) {
+	    super(endpoint, uri, uri.getLocalName(), info);
+    }
+	
 	@Override
 	public List<Revision> getParents() {
 		return propertyQuery(Terms.hasParent, revisionMapper).executeSelect();
@@ -59,6 +70,90 @@ public class SPARQLRevision extends SPARQLRef implements Revision {
         }
     }
 
+	@Override
+	public void checkout(RDFHandler handler, Iterable<URI> roots, Iterable<URI> links) {
+		Preconditions.checkArgument(!Iterables.isEmpty(links), "No link properties given");
+		
+		// a single query where the closure is bounded by the link properties so only the requested part is visited
+		StringBuilder path = new StringBuilder("(");
+		for (URI link : links) {
+			if (path.length() > 1) {
+				path.append("|");
+			}
+			path.append("<").append(link).append(">");
+		}
+		path.append(")*");
+		
+		StringBuilder query = new StringBuilder("SELECT DISTINCT ?s ?p ?o {\n");
+		query.append("  GRAPH <").append(uri).append("> {\n");
+		boolean first = true;
+		for (URI root : roots) {
+			if (!first) {
+				query.append("    UNION\n");
+			}
+			first = false;
+			query.append("    { <").append(root).append("> ").append(path).append(" ?s }\n");
+		}
+		query.append("    ?s ?p ?o\n");
+		query.append("  }\n");
+		query.append("}");
+		
+		try {
+			if (first) {
+				handler.startRDF();
+				handler.endRDF();
+			}
+			else {
+				select(query.toString(), handler);
+			}
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void diff(Revision other, RDFHandler removals, RDFHandler additions) {
+		try {
+			difference(uri, other.getURI(), removals);
+			difference(other.getURI(), uri, additions);
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Passes the statements in the first graph that are not in the second graph to the handler.
+	 */
+	private void difference(URI graph, URI otherGraph, final RDFHandler handler) throws Exception {
+		String query = "SELECT ?s ?p ?o {\n" +
+						"  GRAPH <" + graph + "> { ?s ?p ?o }\n" +
+						"  FILTER NOT EXISTS { GRAPH <" + otherGraph + "> { ?s ?p ?o } }\n" +
+						"}";
+		select(query, handler);
+	}
+
+	/**
+	 * Runs a select query with the variables ?s, ?p and ?o and passes the results to the handler as statements.
+	 */
+	private void select(String query, final RDFHandler handler) throws Exception {
+		handler.startRDF();
+		endpoint.executeSelectQuery(query, new TupleQueryResultHandlerBase() {
+			@Override
+			public void handleSolution(BindingSet bindingSet) throws TupleQueryResultHandlerException {
+				try {
+					handler.handleStatement(Terms.stmt((Resource) bindingSet.getValue("s"),
+					                (URI) bindingSet.getValue("p"), bindingSet.getValue("o")));
+				}
+				catch (RDFHandlerException e) {
+					throw new TupleQueryResultHandlerException(e);
+				}
+			}
+		});
+		handler.endRDF();
+	}
+
 	@Override
     public SPARQLBranch branch(String name, ActionInfo info) {
 	    URI branchURI = Terms.unique("branch");
@@ -18,6 +18,7 @@ package com.clarkparsia.versioning.sparql;
 import org.openrdf.model.URI;
 
 import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
+import com.clarkparsia.versioning.ActionInfo;
 import com.clarkparsia.versioning.Revision;
 import com.clarkparsia.versioning.Tag;
 
@@ -26,6 +27,10 @@ public class SPARQLTag extends SPARQLRef implements Tag {
 	    super(endpoint, uri, name);
     }
 	
+	public SPARQLTag(SPARQLEndpoint endpoint, URI uri, String name, ActionInfo info) {
+	    super(endpoint, uri, name, info);
+    }
+	
 	@Override
 	public Revision getRevision() {
 		return propertyQueryNamed(Terms.hasRevision, revisionMapper).executeSelectOnlyElement();
@@ -38,7 +38,7 @@ import com.google.common.collect.Lists;
 
 public class SPARQLVersionTracker extends SPARQLRef implements RVT {
 	
-	private final Listable<Repository> repos = new SPARQLListable<Repository>(SELECT + "{ ?x a :Repository ; rdfs:label ?name }", endpoint, repoMapper);	
+	private final Listable<Repository> repos = new SPARQLListable<Repository>(SELECT + "{ ?x a :Repository ; rdfs:label ?name .\n" + OPTIONAL_INFO_PATTERN + "}", endpoint, repoMapper);	
 	
 	public SPARQLVersionTracker(SPARQLEndpoint endpoint) {
 		this(endpoint, false);
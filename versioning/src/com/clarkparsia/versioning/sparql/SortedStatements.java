@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.versioning.sparql;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.openrdf.model.BNode;
+import org.openrdf.model.Statement;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+import org.openrdf.rio.ntriples.NTriplesParser;
+import org.openrdf.rio.ntriples.NTriplesUtil;
+
+import com.clarkparsia.sbol.editor.sparql.RDFSource;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * A set of statements kept in a canonical order so that sets can be compared with a linear merge. Statements passed
+ * to this handler are serialized as N-Triples lines, which are sorted in memory in batches of a bounded size and
+ * spilled to temporary files when a batch is full. Reading the statements merges the sorted batches, dropping
+ * duplicates, so the memory needed does not depend on the number of statements. Contexts are ignored.
+ * <p>
+ * Blank nodes are compared by their labels, which are only meaningful within one parse of a document. Two sets that
+ * contain blank nodes can differ even if the graphs are the same, so callers that compare sets should check
+ * {@link #hasBlankNodes()} and not rely on the differences of such sets.
+ * <p>
+ * The temporary files are deleted when this object is closed.
+ */
+public class SortedStatements extends RDFHandlerBase implements RDFSource, Closeable {
+	public static final int DEFAULT_BATCH_SIZE = 100000;
+
+	private final int batchSize;
+	private final List<String> batch = Lists.newArrayList();
+	private final List<File> runs = Lists.newArrayList();
+	private boolean blankNodes;
+
+	public SortedStatements() {
+		this(DEFAULT_BATCH_SIZE);
+	}
+
+	public SortedStatements(int batchSize) {
+		Preconditions.checkArgument(batchSize > 0, "Invalid batch size: " + batchSize);
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void handleStatement(Statement stmt) throws RDFHandlerException {
+		if (stmt.getSubject() instanceof BNode || stmt.getObject() instanceof BNode) {
+			blankNodes = true;
+		}
+		try {
+			add(NTriplesUtil.toNTriplesString(stmt.getSubject()) + " "
+			                + NTriplesUtil.toNTriplesString(stmt.getPredicate()) + " "
+			                + NTriplesUtil.toNTriplesString(stmt.getObject()) + " .");
+		}
+		catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	private void spill() throws IOException {
+		Collections.sort(batch);
+		File file = File.createTempFile("statements", ".nt");
+		file.deleteOnExit();
+		runs.add(file);
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8));
+		try {
+			for (String line : batch) {
+				out.write(line);
+				out.write('\n');
+			}
+		}
+		finally {
+			out.close();
+		}
+		batch.clear();
+	}
+
+	/**
+	 * Adds a statement that is already serialized as an N-Triples line.
+	 */
+	void add(String line) throws IOException {
+		batch.add(line);
+		if (batch.size() >= batchSize) {
+			spill();
+		}
+	}
+
+	public boolean isEmpty() {
+		return batch.isEmpty() && runs.isEmpty();
+	}
+
+	/**
+	 * Returns true if a statement passed to {@link #handleStatement(Statement)} has a blank node subject or object.
+	 */
+	public boolean hasBlankNodes() {
+		return blankNodes;
+	}
+
+	/**
+	 * Returns the statements as distinct N-Triples lines in sorted order. Each call returns a new iterator; the
+	 * iterator has to be consumed (or this object closed) to release the open files.
+	 */
+	public PeekingIterator<String> lines() throws IOException {
+		Collections.sort(batch);
+		List<Iterator<String>> iterators = Lists.newArrayList();
+		iterators.add(batch.iterator());
+		for (File run : runs) {
+			iterators.add(new LineIterator(new BufferedReader(new InputStreamReader(new FileInputStream(run),
+			                Charsets.UTF_8))));
+		}
+		return Iterators.peekingIterator(distinct(Iterators.mergeSorted(iterators, Ordering.<String> natural())));
+	}
+
+	/**
+	 * Passes the distinct statements to the handler in sorted order.
+	 */
+	@Override
+	public void read(RDFHandler handler) throws IOException {
+		parse(lines(), handler);
+	}
+
+	/**
+	 * Parses a sequence of N-Triples lines and passes the statements to the handler.
+	 */
+	static void parse(Iterator<String> lines, RDFHandler handler) throws IOException {
+		NTriplesParser parser = new NTriplesParser();
+		parser.setRDFHandler(handler);
+		try {
+			parser.parse(new LinesReader(lines), "");
+		}
+		catch (IOException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		batch.clear();
+		for (File run : runs) {
+			run.delete();
+		}
+		runs.clear();
+	}
+
+	private static Iterator<String> distinct(final Iterator<String> sorted) {
+		return new AbstractIterator<String>() {
+			private String last;
+
+			@Override
+			protected String computeNext() {
+				while (sorted.hasNext()) {
+					String next = sorted.next();
+					if (!next.equals(last)) {
+						last = next;
+						return next;
+					}
+				}
+				return endOfData();
+			}
+		};
+	}
+
+	private static class LineIterator extends AbstractIterator<String> {
+		private final BufferedReader reader;
+
+		private LineIterator(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		protected String computeNext() {
+			try {
+				String line = reader.readLine();
+				if (line == null) {
+					reader.close();
+					return endOfData();
+				}
+				return line;
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * Presents a sequence of lines as a character stream so it can be parsed without being materialized.
+	 */
+	private static class LinesReader extends Reader {
+		private final Iterator<String> lines;
+		private String line = "";
+		private int pos = 1;
+
+		private LinesReader(Iterator<String> lines) {
+			this.lines = lines;
+		}
+
+		@Override
+		public int read(char[] buf, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			int count = 0;
+			while (count < len) {
+				if (pos > line.length()) {
+					if (!lines.hasNext()) {
+						break;
+					}
+					line = lines.next();
+					pos = 0;
+				}
+				if (pos == line.length()) {
+					buf[off + count++] = '\n';
+					pos++;
+				}
+				else {
+					int n = Math.min(len - count, line.length() - pos);
+					line.getChars(pos, pos + n, buf, off + count);
+					pos += n;
+					count += n;
+				}
+			}
+			return count == 0 ? -1 : count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
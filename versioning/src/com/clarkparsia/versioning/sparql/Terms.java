@@ -50,6 +50,10 @@ public class Terms {
 	public static final URI hasHead = uri(NAMESPACE, "hasHead");
 
 	public static final URI Revision = uri(NAMESPACE, "Revision");
+	// length of the longest path from a revision to the first revision of the repository
+	public static final URI generation = uri(NAMESPACE, "generation");
+	// links a revision to the latest revision of each branch in its history (including itself)
+	public static final URI hasLatestAncestor = uri(NAMESPACE, "hasLatestAncestor");
 	
 	public static final URI hasTag = uri(NAMESPACE, "hasTag");
 	public static final URI Tag = uri(NAMESPACE, "Tag");
@@ -85,6 +89,10 @@ public class Terms {
 		return VF.createLiteral(label);		
 	}
 	
+	public static Literal literal(int value) {
+		return VF.createLiteral(value);		
+	}
+	
 	public static Literal literal(Calendar date) {
 		return VF.createLiteral(DatatypeConverter.printDateTime(date), XMLSchema.DATETIME);		
 	}
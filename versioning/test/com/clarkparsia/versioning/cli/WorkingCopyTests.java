@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.versioning.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+
+import com.clarkparsia.versioning.sparql.SortedStatements;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Iterators;
+import com.google.common.io.Files;
+
+public class WorkingCopyTests {
+	private static final String REPO = "repo";
+	private static final String BRANCH = "master";
+
+	private File dir;
+	private File workingFile;
+	private WorkingCopy workingCopy;
+
+	@Before
+	public void before() throws Exception {
+		dir = Files.createTempDir();
+		workingFile = new File(dir, "working.nt");
+		workingCopy = new WorkingCopy(new File(dir, ".rvt"));
+	}
+
+	private void checkout(String ntriples) throws Exception {
+		SortedStatements stmts = new SortedStatements();
+		try {
+			RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
+			parser.setPreserveBNodeIDs(true);
+			parser.setRDFHandler(stmts);
+			parser.parse(new StringReader(ntriples), "");
+			workingCopy.update(REPO, BRANCH, ValueFactoryImpl.getInstance().createURI("urn:rev1"), stmts);
+		}
+		finally {
+			stmts.close();
+		}
+		edit(ntriples);
+	}
+
+	private void edit(String ntriples) throws Exception {
+		Files.write(ntriples, workingFile, Charsets.UTF_8);
+	}
+
+	private WorkingCopy.Changes getChanges() throws Exception {
+		return workingCopy.getChanges(REPO, BRANCH, workingFile, RDFFormat.NTRIPLES);
+	}
+
+	@Test
+	public void changes() throws Exception {
+		checkout("<urn:a> <urn:p> \"1\" .\n<urn:b> <urn:p> \"2\" .\n");
+		edit("<urn:a> <urn:p> \"1\" .\n<urn:b> <urn:p> \"3\" .\n");
+
+		WorkingCopy.Changes changes = getChanges();
+		try {
+			assertFalse(changes.isFull());
+			assertEquals(1, Iterators.size(changes.removals.lines()));
+			assertEquals(1, Iterators.size(changes.additions.lines()));
+		}
+		finally {
+			changes.close();
+		}
+	}
+
+	@Test
+	public void unchangedBlankNodes() throws Exception {
+		checkout("<urn:a> <urn:p> _:b1 .\n_:b1 <urn:p> \"1\" .\n");
+
+		WorkingCopy.Changes changes = getChanges();
+		try {
+			assertTrue(changes.isEmpty());
+			assertFalse(changes.isFull());
+		}
+		finally {
+			changes.close();
+		}
+	}
+
+	@Test
+	public void changedBlankNodes() throws Exception {
+		checkout("<urn:a> <urn:p> _:b1 .\n_:b1 <urn:p> \"1\" .\n<urn:b> <urn:p> \"2\" .\n");
+		// the blank node is relabeled when the file is saved by another tool
+		edit("<urn:a> <urn:p> _:x .\n_:x <urn:p> \"1\" .\n<urn:b> <urn:p> \"3\" .\n");
+
+		WorkingCopy.Changes changes = getChanges();
+		try {
+			assertFalse(changes.isEmpty());
+			assertTrue(changes.isFull());
+			assertEquals(3, Iterators.size(changes.working.lines()));
+		}
+		finally {
+			changes.close();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2012 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.clarkparsia.versioning.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.TupleQueryResultHandler;
+import org.openrdf.query.TupleQueryResultHandlerBase;
+import org.openrdf.rio.helpers.StatementCollector;
+
+import com.clarkparsia.sbol.editor.sparql.LocalEndpoint;
+import com.clarkparsia.sbol.editor.sparql.RDFInput;
+import com.clarkparsia.sbol.editor.sparql.SPARQLEndpoint;
+import com.clarkparsia.versioning.Branch;
+import com.clarkparsia.versioning.CommitConflictException;
+import com.clarkparsia.versioning.Infos;
+import com.clarkparsia.versioning.PersonInfo;
+import com.clarkparsia.versioning.RVT;
+import com.clarkparsia.versioning.RVTFactory;
+import com.clarkparsia.versioning.Repository;
+import com.clarkparsia.versioning.Revision;
+import com.clarkparsia.versioning.sparql.Terms;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class CommitTests {
+	private static final int THREADS = 8;
+	private static final int COMMITS = 25;
+
+	private CountingEndpoint counter;
+	private SPARQLEndpoint endpoint;
+	private RVT rvt;
+
+	@Before
+	public void beforeTest() throws Exception {
+		counter = new CountingEndpoint();
+		endpoint = counter;
+		rvt = RVTFactory.init(endpoint);
+	}
+
+	@Test
+	public void concurrentCommits() throws Exception {
+		Repository repo = rvt.createRepo("design", MergeTests.info("my design"));
+		final Branch master = repo.branches().get(Branch.MASTER);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Void>> futures = Lists.newArrayList();
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int j = 0; j < COMMITS; j++) {
+						RDFInput input = RDFInput.forStatements(Terms.stmt(Terms.uri("urn:design"), RDFS.LABEL,
+						                Terms.literal("version " + thread + "-" + j)));
+						while (true) {
+							try {
+								master.commit(input, MergeTests.info("commit " + thread + "-" + j));
+								break;
+							}
+							catch (CommitConflictException e) {
+								// another thread moved the head first, retry on top of the new head
+							}
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		// every commit is in a single linear history
+		List<String> messages = Lists.newArrayList();
+		for (Revision rev = master.getHead(); rev != null;) {
+			messages.add(0, rev.getActionInfo().getMessage());
+			List<Revision> parents = rev.getParents();
+			assertEquals(rev.equals(master.getTail()) ? 0 : 1, parents.size());
+			rev = parents.isEmpty() ? null : parents.get(0);
+		}
+		assertEquals(THREADS * COMMITS, messages.size());
+
+		// each commit is there once and the commits of each thread are in the order they were made
+		int[] next = new int[THREADS];
+		for (String message : messages) {
+			String[] ids = message.substring("commit ".length()).split("-");
+			int thread = Integer.parseInt(ids[0]);
+			assertEquals(message, next[thread]++, Integer.parseInt(ids[1]));
+		}
+		for (int i = 0; i < THREADS; i++) {
+			assertEquals(COMMITS, next[i]);
+		}
+
+		// rejected commits leave nothing behind: one graph per revision plus the metadata graph
+		assertEquals(THREADS * COMMITS + 1, countGraphs());
+	}
+
+	@Test
+	public void deltaCommit() throws Exception {
+		Repository repo = rvt.createRepo("design", MergeTests.info("my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		
+		List<Statement> stmts = Lists.newArrayList();
+		for (int i = 0; i < 1000; i++) {
+			stmts.add(Terms.stmt(Terms.uri("urn:part" + i), RDFS.LABEL, Terms.literal("part " + i)));
+		}
+		Revision rev1 = master.commit(RDFInput.forStatements(stmts), MergeTests.info("first commit"));
+		
+		Statement removed = stmts.remove(0);
+		Statement added = Terms.stmt(Terms.uri("urn:part0"), RDFS.LABEL, Terms.literal("renamed part"));
+		stmts.add(added);
+		
+		counter.uploaded = 0;
+		Revision rev2 = master.commit(rev1, RDFInput.forStatements(removed), RDFInput.forStatements(added),
+		                MergeTests.info("rename"));
+		assertEquals(2, counter.uploaded);
+		
+		StatementCollector collector = new StatementCollector();
+		rev2.checkout(collector);
+		assertEquals(Sets.newHashSet(stmts), Sets.newHashSet(collector.getStatements()));
+		assertEquals(ImmutableList.of(rev1), rev2.getParents());
+		
+		try {
+			master.commit(rev1, RDFInput.forStatements(added), RDFInput.forStatements(removed), MergeTests.info("stale"));
+			fail("Commit on a stale base revision should be rejected");
+		}
+		catch (CommitConflictException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void staleCommit() throws Exception {
+		Repository repo = rvt.createRepo("design", MergeTests.info("my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		Statement stmt1 = Terms.stmt(Terms.uri("urn:part"), RDFS.LABEL, Terms.literal("version 1"));
+		Statement stmt2 = Terms.stmt(Terms.uri("urn:part"), RDFS.LABEL, Terms.literal("version 2"));
+
+		Revision rev1 = master.commit(null, RDFInput.forStatements(stmt1), MergeTests.info("first commit"));
+		Revision rev2 = master.commit(rev1, RDFInput.forStatements(stmt2), MergeTests.info("second commit"));
+		assertEquals(ImmutableList.of(rev1), rev2.getParents());
+
+		// contents checked out from the first revision would overwrite the second one
+		try {
+			master.commit(rev1, RDFInput.forStatements(stmt1), MergeTests.info("stale"));
+			fail("Commit on a stale base revision should be rejected");
+		}
+		catch (CommitConflictException e) {
+			// expected
+		}
+		try {
+			master.commit(null, RDFInput.forStatements(stmt1), MergeTests.info("stale"));
+			fail("Commit on an empty branch should be rejected");
+		}
+		catch (CommitConflictException e) {
+			// expected
+		}
+		assertEquals(rev2, master.getHead());
+	}
+
+	@Test
+	public void listWithInfo() throws Exception {
+		Repository repo = rvt.createRepo("design", MergeTests.info("my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		PersonInfo author = MergeTests.info("").getAuthor();
+		for (int i = 0; i < 5; i++) {
+			Calendar date = new GregorianCalendar(2015, Calendar.JANUARY, 1 + i);
+			master.commit(RDFInput.forStatements(Terms.stmt(Terms.uri("urn:part"), RDFS.LABEL, Terms.literal("part " + i))),
+			                Infos.forAction(author, "commit " + i, date));
+		}
+		
+		counter.selectQueries = 0;
+		Repository listedRepo = Iterables.getOnlyElement(rvt.repos().list());
+		Branch listedMaster = Iterables.getOnlyElement(listedRepo.branches().list());
+		List<Revision> revisions = listedMaster.getRevisions();
+		assertEquals(3, counter.selectQueries);
+		
+		assertEquals("my design", listedRepo.getActionInfo().getMessage());
+		assertEquals(Branch.MASTER, listedMaster.getActionInfo().getMessage());
+		assertEquals(5, revisions.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals("commit " + (4 - i), revisions.get(i).getActionInfo().getMessage());
+		}
+		assertEquals(3, counter.selectQueries);
+	}
+
+	@Test
+	public void listWithSeveralUserNames() throws Exception {
+		PersonInfo author = MergeTests.info("").getAuthor();
+		endpoint.addData(RDFInput.forStatements(Terms.stmt(author.getURI(), RDFS.LABEL, Terms.literal("First")),
+		                Terms.stmt(author.getURI(), RDFS.LABEL, Terms.literal("Second")),
+		                Terms.stmt(author.getURI(), Terms.email, Terms.uri("mailto:first@example.org")),
+		                Terms.stmt(author.getURI(), Terms.email, Terms.uri("mailto:second@example.org"))),
+		                Terms.Metadata.stringValue());
+		Repository repo = rvt.createRepo("design", Infos.forAction(author, "my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		master.commit(RDFInput.forStatements(Terms.stmt(Terms.uri("urn:part"), RDFS.LABEL, Terms.literal("part"))),
+		                Infos.forAction(author, "commit"));
+
+		Repository listedRepo = Iterables.getOnlyElement(rvt.repos().list());
+		assertEquals(repo, rvt.repos().get("design"));
+		assertEquals(master, Iterables.getOnlyElement(listedRepo.branches().list()));
+		assertEquals(1, master.getRevisions().size());
+		String userName = listedRepo.getActionInfo().getAuthor().getName();
+		assertTrue(userName, ImmutableSet.of("First", "Second").contains(userName));
+	}
+
+	private int countGraphs() throws QueryEvaluationException {
+		final AtomicInteger count = new AtomicInteger();
+		endpoint.executeSelectQuery("SELECT DISTINCT ?g { GRAPH ?g { ?s ?p ?o } }", new TupleQueryResultHandlerBase() {
+			@Override
+			public void handleSolution(BindingSet bindingSet) {
+				count.incrementAndGet();
+			}
+		});
+		return count.get();
+	}
+
+	/**
+	 * Counts the statements uploaded to revision graphs.
+	 */
+	private static class CountingEndpoint extends LocalEndpoint {
+		private int uploaded;
+		private int selectQueries;
+
+		@Override
+		public void executeSelectQuery(String query, TupleQueryResultHandler handler) throws QueryEvaluationException {
+			selectQueries++;
+			super.executeSelectQuery(query, handler);
+		}
+
+		@Override
+		public void addData(RDFInput input, String namedGraph) throws Exception {
+			count(input, namedGraph);
+			super.addData(input, namedGraph);
+		}
+
+		@Override
+		public void removeData(RDFInput input, String namedGraph) throws Exception {
+			count(input, namedGraph);
+			super.removeData(input, namedGraph);
+		}
+
+		private void count(RDFInput input, String namedGraph) {
+			if (input.isStatements() && !Terms.Metadata.stringValue().equals(namedGraph)) {
+				uploaded += Iterables.size(input.getStatements());
+			}
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package com.clarkparsia.versioning.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Set;
 
@@ -23,6 +24,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.rio.helpers.StatementCollector;
 
@@ -37,7 +39,10 @@ import com.clarkparsia.versioning.RVT;
 import com.clarkparsia.versioning.RVTFactory;
 import com.clarkparsia.versioning.Repository;
 import com.clarkparsia.versioning.Revision;
+import com.clarkparsia.versioning.sparql.RDFDiff;
+import com.clarkparsia.versioning.sparql.SortedStatements;
 import com.clarkparsia.versioning.sparql.Terms;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
@@ -96,6 +101,166 @@ public class MergeTests {
 	}
 	
 
+	@Test
+	public void mergeAfterMerge() throws Exception {
+		Statement stmt1 = Terms.stmt(user.getURI(), RDFS.LABEL, Terms.literal("master version"));
+		Statement stmt2 = Terms.stmt(user.getURI(), RDFS.COMMENT, Terms.literal("devel version"));
+		Statement stmt3 = Terms.stmt(user.getURI(), RDFS.SEEALSO, Terms.literal("see also"));
+		
+		Repository repo = rvt.createRepo("design", info("my design"));
+		
+		Branch master = repo.branches().get(Branch.MASTER);
+		Revision rev1 = master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1)), info("first commit"));
+		
+		Branch devel = rev1.branch("devel", info("devel branch"));
+		Revision rev2 = devel.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt2)), info("devel commit"));
+		master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt3)), info("master commit"));
+		Revision rev4 = master.merge(rev2, info("merge devel branch"));
+		
+		// the statement merged into master earlier is removed in devel and the merge base is the previous devel
+		// revision so it should not be added back
+		devel.commit(RDFInput.forStatements(ImmutableSet.of(stmt1)), info("devel removal"));
+		Revision rev6 = devel.merge(rev4, info("merge master branch"));
+		
+		StatementCollector collector = new StatementCollector();
+		rev6.checkout(collector);
+		assertEquals(ImmutableSet.of(stmt1, stmt3), Sets.newHashSet(collector.getStatements()));
+	}
+
+	@Test
+	public void revisionDiff() throws Exception {
+		Statement stmt1 = Terms.stmt(user.getURI(), RDFS.LABEL, Terms.literal("master version"));
+		Statement stmt2 = Terms.stmt(user.getURI(), RDFS.COMMENT, Terms.literal("devel version"));
+		Statement stmt3 = Terms.stmt(user.getURI(), RDFS.SEEALSO, Terms.literal("see also"));
+		
+		Repository repo = rvt.createRepo("design", info("my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		Revision rev1 = master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt2)), info("first commit"));
+		Revision rev2 = master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt3)), info("second commit"));
+		
+		StatementCollector removals = new StatementCollector();
+		StatementCollector additions = new StatementCollector();
+		rev1.diff(rev2, removals, additions);
+		assertEquals(ImmutableSet.of(stmt2), Sets.newHashSet(removals.getStatements()));
+		assertEquals(ImmutableSet.of(stmt3), Sets.newHashSet(additions.getStatements()));
+	}
+
+	@Test
+	public void partialCheckout() throws Exception {
+		URI part = Terms.uri("urn:part");
+		URI sub = Terms.uri("urn:sub");
+		URI seq = Terms.uri("urn:seq");
+		URI other = Terms.uri("urn:other");
+		URI hasSub = Terms.uri("urn:hasSub");
+		URI hasSeq = Terms.uri("urn:hasSeq");
+		Set<Statement> partStmts = ImmutableSet.of(
+			Terms.stmt(part, RDFS.LABEL, Terms.literal("part")),
+			Terms.stmt(part, hasSub, sub),
+			Terms.stmt(sub, hasSeq, seq),
+			Terms.stmt(sub, RDFS.SEEALSO, other),
+			Terms.stmt(seq, RDFS.LABEL, Terms.literal("sequence")));
+		Set<Statement> otherStmts = ImmutableSet.of(
+			Terms.stmt(other, RDFS.LABEL, Terms.literal("other")),
+			Terms.stmt(other, hasSub, sub));
+		
+		Repository repo = rvt.createRepo("design", info("my design"));
+		Branch master = repo.branches().get(Branch.MASTER);
+		Revision rev = master.commit(RDFInput.forStatements(Sets.union(partStmts, otherStmts)), info("first commit"));
+		
+		StatementCollector collector = new StatementCollector();
+		rev.checkout(collector, ImmutableList.of(part), ImmutableList.of(hasSub, hasSeq));
+		assertEquals(partStmts, Sets.newHashSet(collector.getStatements()));
+	}
+
+	@Test
+	public void sortedDiff() throws Exception {
+		// small batches so the statements are spilled to disk
+		SortedStatements initialStmts = new SortedStatements(7);
+		SortedStatements finalStmts = new SortedStatements(7);
+		SortedStatements headStmts = new SortedStatements(7);
+		SortedStatements removals = new SortedStatements(7);
+		SortedStatements additions = new SortedStatements(7);
+		Set<Statement> expected = Sets.newHashSet();
+		for (int i = 0; i < 100; i++) {
+			Statement stmt = Terms.stmt(Terms.uri("urn:s" + i), RDFS.LABEL, Terms.literal("\"label\" \u00e9 " + i));
+			if (i < 50) {
+				initialStmts.handleStatement(stmt);
+			}
+			if (i >= 25 && i < 75) {
+				finalStmts.handleStatement(stmt);
+			}
+			if (i % 2 == 0) {
+				headStmts.handleStatement(stmt);
+				// duplicates are ignored
+				headStmts.handleStatement(stmt);
+			}
+			if ((i % 2 == 0 && i >= 25) || (i >= 50 && i < 75)) {
+				expected.add(stmt);
+			}
+		}
+		
+		try {
+			RDFDiff.compute(initialStmts, finalStmts, removals, additions);
+			StatementCollector collector = new StatementCollector();
+			RDFDiff.apply(headStmts, removals, additions).read(collector);
+			assertEquals(expected, Sets.newHashSet(collector.getStatements()));
+			assertEquals(expected.size(), collector.getStatements().size());
+		}
+		finally {
+			initialStmts.close();
+			finalStmts.close();
+			headStmts.close();
+			removals.close();
+			additions.close();
+		}
+	}
+
+	@Test
+	public void backfillAncestryIndex() throws Exception {
+		Statement stmt1 = Terms.stmt(user.getURI(), RDFS.LABEL, Terms.literal("master version"));
+		Statement stmt2 = Terms.stmt(user.getURI(), RDFS.COMMENT, Terms.literal("devel version"));
+		Statement stmt3 = Terms.stmt(user.getURI(), RDFS.SEEALSO, Terms.literal("see also"));
+		
+		Repository repo = rvt.createRepo("design", info("my design"));
+		
+		Branch master = repo.branches().get(Branch.MASTER);
+		Revision rev1 = master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1)), info("first commit"));
+		
+		Branch devel = rev1.branch("devel", info("devel branch"));
+		Revision rev2 = devel.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt2)), info("devel commit"));
+		master.commit(RDFInput.forStatements(ImmutableSet.of(stmt1, stmt3)), info("master commit"));
+		Revision rev4 = master.merge(rev2, info("merge devel branch"));
+		devel.commit(RDFInput.forStatements(ImmutableSet.of(stmt1)), info("devel removal"));
+		
+		// drop the index as if the history was committed before the index was introduced
+		Set<Statement> index = getAncestryIndex();
+		endpoint.removeData(RDFInput.forStatements(index), Terms.Metadata.stringValue());
+		assertEquals(ImmutableSet.of(), getAncestryIndex());
+		
+		Revision rev6 = devel.merge(rev4, info("merge master branch"));
+		
+		StatementCollector collector = new StatementCollector();
+		rev6.checkout(collector);
+		assertEquals(ImmutableSet.of(stmt1, stmt3), Sets.newHashSet(collector.getStatements()));
+		
+		// the old history is indexed again exactly as it was and the merge is indexed on top of it 
+		Set<Statement> backfilled = getAncestryIndex();
+		assertEquals(ImmutableSet.of(), Sets.difference(index, backfilled));
+		assertTrue(backfilled.contains(Terms.stmt(rev6.getURI(), Terms.generation, Terms.literal(3))));
+	}
+	
+	private static Set<Statement> getAncestryIndex() throws Exception {
+		StatementCollector collector = new StatementCollector();
+		endpoint.export(collector, Terms.Metadata.stringValue());
+		Set<Statement> index = Sets.newHashSet();
+		for (Statement stmt : collector.getStatements()) {
+			if (stmt.getPredicate().equals(Terms.generation) || stmt.getPredicate().equals(Terms.hasLatestAncestor)) {
+				index.add(Terms.stmt(stmt.getSubject(), stmt.getPredicate(), stmt.getObject()));
+			}
+		}
+		return index;
+	}
+
 	public void testMerge(Set<Statement> firstCommit, Set<Statement> develCommit, Set<Statement> masterCommit, Set<Statement> mergeResult) throws Exception {
 		Repository repo = rvt.createRepo("design", info("my design"));
 		
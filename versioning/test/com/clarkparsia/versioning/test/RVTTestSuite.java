@@ -19,9 +19,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.clarkparsia.versioning.cli.WorkingCopyTests;
+
 
 @RunWith(Suite.class)
-@SuiteClasses(MergeTests.class)
+@SuiteClasses({ MergeTests.class, CommitTests.class, WorkingCopyTests.class })
 public class RVTTestSuite {
 
 }